@@ -0,0 +1,205 @@
+package union.utils.imagegen;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import union.objects.ReportData;
+import union.utils.file.FileManager;
+import union.utils.file.lang.LocaleUtil;
+import union.utils.imagegen.renders.ModReportRender;
+import union.utils.imagegen.renders.ModStatsRender;
+import union.utils.imagegen.renders.UserProfileRender;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render time of profile, mod stats and mod report images, run with {@code gradlew jmh}.
+ * <p>Cached profile render uses the pre-scaled background and decoded avatar from {@link AvatarCache}.
+ * Uncached render decodes and scales them on each render, as it was done before,
+ * avatar download itself is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+	private static final DiscordLocale LOCALE = DiscordLocale.ENGLISH_UK;
+	private static final String BACKGROUND_IMAGE = "mountain-range.jpg";
+
+	private Path dir;
+	private LocaleUtil lu;
+	private Member member;
+	private String avatarUrl;
+	private byte[] avatarBytes, backgroundBytes;
+	private UserBackground background, uncachedBackground;
+	private List<ReportData> reportData;
+
+	@Setup
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("render-benchmark");
+
+		Path langFile = dir.resolve("en-GB.json");
+		Files.write(langFile, resource("/lang/en-GB.json"));
+		lu = new LocaleUtil(new FileManager() {
+			@Override
+			public List<DiscordLocale> getLanguages() {
+				return List.of(LOCALE);
+			}
+
+			@Override
+			public File getFile(String name) {
+				return langFile.toFile();
+			}
+		}, LOCALE);
+
+		// Avatar is read from file, same as a download
+		avatarBytes = encode(avatar());
+		Path avatarFile = dir.resolve("avatar.png");
+		Files.write(avatarFile, avatarBytes);
+		avatarUrl = avatarFile.toUri().toString();
+		AvatarCache.get(avatarUrl);
+		member = member("Moderator", avatarUrl);
+
+		backgroundBytes = resource("/backgrounds/"+BACKGROUND_IMAGE);
+		background = background();
+		background.setImage(UserBackgroundHandler.scale(ImageIO.read(new ByteArrayInputStream(backgroundBytes))));
+		uncachedBackground = background();
+
+		reportData = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			reportData.add(new ReportData(member("Moderator "+i, avatarUrl), i % 5, Map.of(1, i, 2, i * 2, 21, i % 3)));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (var files = Files.walk(dir)) {
+			files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public byte[] profileCached() throws IOException {
+		return profile(background).renderToBytes();
+	}
+
+	@Benchmark
+	public byte[] profileUncached(Blackhole blackhole) throws IOException {
+		blackhole.consume(ImageIO.read(new ByteArrayInputStream(avatarBytes)));
+		uncachedBackground.setImage(UserBackgroundHandler.scale(ImageIO.read(new ByteArrayInputStream(backgroundBytes))));
+		return profile(uncachedBackground).renderToBytes();
+	}
+
+	@Benchmark
+	public byte[] modStats() throws IOException {
+		Map<Integer, Integer> counts = Map.of(1, 12, 2, 5, 3, 2, 21, 7);
+		return new ModStatsRender(LOCALE, lu, "Moderator", counts, counts, counts, 40, 10, 3).renderToBytes();
+	}
+
+	@Benchmark
+	public byte[] modReport() throws IOException {
+		LocalDateTime now = LocalDateTime.now();
+		return new ModReportRender(LOCALE, lu, now.minusDays(30), now, reportData).renderToBytes();
+	}
+
+	private UserProfileRender profile(UserBackground background) {
+		return new UserProfileRender(member)
+			.setLocale(lu, LOCALE)
+			.setBackground(background)
+			.setLevel(12, 4)
+			.setTotalExperience(15_000, 2_000)
+			.setXpDiff(2_500, 900)
+			.setPercentage(40, 75)
+			.setCurrentLevelExperience(1_000, 675)
+			.setServerRank("3", "17")
+			.setGlobalExperience(40_000);
+	}
+
+	private UserBackground background() throws IOException {
+		JSONArray themes = new JSONObject(new String(resource("/backgrounds/index.json"), StandardCharsets.UTF_8)).getJSONArray("themes");
+		for (Object o : themes) {
+			JSONObject theme = (JSONObject) o;
+			if (BACKGROUND_IMAGE.equals(theme.optString("image"))) {
+				return new UserBackgroundLoader(theme).getUserBackground();
+			}
+		}
+		throw new IOException("Background theme not found.");
+	}
+
+	private static BufferedImage avatar() {
+		BufferedImage image = new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setPaint(new GradientPaint(0, 0, Color.ORANGE, 512, 512, Color.BLUE));
+		g.fillRect(0, 0, 512, 512);
+		g.dispose();
+		return image;
+	}
+
+	private static byte[] encode(BufferedImage image) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private static byte[] resource(String path) throws IOException {
+		try (InputStream in = RenderBenchmark.class.getResourceAsStream(path)) {
+			if (in == null) throw new IOException("Resource not found: "+path);
+			return in.readAllBytes();
+		}
+	}
+
+	// Only the getters used by renders
+	private static Member member(String name, String avatarUrl) {
+		OffsetDateTime time = OffsetDateTime.now().minusYears(1);
+		User user = stub(User.class, Map.of("getName", name.toLowerCase().replace(' ', '_'), "getTimeCreated", time));
+		return stub(Member.class, Map.of(
+			"getUser", user,
+			"getEffectiveName", name,
+			"getEffectiveAvatarUrl", avatarUrl,
+			"getTimeJoined", time
+		));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, Map<String, Object> values) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			if (!values.containsKey(method.getName())) throw new UnsupportedOperationException(method.getName());
+			return values.get(method.getName());
+		});
+	}
+
+}
@@ -29,6 +29,7 @@ import union.menus.*;
 import union.metrics.Metrics;
 import union.objects.constants.Constants;
 import union.services.CountingThreadFactory;
+import union.services.ProfileDataService;
 import union.services.ScheduledCheck;
 import union.services.ScheduledMetrics;
 import union.utils.*;
@@ -36,6 +37,7 @@ import union.utils.database.DBUtil;
 import union.utils.file.FileManager;
 import union.utils.file.SettingsManager;
 import union.utils.file.lang.LocaleUtil;
+import union.utils.imagegen.RenderExecutor;
 import union.utils.imagegen.UserBackgroundHandler;
 import union.utils.level.LevelUtil;
 import union.utils.logs.LogEmbedUtil;
@@ -87,6 +89,7 @@ public class App {
 	private final ModerationUtil moderationUtil;
 	private final LevelUtil levelUtil;
 	private final AlertUtil alertUtil;
+	private final ProfileDataService profileService;
 
 	@SuppressWarnings("BusyWait")
 	public App() {
@@ -120,6 +123,7 @@ public class App {
 		moderationUtil = new ModerationUtil(dbUtil, localeUtil);
 		levelUtil	= new LevelUtil(this);
 		alertUtil	= new AlertUtil();
+		profileService = new ProfileDataService(this);
 
 		ScheduledExecutorService scheduledExecutor = new ScheduledThreadPoolExecutor(4, new CountingThreadFactory("UTB", "Scheduler", false));
 
@@ -137,14 +141,20 @@ public class App {
 		ScheduledCheck scheduledCheck = new ScheduledCheck(this);
 		scheduledExecutor.scheduleAtFixedRate(scheduledCheck::timedChecks, 3, 10, TimeUnit.MINUTES);
 		scheduledExecutor.scheduleAtFixedRate(scheduledCheck::regularChecks, 2, 3, TimeUnit.MINUTES);
+		scheduledExecutor.schedule(scheduledCheck::startExpirations, 2, TimeUnit.MINUTES);
 
 		ScheduledMetrics scheduledMetrics = new ScheduledMetrics(this);
 		scheduledExecutor.scheduleAtFixedRate(scheduledMetrics::recordMetrics, 5, 5, TimeUnit.MINUTES);
 
+		// Commands are run on separate threads, optional
+		Integer commandThreads = fileManager.getInteger("config", "command-threads");
+		Boolean commandGuildOrder = fileManager.getBoolean("config", "command-guild-order");
+
 		// Define a command client
 		commandClient = new CommandClientBuilder()
 			.setOwnerId(ownerId)
 			.setScheduleExecutor(scheduledExecutor)
+			.setCommandExecution(commandThreads==null ? 8 : commandThreads, Boolean.TRUE.equals(commandGuildOrder))
 			.setStatus(OnlineStatus.ONLINE)
 			.setActivity(Activity.customStatus("/about | unionteams.ru"))
 			.addSlashCommands(
@@ -391,8 +401,14 @@ public class App {
 		return alertUtil;
 	}
 
+	public ProfileDataService getProfileService() {
+		return profileService;
+	}
+
 	public void shutdownUtils() {
-		// ignore
+		profileService.shutdown();
+		RenderExecutor.shutdown();
+		dbUtil.shutdown();
 	}
 
 	private void createWebhookAppender() {
@@ -46,6 +46,8 @@ public class CommandClientBuilder {
 	private CommandListener listener;
 	private boolean shutdownAutomatically = true;
 	private ScheduledExecutorService executor;
+	private int commandThreads = 0;
+	private boolean guildOrdered = false;
 
 	/**
 	 * Builds a {@link union.base.command.impl.CommandClientImpl CommandClientImpl}
@@ -59,7 +61,7 @@ public class CommandClientBuilder {
 			ownerId, activity, status,
 			new ArrayList<>(slashCommands), new ArrayList<>(contextMenus),
 			forcedGuildId, devGuildIds, manualUpsert,
-			shutdownAutomatically, executor
+			shutdownAutomatically, executor, commandThreads, guildOrdered
 		);
 		if (listener!=null)
 			client.setListener(listener);
@@ -258,6 +260,23 @@ public class CommandClientBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets how interactions are executed.
+	 * <br>By default, commands, context menus and autocomplete are run on the JDA event thread.
+	 *
+	 * @param  threads
+	 *         Max interactions handled at the same time, {@code 0} to run them on the event thread
+	 * @param  guildOrdered
+	 *         {@code true} to handle interactions of the same guild one after another
+	 *
+	 * @return This builder
+	 */
+	public CommandClientBuilder setCommandExecution(int threads, boolean guildOrdered) {
+		this.commandThreads = threads;
+		this.guildOrdered = guildOrdered;
+		return this;
+	}
+
 	/**
 	 * Sets the Command Client to shut down internals automatically when a
 	 * {@link net.dv8tion.jda.api.events.session.ShutdownEvent ShutdownEvent} is received.
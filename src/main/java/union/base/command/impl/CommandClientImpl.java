@@ -21,10 +21,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.jetbrains.annotations.NotNull;
+import union.App;
 import union.base.command.CommandClient;
 import union.base.command.CommandListener;
 import union.base.command.ContextMenu;
@@ -46,8 +48,11 @@ import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEve
 import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.events.session.ShutdownEvent;
+import net.dv8tion.jda.api.exceptions.ErrorHandler;
 import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.requests.ErrorResponse;
 import net.dv8tion.jda.internal.utils.Checks;
 
 import org.slf4j.Logger;
@@ -76,15 +81,16 @@ public class CommandClientImpl implements CommandClient, EventListener {
 	private final String forcedGuildId;
 	private final String[] devGuildIds;
 	private final boolean manualUpsert;
-	private final HashMap<String,OffsetDateTime> cooldowns;
+	private final ConcurrentHashMap<String,OffsetDateTime> cooldowns;
 	private final boolean shutdownAutomatically;
 	private final ScheduledExecutorService executor;
+	private final CommandExecutor commandExecutor;
 
 	private CommandListener listener = null;
 
 	public CommandClientImpl(long ownerId, Activity activity, OnlineStatus status,
 							 ArrayList<SlashCommand> slashCommands, ArrayList<ContextMenu> contextMenus, String forcedGuildId, String[] devGuildIds, boolean manualUpsert,
-							 boolean shutdownAutomatically, ScheduledExecutorService executor)
+							 boolean shutdownAutomatically, ScheduledExecutorService executor, int commandThreads, boolean guildOrdered)
 	{
 		Checks.check(ownerId > 0L, "Provided owner ID is incorrect (<0).");
 
@@ -101,9 +107,10 @@ public class CommandClientImpl implements CommandClient, EventListener {
 		this.forcedGuildId = forcedGuildId;
 		this.devGuildIds = devGuildIds==null || devGuildIds.length==0 ? null : devGuildIds;
 		this.manualUpsert = manualUpsert;
-		this.cooldowns = new HashMap<>();
+		this.cooldowns = new ConcurrentHashMap<>();
 		this.shutdownAutomatically = shutdownAutomatically;
 		this.executor = executor==null ? Executors.newSingleThreadScheduledExecutor() : executor;
+		this.commandExecutor = new CommandExecutor(commandThreads, guildOrdered);
 
 		// Load slash commands
 		for (SlashCommand command : slashCommands) {
@@ -172,10 +179,11 @@ public class CommandClientImpl implements CommandClient, EventListener {
 
 	@Override
 	public int getRemainingCooldown(String name) {
-		if(cooldowns.containsKey(name)) {
-			int time = (int) Math.ceil(OffsetDateTime.now().until(cooldowns.get(name), ChronoUnit.MILLIS) / 1000D);
+		OffsetDateTime cooldown = cooldowns.get(name);
+		if (cooldown != null) {
+			int time = (int) Math.ceil(OffsetDateTime.now().until(cooldown, ChronoUnit.MILLIS) / 1000D);
 			if (time<=0) {
-				cooldowns.remove(name);
+				cooldowns.remove(name, cooldown);
 				return 0;
 			}
 			return time;
@@ -192,8 +200,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
 	@Override
 	public void cleanCooldowns() {
 		OffsetDateTime now = OffsetDateTime.now();
-		cooldowns.keySet().stream().filter((str) -> (cooldowns.get(str).isBefore(now)))
-				.toList().forEach(cooldowns::remove);
+		cooldowns.values().removeIf(time -> time.isBefore(now));
 	}
 
 	@Override
@@ -268,6 +275,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
 	public void shutdown()
 	{
 		executor.shutdown();
+		commandExecutor.shutdown();
 	}
 
 	@Override
@@ -407,7 +415,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
 		if (command != null) {
 			if (listener != null)
 				listener.onSlashCommand(commandEvent, command);
-			command.run(commandEvent);
+			commandExecutor.execute(event.getFullCommandName(), guildId(event.getGuild()), () -> command.run(commandEvent), () -> replyBusy(event));
 			// Command is done
 		}
 	}
@@ -417,10 +425,23 @@ public class CommandClientImpl implements CommandClient, EventListener {
 		final SlashCommand command = findSlashCommand(event.getFullCommandName());
 
 		if (command != null) {
-			command.onAutoComplete(event);
+			// Not ordered, must not wait for slow commands of the same guild
+			commandExecutor.execute(event.getFullCommandName()+" (autocomplete)", null, () -> command.onAutoComplete(event),
+				() -> event.replyChoices(List.of()).queue(null, new ErrorHandler().ignore(ErrorResponse.UNKNOWN_INTERACTION)));
 		}
 	}
 
+	// Interaction will not be handled, ask to try again
+	private void replyBusy(IReplyCallback event) {
+		event.replyEmbeds(App.getInstance().getEmbedUtil().getError(event, "errors.busy"))
+			.setEphemeral(true)
+			.queue(null, new ErrorHandler().ignore(ErrorResponse.UNKNOWN_INTERACTION));
+	}
+
+	private Long guildId(Guild guild) {
+		return guild == null ? null : guild.getIdLong();
+	}
+
 	private SlashCommand findSlashCommand(String path) {
 		String[] parts = path.split(" ");
 
@@ -473,7 +494,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
 		if (menu != null) {
 			if (listener != null)
 				listener.onUserContextMenu(menuEvent, menu);
-			menu.run(menuEvent);
+			commandExecutor.execute(event.getName(), guildId(event.getGuild()), () -> menu.run(menuEvent), () -> replyBusy(event));
 			// Command is done
 		}
 	}
@@ -497,7 +518,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
 		if (menu != null) {
 			if (listener != null)
 				listener.onMessageContextMenu(menuEvent, menu);
-			menu.run(menuEvent);
+			commandExecutor.execute(event.getName(), guildId(event.getGuild()), () -> menu.run(menuEvent), () -> replyBusy(event));
 			// Command is done
 		}
 	}
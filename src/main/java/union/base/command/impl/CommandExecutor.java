@@ -0,0 +1,172 @@
+package union.base.command.impl;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import union.metrics.Metrics;
+import union.metrics.datapoints.Timer;
+import union.services.CountingThreadFactory;
+
+/**
+ * Runs interactions off the JDA event thread, so slow commands do not delay other gateway events.
+ *
+ * <p>Pool is bounded by thread count and queue size, when queue is full only this interaction is handled
+ * on the calling event thread, as it was before.
+ * With guild ordering, interactions of the same guild are handled one after another in order of arrival,
+ * at most {@link #QUEUE_PER_GUILD} of them may wait. When guild queue is full or can not be started,
+ * interaction is answered as busy instead.
+ * Interactions, that waited in queue longer than {@link #MAX_QUEUE_WAIT}, are answered as busy and skipped,
+ * as Discord only accepts the first response within 3 seconds.
+ */
+class CommandExecutor {
+	private static final Logger LOG = LoggerFactory.getLogger(CommandExecutor.class);
+
+	// Queued interactions per thread
+	private static final int QUEUE_PER_THREAD = 32;
+	// Pending interactions of one guild, when ordered
+	private static final int QUEUE_PER_GUILD = 16;
+	// Leaves time to respond before interaction expires, in nanoseconds
+	private static final long MAX_QUEUE_WAIT = TimeUnit.MILLISECONDS.toNanos(2_000);
+
+	private final ThreadPoolExecutor pool;
+	private final boolean guildOrdered;
+	// guildId - pending interactions, present while guild is being drained
+	private final Map<Long, Queue<Task>> guildQueues = new ConcurrentHashMap<>();
+
+	/**
+	 * @param threads max concurrently handled interactions, 0 to handle on the event thread
+	 * @param guildOrdered handle interactions of the same guild one at a time
+	 */
+	CommandExecutor(int threads, boolean guildOrdered) {
+		this.guildOrdered = guildOrdered;
+		this.pool = threads<=0 ? null : new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(threads*QUEUE_PER_THREAD), new CountingThreadFactory("UTB", "Command"),
+			new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * @param label metrics label
+	 * @param guildId guild of the interaction, null if outside guild or should not be ordered
+	 * @param busy answers the interaction, when it will not be handled
+	 */
+	void execute(String label, @Nullable Long guildId, Runnable task, Runnable busy) {
+		Task timed = new Task(label, task, busy);
+		if (pool == null) {
+			timed.run();
+		} else if (guildOrdered && guildId != null) {
+			enqueue(guildId, timed);
+		} else {
+			try {
+				pool.execute(timed);
+			} catch (RejectedExecutionException ex) {
+				// Pool is saturated, handle only this interaction here
+				timed.run();
+			}
+		}
+	}
+
+	void shutdown() {
+		if (pool != null) pool.shutdown();
+	}
+
+	private void enqueue(long guildId, Task task) {
+		boolean[] start = {false};
+		boolean[] full = {false};
+		guildQueues.compute(guildId, (k, queue) -> {
+			if (queue == null) {
+				queue = new ArrayDeque<>();
+				start[0] = true;
+			}
+			if (queue.size() >= QUEUE_PER_GUILD) {
+				full[0] = true;
+			} else {
+				queue.add(task);
+			}
+			return queue;
+		});
+		if (full[0]) {
+			task.reject("guild queue is full");
+			return;
+		}
+		if (!start[0]) return;
+		try {
+			pool.execute(() -> drain(guildId));
+		} catch (RejectedExecutionException ex) {
+			// Pool is saturated, guild backlog must not be drained on the event thread.
+			// No drain is running for this queue, next interaction starts a new one
+			Queue<Task> rejected = guildQueues.remove(guildId);
+			if (rejected != null) rejected.forEach(t -> t.reject("pool is saturated"));
+		}
+	}
+
+	private void drain(long guildId) {
+		Task task;
+		while ((task = poll(guildId)) != null) {
+			task.run();
+		}
+	}
+
+	// Removes guild queue once it is empty, next interaction starts new drain
+	private Task poll(long guildId) {
+		Task[] next = {null};
+		guildQueues.computeIfPresent(guildId, (k, queue) -> {
+			next[0] = queue.poll();
+			return next[0] == null ? null : queue;
+		});
+		return next[0];
+	}
+
+	private static class Task implements Runnable {
+		private final String label;
+		private final Runnable task, busy;
+		private final Timer queueTimer;
+		private final long queuedAt = System.nanoTime();
+
+		Task(String label, Runnable task, Runnable busy) {
+			this.label = label;
+			this.task = task;
+			this.busy = busy;
+			this.queueTimer = Metrics.commandQueueTime.labelValue(label).startTimer();
+		}
+
+		@Override
+		public void run() {
+			queueTimer.observeDuration();
+			long waited = System.nanoTime() - queuedAt;
+			if (waited > MAX_QUEUE_WAIT) {
+				LOG.warn("Interaction '{}' waited {} ms in queue, skipped as it can not be handled in time", label, TimeUnit.NANOSECONDS.toMillis(waited));
+				answerBusy();
+				return;
+			}
+			try (Timer ignored = Metrics.commandProcessingTime.labelValue(label).startTimer()) {
+				task.run();
+			} catch (Throwable t) {
+				LOG.error("Uncaught exception while handling interaction '{}'", label, t);
+			}
+		}
+
+		void reject(String reason) {
+			queueTimer.observeDuration();
+			LOG.warn("Interaction '{}' rejected, {}", label, reason);
+			answerBusy();
+		}
+
+		private void answerBusy() {
+			try {
+				busy.run();
+			} catch (Throwable t) {
+				LOG.error("Failed to answer busy interaction '{}'", label, t);
+			}
+		}
+	}
+
+}
@@ -24,7 +24,7 @@ import net.dv8tion.jda.internal.utils.Checks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
@@ -56,7 +56,7 @@ import java.util.function.Predicate;
 public class EventWaiter implements EventListener
 {
     private static final Logger LOG = LoggerFactory.getLogger(EventWaiter.class);
-    private final HashMap<Class<?>, Set<WaitingEvent>> waitingEvents;
+    private final Map<Class<?>, Set<WaitingEvent>> waitingEvents;
     private final ScheduledExecutorService threadpool;
     private final boolean shutdownAutomatically;
     
@@ -109,7 +109,8 @@ public class EventWaiter implements EventListener
         Checks.notNull(threadpool, "ScheduledExecutorService");
         Checks.check(!threadpool.isShutdown(), "Cannot construct EventWaiter with a closed ScheduledExecutorService!");
 
-        this.waitingEvents = new HashMap<>();
+        // Commands register waiters from command threads
+        this.waitingEvents = new ConcurrentHashMap<>();
         this.threadpool = threadpool;
 
         // "Why is there no default constructor?"
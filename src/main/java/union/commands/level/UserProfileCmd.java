@@ -12,18 +12,12 @@ import union.base.command.SlashCommandEvent;
 import union.commands.CommandBase;
 import union.objects.CmdAccessLevel;
 import union.objects.CmdModule;
-import union.objects.ExpType;
 import union.objects.constants.CmdCategory;
-import union.utils.SteamUtil;
-import union.utils.database.managers.LevelManager;
-import union.utils.database.managers.UnionPlayerManager.PlayerInfo;
 import union.utils.encoding.EncodingUtil;
 import union.utils.imagegen.UserBackground;
 import union.utils.imagegen.UserBackgroundHandler;
-import union.utils.imagegen.renders.UserProfileRender;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.List;
 
 public class UserProfileCmd extends CommandBase {
@@ -74,85 +68,33 @@ public class UserProfileCmd extends CommandBase {
 		long guildId = target.getGuild().getIdLong();
 		long userId = target.getIdLong();
 
-		UserProfileRender render = new UserProfileRender(target)
-			.setLocale(bot.getLocaleUtil(), event.getUserLocale())
-			.setBackground(background)
-			.setAccessLevel(bot.getCheckUtil().getAccessLevel(target));
-
 		// Get user account
 		// Only for Helper+
-		if (bot.getCheckUtil().hasAccess(event.getMember(), CmdAccessLevel.HELPER) || target.getUser().equals(event.getUser())) {
-			Long steam64 = bot.getDBUtil().verifyCache.getSteam64(userId);
-			if (steam64 != null && steam64 != 0L) {
-				String steamId;
-				try {
-					steamId = SteamUtil.convertSteam64toSteamID(steam64);
-				} catch (NumberFormatException ex) {
-					editError(event, "errors.error", "Failed to convert SteamID\nInput: `%s`".formatted(steam64));
+		boolean withAccount = bot.getCheckUtil().hasAccess(event.getMember(), CmdAccessLevel.HELPER) || target.getUser().equals(event.getUser());
+
+		bot.getProfileService().renderProfile(target, background, event.getUserLocale(), withAccount)
+			.whenComplete((bytes, ex) -> {
+				if (ex != null) {
+					App.getInstance().getAppLogger().error("Failed to generate the rank background: {}", ex.getMessage(), ex);
+					editError(event, path+".failed", "Rendering exception");
 					return;
 				}
-
-				List<PlayerInfo> playerInfo = bot.getDBUtil().unionPlayers.getPlayerInfo(guildId, steamId)
-					.stream()
-					.filter(PlayerInfo::exists)
-					.limit(6)
-					.toList();
-
-				if (!playerInfo.isEmpty()) {
-					render.setPlayerData(playerInfo);
+				if (bytes == null) {
+					editError(event, path+".failed", "Rendering exception");
+					return;
 				}
-			}
-		}
-
-		// Experience
-		LevelManager.PlayerData playerData = bot.getDBUtil().levels.getPlayer(guildId, userId);
-
-		long textExp = playerData.getExperience(ExpType.TEXT);
-		long voiceExp = playerData.getExperience(ExpType.VOICE);
 
-		int textLevel = bot.getLevelUtil().getLevelFromExperience(textExp);
-		int voiceLevel = bot.getLevelUtil().getLevelFromExperience(voiceExp);
+				// Send
+				final String attachmentName = EncodingUtil.encodeUserBg(guildId, userId);
 
-		long textMinXpInLevel = bot.getLevelUtil().getExperienceFromLevel(textLevel);
-		long voiceMinXpInLevel = bot.getLevelUtil().getExperienceFromLevel(voiceLevel);
+				EmbedBuilder embed = new EmbedBuilder()
+					.setImage("attachment://" + attachmentName)
+					.setColor(App.getInstance().getDBUtil().getGuildSettings(event.getGuild()).getColor());
 
-		long textXpDiff = bot.getLevelUtil().getExperienceFromLevel(textLevel + 1) - textMinXpInLevel;
-		long voiceXpDiff = bot.getLevelUtil().getExperienceFromLevel(voiceLevel + 1) - voiceMinXpInLevel;
-
-		Integer textRank = bot.getDBUtil().levels.getServerRank(guildId, userId, ExpType.TEXT);
-		Integer voiceRank = bot.getDBUtil().levels.getServerRank(guildId, userId, ExpType.VOICE);
-
-		long globalExperience = bot.getDBUtil().levels.getSumGlobalExp(userId);
-
-		render.setLevel(textLevel, voiceLevel)
-			.setTotalExperience(textExp, voiceExp)
-			.setXpDiff(textXpDiff, voiceXpDiff)
-			.setPercentage(
-				((double) (textExp - textMinXpInLevel) / textXpDiff) * 100,
-				((double) (voiceExp - voiceMinXpInLevel) / voiceXpDiff) * 100
-			)
-			.setCurrentLevelExperience(textExp - textMinXpInLevel, voiceExp - voiceMinXpInLevel)
-			.setServerRank(
-				textRank==null?"-":String.valueOf(textRank),
-				voiceRank==null?"-":String.valueOf(voiceRank)
-			)
-			.setGlobalExperience(globalExperience);
-
-		// Send
-		final String attachmentName = EncodingUtil.encodeUserBg(guildId, userId);
-
-		EmbedBuilder embed = new EmbedBuilder()
-			.setImage("attachment://" + attachmentName)
-			.setColor(App.getInstance().getDBUtil().getGuildSettings(event.getGuild()).getColor());
-
-		try {
-			event.getHook().editOriginalEmbeds(embed.build()).setFiles(FileUpload.fromData(
-				new ByteArrayInputStream(render.renderToBytes()),
-				attachmentName
-			)).queue();
-		} catch (IOException e) {
-			App.getInstance().getAppLogger().error("Failed to generate the rank background: {}", e.getMessage(), e);
-			editError(event, path+".failed", "Rendering exception");
-		}
+				event.getHook().editOriginalEmbeds(embed.build()).setFiles(FileUpload.fromData(
+					new ByteArrayInputStream(bytes),
+					attachmentName
+				)).queue();
+			});
 	}
 }
@@ -1,7 +1,6 @@
 package union.commands.moderation;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -27,6 +26,7 @@ import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import union.utils.encoding.EncodingUtil;
+import union.utils.imagegen.RenderExecutor;
 import union.utils.imagegen.renders.ModStatsRender;
 
 public class ModStatsCmd extends CommandBase {
@@ -83,8 +83,8 @@ public class ModStatsCmd extends CommandBase {
 			return;
 		}
 
-		int countRoles = bot.getDBUtil().ticket.countTicketsByMod(event.getGuild().getIdLong(), mod.getIdLong(), afterTime, beforeTime, true);
-		Map<Integer, Integer> countCases = bot.getDBUtil().cases.countCasesByMod(guildId, mod.getIdLong(), afterTime, beforeTime);
+		int countRoles = bot.getDBUtil().modStats.countTickets(guildId, mod.getIdLong(), afterTime, beforeTime, true);
+		Map<Integer, Integer> countCases = bot.getDBUtil().modStats.countCases(guildId, mod.getIdLong(), afterTime, beforeTime);
 
 		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneOffset.UTC);
 		String intervalText = "%s\n`%s` - `%s`".formatted(lu.getText(event, path+".title"), formatter.format(afterTime), formatter.format(beforeTime));
@@ -113,8 +113,8 @@ public class ModStatsCmd extends CommandBase {
 		long guildId = event.getGuild().getIdLong();
 		long modId = mod.getIdLong();
 
-		Map<Integer, Integer> countTotal = bot.getDBUtil().cases.countCasesByMod(guildId, modId);
-		final int rolesTotal = bot.getDBUtil().ticket.countTicketsByMod(guildId, modId, true);
+		Map<Integer, Integer> countTotal = bot.getDBUtil().modStats.countCases(guildId, modId);
+		final int rolesTotal = bot.getDBUtil().modStats.countTickets(guildId, modId, true);
 		if (countTotal.isEmpty() && rolesTotal==0) {
 			editError(event, path+".empty");
 			return;
@@ -122,14 +122,14 @@ public class ModStatsCmd extends CommandBase {
 
 		final Instant now = Instant.now();
 
-		Map<Integer, Integer> count30 = bot.getDBUtil().cases.countCasesByMod(guildId, modId, now.minus(30, ChronoUnit.DAYS));
-		final int roles30 = bot.getDBUtil().ticket.countTicketsByMod(guildId, modId, now.minus(30, ChronoUnit.DAYS), true);
+		Map<Integer, Integer> count30 = bot.getDBUtil().modStats.countCases(guildId, modId, now.minus(30, ChronoUnit.DAYS));
+		final int roles30 = bot.getDBUtil().modStats.countTickets(guildId, modId, now.minus(30, ChronoUnit.DAYS), true);
 
-		Map<Integer, Integer> count7 = bot.getDBUtil().cases.countCasesByMod(guildId, modId, now.minus(7, ChronoUnit.DAYS));
-		final int roles7 = bot.getDBUtil().ticket.countTicketsByMod(guildId, modId, now.minus(7, ChronoUnit.DAYS), true);
+		Map<Integer, Integer> count7 = bot.getDBUtil().modStats.countCases(guildId, modId, now.minus(7, ChronoUnit.DAYS));
+		final int roles7 = bot.getDBUtil().modStats.countTickets(guildId, modId, now.minus(7, ChronoUnit.DAYS), true);
 
 		if (!event.optBoolean("as_text", false)) {
-			ModStatsRender render = new ModStatsRender(event.getGuildLocale(), mod.getName(),
+			ModStatsRender render = new ModStatsRender(event.getGuildLocale(), lu, mod.getName(),
 				countTotal, count30, count7, rolesTotal, roles30, roles7);
 
 			final String attachmentName = EncodingUtil.encodeModstats(guildId, modId, now.getEpochSecond());
@@ -140,15 +140,21 @@ public class ModStatsCmd extends CommandBase {
 				.setFooter("ID: "+mod.getId())
 				.setTimestamp(now);
 
-			try {
+			RenderExecutor.render(render).whenComplete((bytes, e) -> {
+				if (e != null) {
+					App.getInstance().getAppLogger().error("Failed to generate the rank background: {}", e.getMessage(), e);
+					editError(event, path+".failed_image", "Rendering exception");
+					return;
+				}
+				if (bytes == null) {
+					editError(event, path+".failed_image", "Rendering exception");
+					return;
+				}
 				event.getHook().editOriginalEmbeds(embedBuilder.build()).setFiles(FileUpload.fromData(
-					new ByteArrayInputStream(render.renderToBytes()),
+					new ByteArrayInputStream(bytes),
 					attachmentName
 				)).queue();
-			} catch (IOException e) {
-				App.getInstance().getAppLogger().error("Failed to generate the rank background: {}", e.getMessage(), e);
-				editError(event, path+".failed_image", "Rendering exception");
-			}
+			});
 			return;
 		}
 
@@ -1,8 +1,5 @@
 package union.commands.owner;
 
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.Option;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
@@ -10,16 +7,18 @@ import net.dv8tion.jda.api.utils.AttachmentProxy;
 import union.base.command.SlashCommandEvent;
 import union.commands.CommandBase;
 import union.objects.constants.CmdCategory;
-import union.utils.CastUtil;
-import union.utils.SteamUtil;
+import union.utils.database.managers.BanlistManager;
+import union.utils.database.managers.BanlistManager.BanlistEntry;
+import union.utils.database.managers.BanlistManager.ImportResult;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 
 public class ImportBanlistCmd extends CommandBase {
@@ -29,7 +28,8 @@ public class ImportBanlistCmd extends CommandBase {
 		this.path = "bot.owner.banlist";
 		this.options = List.of(
 			new OptionData(OptionType.STRING, "table", lu.getText(path + ".table.help"), true),
-			new OptionData(OptionType.ATTACHMENT, "file", lu.getText(path + ".file.help"), true)
+			new OptionData(OptionType.ATTACHMENT, "file", lu.getText(path + ".file.help"), true),
+			new OptionData(OptionType.BOOLEAN, "replace", lu.getText(path + ".replace.help"))
 		);
 		this.category = CmdCategory.OWNER;
 		this.ownerCommand = true;
@@ -40,6 +40,10 @@ public class ImportBanlistCmd extends CommandBase {
 		event.deferReply().queue();
 
 		String table = event.optString("table");
+		if (!BanlistManager.TABLES.contains(table)) {
+			editErrorOther(event, "Unknown table!\nAvailable: "+String.join(", ", BanlistManager.TABLES));
+			return;
+		}
 		// Get file
 		try (final Message.Attachment attachment = event.optAttachment("file")) {
 			if (attachment == null) {
@@ -53,81 +57,25 @@ public class ImportBanlistCmd extends CommandBase {
 				return;
 			}
 
+			boolean replace = event.optBoolean("replace");
 			String contentType = attachment.getContentType();
 			if (contentType.startsWith("text/plain")) {
 				withInputStream(attachment.getProxy(), inputStream -> {
-					editMsg(event, "Starting data import...");
-					int added = 0;
-					try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-						String line;
-						if (isSteamID(reader.readLine())) {
-							// SteamID
-							while ((line = reader.readLine()) != null) {
-								long steam64 = SteamUtil.convertSteamIDtoSteam64(line);
-								try {
-									bot.getDBUtil().banlist.add(table, steam64);
-									added++;
-								} catch (SQLException ignored) {}
-							}
-						} else {
-							// Steam64
-							while ((line = reader.readLine()) != null) {
-								long steam64 = Long.parseLong(line);
-								try {
-									bot.getDBUtil().banlist.add(table, steam64);
-									added++;
-								} catch (SQLException ignored) {}
-							}
-						}
+					try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+						importEntries(event, table, BanlistManager.readLines(reader), replace);
 					} catch (IOException e) {
 						bot.getAppLogger().warn(e.getMessage(), e);
 						editErrorOther(event, e.getMessage());
-						return;
 					}
-					editMsg(event, "Added %s entries to `%s` table.".formatted(added, table));
 				});
 			} else if (contentType.startsWith("application/json")) {
 				withInputStream(attachment.getProxy(), inputStream -> {
-					editMsg(event, "Starting data import...");
-					int added = 0;
-					List<Map<String, String>> list = JsonPath.using(Configuration.defaultConfiguration()
-							.addOptions(Option.DEFAULT_PATH_LEAF_TO_NULL))
-						.parse(inputStream).read("$[*]");
-					if (!list.isEmpty()) {
-						int keySize = list.get(0).size();
-						if (keySize == 4) {
-							// Octo table
-							for (Map<String, String> map : list) {
-								try {
-									bot.getDBUtil().banlist.add(
-										table, CastUtil.castLong(map.get("steamID")), map.get("reason"), map.get("details"), map.get("command")
-									);
-									added++;
-								} catch (SQLException ignored) {}
-							}
-						} else if (keySize == 2) {
-							// Custom with reason
-							for (Map<String, String> map : list) {
-								try {
-									bot.getDBUtil().banlist.add(
-										table, CastUtil.castLong(map.get("steam64")), map.get("reason")
-									);
-									added++;
-								} catch (SQLException ignored) {}
-							}
-						} else if (keySize == 1) {
-							// Custom without reason
-							for (Map<String, String> map : list) {
-								try {
-									bot.getDBUtil().banlist.add(
-										table, CastUtil.castLong(map.get("steam64"))
-									);
-									added++;
-								} catch (SQLException ignored) {}
-							}
-						}
+					try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+						importEntries(event, table, BanlistManager.readJsonArray(reader), replace);
+					} catch (IOException e) {
+						bot.getAppLogger().warn(e.getMessage(), e);
+						editErrorOther(event, e.getMessage());
 					}
-					editMsg(event, "Added %s entries to `%s` table.".formatted(added, table));
 				});
 			} else {
 				editErrorOther(event, "Only txt and json allowed!\nProvided: "+contentType);
@@ -138,8 +86,17 @@ public class ImportBanlistCmd extends CommandBase {
 		}
 	}
 
-	private static boolean isSteamID(String line) {
-		return line != null && line.startsWith("STEAM_");
+	private void importEntries(SlashCommandEvent event, String table, Iterator<BanlistEntry> entries, boolean replace) {
+		editMsg(event, "Starting data import...");
+		try {
+			ImportResult result = bot.getDBUtil().banlist.bulkImport(table, entries, replace,
+				read -> editMsg(event, "Importing... read %s entries.".formatted(read))
+			);
+			editMsg(event, "Added %s of %s entries to `%s` table.".formatted(result.added(), result.read(), table));
+		} catch (SQLException | RuntimeException ex) {
+			bot.getAppLogger().warn("Banlist import failed", ex);
+			editErrorOther(event, ex.getMessage());
+		}
 	}
 
 	private void withInputStream(AttachmentProxy proxy, Consumer<InputStream> callback) {
@@ -17,6 +17,9 @@ import union.objects.constants.Constants;
 import union.services.ScheduledMetrics;
 import union.services.records.DatabaseData;
 import union.services.records.PingData;
+import union.utils.database.CircuitBreaker;
+import union.utils.database.SqlConnectionPool;
+import union.utils.database.SqlDBBase;
 
 import java.io.File;
 import java.io.IOException;
@@ -64,11 +67,14 @@ public class ViewMetricsCmd extends CommandBase {
 			double percentile95 = Metrics.executionTime.labelValue(commandName).getPercentile(95) * 1000;
 			double percentile90 = Metrics.executionTime.labelValue(commandName).getPercentile(80) * 1000;
 			double average = Metrics.executionTime.labelValue(commandName).getAverage() * 1000;
+			double queue95 = Metrics.commandQueueTime.labelValue(commandName).getPercentile(95) * 1000;
+			double queueAverage = Metrics.commandQueueTime.labelValue(commandName).getAverage() * 1000;
 
 			MessageEmbed embed = bot.getEmbedUtil().getEmbed()
 				.setTitle("Full name: "+commandName)
 				.addField("Count", "Executed: `%s`/`%s`\nException caught: `%s`".formatted(executed, received, exceptions), false)
 				.addField("Execution time", "Average: `%.2f` ms\n95%%: `%.2f` ms | 90%%: `%.2f` ms".formatted(average, percentile95, percentile90), false)
+				.addField("Queue time", "Average: `%.2f` ms\n95%%: `%.2f` ms".formatted(queueAverage, queue95), false)
 				.build();
 
 			editEmbed(event, embed);
@@ -201,15 +207,31 @@ public class ViewMetricsCmd extends CommandBase {
 		protected void execute(SlashCommandEvent event) {
 			event.deferReply().queue();
 
+			String status = "**MariaDB**\n" +
+				formatStatus("website", bot.getDBUtil().unionVerify) +
+				formatStatus("central", bot.getDBUtil().unionPlayers);
 			File chartFile = generateGraph(ScheduledMetrics.databaseData.getRecords());
 
 			if (chartFile != null) {
-				event.getHook().editOriginalAttachments(FileUpload.fromData(chartFile)).queue();
+				event.getHook().editOriginal(status).setFiles(FileUpload.fromData(chartFile)).queue();
 			} else {
-				editError(event, path+".failed");
+				event.getHook().editOriginal(status).queue();
 			}
 		}
 
+		private String formatStatus(String name, SqlDBBase database) {
+			CircuitBreaker breaker = database.getBreaker();
+			SqlConnectionPool pool = database.getPool();
+			String state = switch (breaker.getState()) {
+				case OPEN -> "OPEN, retry in %ss".formatted(breaker.getRetryIn()/1000);
+				case HALF_OPEN -> "HALF_OPEN";
+				case CLOSED -> "CLOSED";
+			};
+			return "> `%s`: %s | failures `%s` | opened `%s`, rejected `%s`\n> Pool: `%s/%s` leased, `%s` idle, `%s` waiting, `%s` timeouts\n"
+				.formatted(name, state, breaker.getFailures(), breaker.getOpenedCount(), breaker.getRejected(),
+					pool.getLeased(), pool.getMaxSize(), pool.getIdle(), pool.getWaiting(), pool.getAcquireTimeouts());
+		}
+
 		private File generateGraph(Deque<DatabaseData.DatabaseRecord> databaseRecords) {
 			if (databaseRecords.isEmpty()) return null;
 			List<Date> timestamps = databaseRecords.stream()
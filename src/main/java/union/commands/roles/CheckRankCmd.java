@@ -1,5 +1,6 @@
 package union.commands.roles;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -86,7 +87,13 @@ public class CheckRankCmd extends CommandBase {
 					continue;
 				}
 				String steamId = SteamUtil.convertSteam64toSteamID(steam64);
-				List<String> ranks = bot.getDBUtil().unionPlayers.getPlayerRank(guild.getIdLong(), steamId);
+				List<String> ranks;
+				try {
+					ranks = bot.getDBUtil().unionPlayers.getPlayerRank(guild.getIdLong(), steamId);
+				} catch (SQLException ex) {
+					// Rank is unknown, keep the role
+					continue;
+				}
 				boolean remove = true;
 				if (ranks != null) {
 					for (String rank : ranks) {
@@ -56,8 +56,8 @@ public class TicketCountCmd extends CommandBase {
 
 		User user = event.optUser("user");
 		long userId = user.getIdLong();
-		int countRoles = bot.getDBUtil().ticket.countTicketsByMod(event.getGuild().getIdLong(), userId, afterTime, beforeTime, true);
-		int countOther = bot.getDBUtil().ticket.countTicketsByMod(event.getGuild().getIdLong(), userId, afterTime, beforeTime, false);
+		int countRoles = bot.getDBUtil().modStats.countTickets(event.getGuild().getIdLong(), userId, afterTime, beforeTime, true);
+		int countOther = bot.getDBUtil().modStats.countTickets(event.getGuild().getIdLong(), userId, afterTime, beforeTime, false);
 
 		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneOffset.UTC);
 		editEmbed(event, bot.getEmbedUtil().getEmbed()
@@ -1,5 +1,6 @@
 package union.commands.verification;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -130,7 +131,13 @@ public class AccountCmd extends CommandBase {
 				.setFooter("ID: "+user.getId(), user.getEffectiveAvatarUrl());
 		}
 
-		List<UnionPlayerManager.PlayerInfo> list = bot.getDBUtil().unionPlayers.getPlayerInfo(event.getGuild().getIdLong(), steamId);
+		List<UnionPlayerManager.PlayerInfo> list;
+		try {
+			list = bot.getDBUtil().unionPlayers.getPlayerInfo(event.getGuild().getIdLong(), steamId);
+		} catch (SQLException ex) {
+			// Servers unavailable, do not show player as missing
+			list = List.of();
+		}
 		if (list.size() > 1) {
 			list.stream().filter(UnionPlayerManager.PlayerInfo::exists).forEach(playerInfo -> {
 				builder.addField(
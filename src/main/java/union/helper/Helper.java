@@ -82,13 +82,7 @@ public class Helper {
 	}
 
 	private void banUser(int groupId, @NotNull Guild master, @NotNull User user, @NotNull String reason, @NotNull User mod) {
-		List<Long> guildIds = new ArrayList<>();
-		for (long guildId : db.group.getGroupManagers(groupId)) {
-			for (int subGroupId : db.group.getOwnedGroups(guildId)) {
-				guildIds.addAll(db.group.getGroupMembers(subGroupId));
-			}
-		}
-		guildIds.addAll(db.group.getGroupMembers(groupId));
+		List<Long> guildIds = db.group.getSyncGuilds(groupId);
 		if (guildIds.isEmpty()) return;
 
 		final int maxCount = guildIds.size();
@@ -116,13 +110,7 @@ public class Helper {
 	}
 
 	private void unbanUser(int groupId, @NotNull Guild master, @NotNull User user, @NotNull String reason, @NotNull User mod) {
-		List<Long> guildIds = new ArrayList<>();
-		for (long guildId : db.group.getGroupManagers(groupId)) {
-			for (int subGroupId : db.group.getOwnedGroups(guildId)) {
-				guildIds.addAll(db.group.getGroupMembers(subGroupId));
-			}
-		}
-		guildIds.addAll(db.group.getGroupMembers(groupId));
+		List<Long> guildIds = db.group.getSyncGuilds(groupId);
 		if (guildIds.isEmpty()) return;
 
 		final int maxCount = guildIds.size();
@@ -149,13 +137,7 @@ public class Helper {
 	}
 
 	private void kickUser(int groupId, @NotNull Guild master, @NotNull User user, @NotNull String reason, @NotNull User mod) {
-		List<Long> guildIds = new ArrayList<>();
-		for (long guildId : db.group.getGroupManagers(groupId)) {
-			for (int subGroupId : db.group.getOwnedGroups(guildId)) {
-				guildIds.addAll(db.group.getGroupMembers(subGroupId));
-			}
-		}
-		guildIds.addAll(db.group.getGroupMembers(groupId));
+		List<Long> guildIds = db.group.getSyncGuilds(groupId);
 		if (guildIds.isEmpty()) return;
 
 		final int maxCount = guildIds.size();
@@ -24,7 +24,6 @@ import union.utils.database.DBUtil;
 import union.utils.file.lang.LocaleUtil;
 import union.utils.logs.LoggingUtil;
 
-import java.sql.SQLException;
 import java.util.*;
 
 public class AuditListener extends ListenerAdapter {
@@ -70,9 +69,7 @@ public class AuditListener extends ListenerAdapter {
 				
 				logger.channel.onChannelDelete(entry);
 				// remove from db exceptions
-				try {
-					db.logExemption.removeExemption(event.getGuild().getIdLong(), entry.getTargetIdLong());
-				} catch (SQLException ignored) {}
+				db.logExemption.removeExemptionAsync(event.getGuild().getIdLong(), entry.getTargetIdLong());
 			}
 			case CHANNEL_OVERRIDE_CREATE -> {
 				// check if enabled log
@@ -55,6 +55,7 @@ import union.utils.database.DBUtil;
 import union.utils.database.managers.BlacklistManager;
 import union.utils.database.managers.CaseManager;
 import union.utils.database.managers.RoleManager;
+import union.utils.database.managers.TicketManager.TicketState;
 import union.utils.database.managers.TicketTagManager;
 import union.utils.exception.FormatterException;
 import union.utils.file.lang.LocaleUtil;
@@ -296,7 +297,13 @@ public class InteractionListener extends ListenerAdapter {
 		if (role == null) return true;
 
 		// check if still has account connected
-		Long steam64 = bot.getDBUtil().unionVerify.getSteam64(user.getId());
+		Long steam64;
+		try {
+			steam64 = bot.getDBUtil().unionVerify.getSteam64Cached(user.getId());
+		} catch (SQLException ex) {
+			// Account state is unknown, check again later
+			return true;
+		}
 		if (steam64 == null) {
 			// remove verification role from user
 			try {
@@ -402,7 +409,14 @@ public class InteractionListener extends ListenerAdapter {
 			return;
 		}
 
-		final Long steam64 = bot.getDBUtil().unionVerify.getSteam64(member.getId());
+		final Long steam64;
+		try {
+			steam64 = bot.getDBUtil().unionVerify.getSteam64(member.getId());
+		} catch (SQLException ex) {
+			// Account state is unknown, do not ask to link it again
+			sendError(event, "bot.verification.failed_db");
+			return;
+		}
 		if (steam64 != null) {
 			// Check if steam64 is not blacklisted
 			if (checkBlacklist) {
@@ -449,6 +463,11 @@ public class InteractionListener extends ListenerAdapter {
 						}
 					}
 				}
+			} catch (SQLException ex) {
+				// Playtime is unknown, do not deny verification for it
+				bot.getAppLogger().warn("Database error at playtime check.", ex);
+				sendError(event, "bot.verification.failed_db");
+				return;
 			} catch (Exception ex) {
 				bot.getAppLogger().warn("Exception at playtime check, skipped.", ex);
 			}
@@ -775,17 +794,17 @@ public class InteractionListener extends ListenerAdapter {
 			return;
 		}
 		long channelId = event.getChannelIdLong();
-		if (db.ticket.isClosed(channelId)) {
+		TicketState ticket = db.ticket.getState(channelId);
+		if (ticket == null || ticket.closed()) {
 			sendError(event, "bot.ticketing.listener.is_closed");
 			return;
 		}
 		Guild guild = event.getGuild();
-		Long userId = db.ticket.getUserId(channelId);
 
-		guild.retrieveMemberById(userId).queue(member -> {
+		guild.retrieveMemberById(ticket.userId()).queue(member -> {
 			List<Role> tempRoles = new ArrayList<>();
 			List<Role> roles = new ArrayList<>();
-			db.ticket.getRoleIds(channelId).forEach(v -> {
+			ticket.roleIds().forEach(v -> {
 				if (v.charAt(0) == 't') {
 					Role role = guild.getRoleById(CastUtil.castLong(v.substring(1)));
 					if (role != null) tempRoles.add(role);
@@ -842,7 +861,7 @@ public class InteractionListener extends ListenerAdapter {
 				return;
 			}
 
-			String ticketId = db.ticket.getTicketId(channelId);
+			String ticketId = String.valueOf(ticket.ticketId());
 			guild.modifyMemberRoles(member, roles, null)
 				.reason("Request role-"+ticketId+" approved by "+event.getMember().getEffectiveName())
 				.queue(done -> {
@@ -872,13 +891,14 @@ public class InteractionListener extends ListenerAdapter {
 
 	private void buttonTicketClose(ButtonInteractionEvent event) {
 		long channelId = event.getChannelIdLong();
-		if (db.ticket.isClosed(channelId)) {
+		TicketState ticket = db.ticket.getState(channelId);
+		if (ticket == null || ticket.closed()) {
 			// Ticket is closed
 			event.getChannel().delete().queue();
 			return;
 		}
 		// Check who can close tickets
-		final boolean isAuthor = db.ticket.getUserId(channelId).equals(event.getUser().getIdLong());
+		final boolean isAuthor = ticket.userId() == event.getUser().getIdLong();
 		if (!isAuthor) {
 			switch (db.getTicketSettings(event.getGuild()).getAllowClose()) {
 				case EVERYONE -> {}
@@ -892,7 +912,7 @@ public class InteractionListener extends ListenerAdapter {
 				}
 				case SUPPORT -> {
 					// Check if user is ticket support(or mod if support empty) or has Admin+ access
-					int tagId = db.ticket.getTag(channelId);
+					int tagId = ticket.tagId();
 					if (tagId==0) {
 						// Role request ticket
 						List<Long> supportRoleIds = db.getTicketSettings(event.getGuild()).getRoleSupportIds();
@@ -1790,16 +1810,17 @@ public class InteractionListener extends ListenerAdapter {
 
 	private void modalTempRole(ModalInteractionEvent event, long channelId) {
 		// Check if ticket is open
-		if (db.ticket.isClosed(channelId)) {
+		TicketState ticket = db.ticket.getState(channelId);
+		if (ticket == null || ticket.closed()) {
 			// Ignore
 			return;
 		}
 		Guild guild = event.getGuild();
-		Long userId = db.ticket.getUserId(channelId);
+		long userId = ticket.userId();
 
 		// Get roles and tempRoles
 		List<Role> roles = new ArrayList<>();
-		db.ticket.getRoleIds(channelId).forEach(v -> {
+		ticket.roleIds().forEach(v -> {
 			long roleId = CastUtil.castLong(
 				v.charAt(0) == 't' ? v.substring(1) : v
 			);
@@ -1840,7 +1861,7 @@ public class InteractionListener extends ListenerAdapter {
 				}
 			}
 
-			String ticketId = db.ticket.getTicketId(channelId);
+			String ticketId = String.valueOf(ticket.ticketId());
 			// Modify roles
 			event.getGuild().modifyMemberRoles(member, roles, null)
 				.reason("Request role-"+ticketId+" approved by "+event.getMember().getEffectiveName())
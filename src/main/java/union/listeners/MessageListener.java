@@ -79,7 +79,13 @@ public class MessageListener extends ListenerAdapter {
 		if (!event.getMember().getRoles().contains(role)) return;
 		
 		// check if still has account connected
-		final Long steam64 = bot.getDBUtil().unionVerify.getSteam64(String.valueOf(userId));
+		final Long steam64;
+		try {
+			steam64 = bot.getDBUtil().unionVerify.getSteam64Cached(String.valueOf(userId));
+		} catch (SQLException ex) {
+			// Account state is unknown, check again later
+			return;
+		}
 		if (steam64 == null) {
 			// remove verification role from user
 			try {
@@ -96,9 +102,7 @@ public class MessageListener extends ListenerAdapter {
 			} catch (Exception ignored) {}
 		} else {
 			// add user to local database
-			try {
-				bot.getDBUtil().verifyCache.addUser(userId, steam64);
-			} catch (SQLException ignored) {}
+			bot.getDBUtil().verifyCache.addUserAsync(userId, steam64);
 		}
 	}
 
@@ -12,6 +12,7 @@ import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.User;
 import union.utils.database.managers.UnionPlayerManager;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
@@ -64,7 +65,13 @@ public class AccountContext extends UserContextMenu {
 			.addField("Links", "> [UnionTeam](https://unionteams.ru/player/%s)\n> [SteamRep](https://steamrep.com/profiles/%<s)".formatted(steam64), true)
 			.addField(lu.getText(event, "bot.verification.account.field_discord"), user.getAsMention(), true);
 
-		List<UnionPlayerManager.PlayerInfo> list = bot.getDBUtil().unionPlayers.getPlayerInfo(event.getGuild().getIdLong(), steamId);
+		List<UnionPlayerManager.PlayerInfo> list;
+		try {
+			list = bot.getDBUtil().unionPlayers.getPlayerInfo(event.getGuild().getIdLong(), steamId);
+		} catch (SQLException ex) {
+			// Servers unavailable, do not show player as missing
+			list = List.of();
+		}
 		if (list.size() > 1) {
 			list.stream().filter(UnionPlayerManager.PlayerInfo::exists).forEach(playerInfo -> {
 				builder.addField(
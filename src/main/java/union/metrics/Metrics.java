@@ -41,6 +41,16 @@ public class Metrics {
 		.help("Command execution time, excluding handling terminated commands.")
 		.build();
 
+	public static final Histogram commandQueueTime = Histogram.builder()
+		.name("votl_command_queue_duration_seconds")
+		.help("Time interaction waited for command thread.")
+		.build();
+
+	public static final Histogram commandProcessingTime = Histogram.builder()
+		.name("votl_command_processing_duration_seconds")
+		.help("Time interaction occupied command thread, including checks.")
+		.build();
+
 	public static final Counter commandExceptions = Counter.builder()
 		.name("votl_commands_exceptions_total")
 		.help("Total uncaught exceptions thrown by command invocation.")
@@ -70,6 +80,33 @@ public class Metrics {
 		.help("Total errors when executing MySQL statements")
 		.build();
 
+	public static final Counter levelFlushedRows = Counter.builder()
+		.name("votl_level_flushed_rows_total")
+		.help("Total level player rows written by batched flush")
+		.build();
+
+	public static final Histogram levelFlushDuration = Histogram.builder()
+		.name("votl_level_flush_duration_seconds")
+		.help("Duration of batched level player flush")
+		.build();
+
+	// CACHE
+
+	public static final Counter cacheHits = Counter.builder()
+		.name("votl_cache_hits_total")
+		.help("Total cache hits by cache name")
+		.build();
+
+	public static final Counter cacheMisses = Counter.builder()
+		.name("votl_cache_misses_total")
+		.help("Total cache misses by cache name")
+		.build();
+
+	public static final Counter cacheEvictions = Counter.builder()
+		.name("votl_cache_evictions_total")
+		.help("Total entries evicted because of cache size by cache name")
+		.build();
+
 	// SETUP
 
 	public static final Logger log = (Logger) LoggerFactory.getLogger(Metrics.class);
@@ -0,0 +1,226 @@
+package union.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fires expirations (temporary cases, bans, roles, strikes) at their due second.
+ * <p>Only entries due within {@link #HORIZON} are kept in memory, they are loaded from the database
+ * with {@link #refill()} and added by managers when new timed entries are created.
+ * For each key only the earliest entry is kept, handlers must check the database at fire time
+ * and schedule again, if entry was extended.
+ */
+public class ExpirationScheduler {
+
+	private final Logger log = (Logger) LoggerFactory.getLogger(ExpirationScheduler.class);
+
+	public enum Type {
+		CASE,
+		TEMP_BAN,
+		TEMP_ROLE,
+		STRIKE,
+		RETURN_ROLE
+	}
+
+	// Must be longer than refill interval
+	public static final Duration HORIZON = Duration.ofHours(1);
+
+	private final DelayQueue<Expiration> queue = new DelayQueue<>();
+	private final ConcurrentHashMap<Key, Expiration> scheduled = new ConcurrentHashMap<>();
+	private final Map<Type, Loader> loaders = new EnumMap<>(Type.class);
+	private final Map<Type, Handler> handlers = new EnumMap<>(Type.class);
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(new CountingThreadFactory("UTB", "Expirations"));
+
+	// Epoch second, entries due later are not added to the queue
+	private volatile long horizonEnd = 0;
+	private volatile boolean running = false;
+
+	/**
+	 * Must be called before {@link #start()}.
+	 * @param loader returns entries due before given epoch second
+	 * @param handler called with expired entries of this type
+	 */
+	public void register(Type type, Loader loader, Handler handler) {
+		loaders.put(type, loader);
+		handlers.put(type, handler);
+	}
+
+	/**
+	 * Loads entries from the database and starts firing them.
+	 */
+	public synchronized void start() {
+		if (running) return;
+		running = true;
+		refill();
+		executor.execute(this::run);
+	}
+
+	public void shutdown() {
+		running = false;
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Loads entries due within {@link #HORIZON}, including overdue ones.
+	 * Keys, that are already scheduled, are skipped.
+	 */
+	public void refill() {
+		long until = Instant.now().plus(HORIZON).getEpochSecond();
+		// Raise horizon before loading, so entries created meanwhile are either loaded or scheduled
+		horizonEnd = until;
+		loaders.forEach((type, loader) -> {
+			try {
+				int count = 0;
+				for (Expiration expiration : loader.load(until)) {
+					if (addIfAbsent(expiration)) count++;
+				}
+				if (count > 0) log.debug("Loaded {} expirations of type {}", count, type);
+			} catch (Throwable t) {
+				log.error("Failed to load expirations of type {}", type, t);
+			}
+		});
+	}
+
+	/**
+	 * @param dueAt epoch second
+	 */
+	public void schedule(Type type, long first, long second, long dueAt) {
+		if (dueAt > horizonEnd) return; // Will be loaded by refill
+		add(new Expiration(type, first, second, dueAt));
+	}
+
+	public void cancel(Type type, long first, long second) {
+		scheduled.remove(new Key(type, first, second));
+	}
+
+	/**
+	 * Cancels all entries of type with given first value, for example all users of a guild.
+	 */
+	public void cancelAll(Type type, long first) {
+		scheduled.keySet().removeIf(key -> key.type == type && key.first == first);
+	}
+
+	public int size() {
+		return scheduled.size();
+	}
+
+	// Pending entry is kept, it can be a retry of an overdue entry, that is loaded again with its original time
+	private boolean addIfAbsent(Expiration expiration) {
+		if (scheduled.putIfAbsent(expiration.key, expiration) != null) return false;
+		queue.add(expiration);
+		return true;
+	}
+
+	// Keeps earliest entry for the key
+	private boolean add(Expiration expiration) {
+		Expiration current = scheduled.merge(expiration.key, expiration, (old, e) -> old.dueAt <= e.dueAt ? old : e);
+		if (current != expiration) return false;
+		queue.add(expiration);
+		return true;
+	}
+
+	private void run() {
+		List<Expiration> batch = new ArrayList<>();
+		while (running) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException ex) {
+				break;
+			}
+			// All other already expired entries
+			queue.drainTo(batch);
+			dispatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void dispatch(List<Expiration> batch) {
+		Map<Type, List<Expiration>> byType = new EnumMap<>(Type.class);
+		for (Expiration expiration : batch) {
+			// Skip replaced by earlier or cancelled entries
+			if (!scheduled.remove(expiration.key, expiration)) continue;
+			byType.computeIfAbsent(expiration.type, k -> new ArrayList<>()).add(expiration);
+		}
+		byType.forEach((type, expired) -> {
+			try {
+				handlers.get(type).handle(expired);
+			} catch (Throwable t) {
+				log.error("Exception caught during expiration of type {}", type, t);
+			}
+		});
+	}
+
+	@FunctionalInterface
+	public interface Loader {
+		List<Expiration> load(long until);
+	}
+
+	@FunctionalInterface
+	public interface Handler {
+		void handle(List<Expiration> expired);
+	}
+
+	private record Key(Type type, long first, long second) {}
+
+	public static class Expiration implements Delayed {
+		private final Key key;
+		private final Type type;
+		private final long first, second;
+		private final long dueAt;
+
+		/**
+		 * @param first first part of key, for example guildId, roleId or case rowId
+		 * @param second second part of key, for example userId, 0 if not used
+		 * @param dueAt epoch second
+		 */
+		public Expiration(Type type, long first, long second, long dueAt) {
+			this.key = new Key(type, first, second);
+			this.type = type;
+			this.first = first;
+			this.second = second;
+			this.dueAt = dueAt;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		public long getFirst() {
+			return first;
+		}
+
+		public long getSecond() {
+			return second;
+		}
+
+		public long getDueAt() {
+			return dueAt;
+		}
+
+		@Override
+		public long getDelay(@NotNull TimeUnit unit) {
+			return unit.convert(dueAt*1000 - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(@NotNull Delayed o) {
+			if (o instanceof Expiration other) return Long.compare(dueAt, other.dueAt);
+			return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+		}
+	}
+
+}
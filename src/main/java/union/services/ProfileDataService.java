@@ -0,0 +1,173 @@
+package union.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import union.App;
+import union.objects.CmdAccessLevel;
+import union.objects.ExpType;
+import union.utils.SteamUtil;
+import union.utils.database.managers.LevelManager;
+import union.utils.database.managers.UnionPlayerManager.PlayerInfo;
+import union.utils.imagegen.RenderExecutor;
+import union.utils.imagegen.UserBackground;
+import union.utils.imagegen.renders.UserProfileRender;
+import union.utils.level.LevelUtil;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects data for user profile in parallel and keeps assembled profiles and their renders for a short time,
+ * so repeated requests for the same profile are answered from cache.
+ */
+public class ProfileDataService {
+	private static final Logger log = LoggerFactory.getLogger(ProfileDataService.class);
+
+	// Seconds, profile data and images are reused
+	private static final long SNAPSHOT_TTL = 30;
+
+	private final App bot;
+	private final ExecutorService executor = Executors.newFixedThreadPool(4, new CountingThreadFactory("UTB", "Profile"));
+
+	private final AsyncCache<ProfileKey, ProfileData> profiles = Caffeine.newBuilder()
+		.expireAfterWrite(SNAPSHOT_TTL, TimeUnit.SECONDS)
+		.maximumSize(1000)
+		.executor(executor)
+		.buildAsync();
+	private final AsyncCache<RenderKey, byte[]> renders = Caffeine.newBuilder()
+		.expireAfterWrite(SNAPSHOT_TTL, TimeUnit.SECONDS)
+		.maximumSize(50)
+		.executor(executor)
+		.buildAsync();
+
+	public ProfileDataService(App bot) {
+		this.bot = bot;
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Concurrent requests for the same profile share single collection.
+	 * @param withAccount include game server data of linked account
+	 * @return future with profile data
+	 */
+	public CompletableFuture<ProfileData> getProfile(@NotNull Member target, boolean withAccount) {
+		ProfileKey key = new ProfileKey(target.getGuild().getIdLong(), target.getIdLong(), withAccount);
+		return profiles.get(key, (k, e) -> collect(target, withAccount));
+	}
+
+	/**
+	 * Same profile with same background and locale is rendered once.
+	 * @return future with PNG image
+	 */
+	public CompletableFuture<byte[]> renderProfile(@NotNull Member target, @NotNull UserBackground background, @NotNull DiscordLocale locale, boolean withAccount) {
+		RenderKey key = new RenderKey(target.getGuild().getIdLong(), target.getIdLong(), withAccount, background.getId(), locale);
+		return renders.get(key, (k, e) -> getProfile(target, withAccount)
+			.thenCompose(profile -> RenderExecutor.render(buildRender(target, background, locale, profile))));
+	}
+
+	private CompletableFuture<ProfileData> collect(Member target, boolean withAccount) {
+		final long guildId = target.getGuild().getIdLong();
+		final long userId = target.getIdLong();
+
+		CompletableFuture<CmdAccessLevel> access = CompletableFuture.supplyAsync(() -> bot.getCheckUtil().getAccessLevel(target), executor);
+		CompletableFuture<List<PlayerInfo>> account = withAccount
+			? CompletableFuture.supplyAsync(() -> getPlayerInfo(guildId, userId), executor)
+			: CompletableFuture.completedFuture(List.of());
+		CompletableFuture<Experience> experience = CompletableFuture.supplyAsync(() -> getExperience(guildId, userId), executor);
+
+		return CompletableFuture.allOf(access, account, experience)
+			.thenApply(v -> new ProfileData(access.join(), account.join(), experience.join()));
+	}
+
+	private List<PlayerInfo> getPlayerInfo(long guildId, long userId) {
+		Long steam64 = bot.getDBUtil().verifyCache.getSteam64(userId);
+		if (steam64 == null || steam64 == 0L) return List.of();
+		String steamId;
+		try {
+			steamId = SteamUtil.convertSteam64toSteamID(steam64);
+		} catch (NumberFormatException ex) {
+			log.warn("Failed to convert SteamID '{}' of user {}", steam64, userId);
+			return List.of();
+		}
+		List<PlayerInfo> info;
+		try {
+			info = bot.getDBUtil().unionPlayers.getPlayerInfo(guildId, steamId);
+		} catch (SQLException ex) {
+			return List.of();
+		}
+		return info.stream()
+			.filter(PlayerInfo::exists)
+			.limit(6)
+			.toList();
+	}
+
+	// Player row is single query, ranks and global experience are kept in memory
+	private Experience getExperience(long guildId, long userId) {
+		LevelManager levels = bot.getDBUtil().levels;
+		LevelManager.PlayerData playerData = levels.getPlayer(guildId, userId);
+		return new Experience(
+			playerData.getExperience(ExpType.TEXT),
+			playerData.getExperience(ExpType.VOICE),
+			levels.getServerRank(guildId, userId, ExpType.TEXT),
+			levels.getServerRank(guildId, userId, ExpType.VOICE),
+			levels.getSumGlobalExp(userId)
+		);
+	}
+
+	private UserProfileRender buildRender(Member target, UserBackground background, DiscordLocale locale, ProfileData profile) {
+		LevelUtil levelUtil = bot.getLevelUtil();
+		Experience exp = profile.experience();
+
+		int textLevel = levelUtil.getLevelFromExperience(exp.text());
+		int voiceLevel = levelUtil.getLevelFromExperience(exp.voice());
+
+		long textMinXpInLevel = levelUtil.getExperienceFromLevel(textLevel);
+		long voiceMinXpInLevel = levelUtil.getExperienceFromLevel(voiceLevel);
+
+		long textXpDiff = levelUtil.getExperienceFromLevel(textLevel + 1) - textMinXpInLevel;
+		long voiceXpDiff = levelUtil.getExperienceFromLevel(voiceLevel + 1) - voiceMinXpInLevel;
+
+		UserProfileRender render = new UserProfileRender(target)
+			.setLocale(bot.getLocaleUtil(), locale)
+			.setBackground(background)
+			.setAccessLevel(profile.accessLevel())
+			.setLevel(textLevel, voiceLevel)
+			.setTotalExperience(exp.text(), exp.voice())
+			.setXpDiff(textXpDiff, voiceXpDiff)
+			.setPercentage(
+				((double) (exp.text() - textMinXpInLevel) / textXpDiff) * 100,
+				((double) (exp.voice() - voiceMinXpInLevel) / voiceXpDiff) * 100
+			)
+			.setCurrentLevelExperience(exp.text() - textMinXpInLevel, exp.voice() - voiceMinXpInLevel)
+			.setServerRank(
+				exp.textRank()==null?"-":String.valueOf(exp.textRank()),
+				exp.voiceRank()==null?"-":String.valueOf(exp.voiceRank())
+			)
+			.setGlobalExperience(exp.global());
+		if (!profile.playerInfo().isEmpty()) {
+			render.setPlayerData(profile.playerInfo());
+		}
+		return render;
+	}
+
+	private record ProfileKey(long guildId, long userId, boolean withAccount) {}
+
+	private record RenderKey(long guildId, long userId, boolean withAccount, int backgroundId, DiscordLocale locale) {}
+
+	public record Experience(long text, long voice, Integer textRank, Integer voiceRank, long global) {}
+
+	public record ProfileData(CmdAccessLevel accessLevel, List<PlayerInfo> playerInfo, Experience experience) {}
+
+}
@@ -1,7 +1,6 @@
 package union.services;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.sql.SQLException;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
@@ -17,7 +16,10 @@ import union.App;
 import union.helper.Helper;
 import union.objects.CaseType;
 import union.objects.ReportData;
+import union.services.ExpirationScheduler.Expiration;
 import union.utils.database.DBUtil;
+import union.utils.database.managers.CaseManager.CaseData;
+import union.utils.database.managers.ModStatsManager;
 
 import static union.utils.CastUtil.castLong;
 
@@ -39,10 +41,9 @@ import net.dv8tion.jda.internal.utils.tuple.Pair;
 import org.slf4j.LoggerFactory;
 
 import ch.qos.logback.classic.Logger;
-import union.utils.database.managers.LevelManager;
 import union.utils.encoding.EncodingUtil;
+import union.utils.imagegen.RenderExecutor;
 import union.utils.imagegen.renders.ModReportRender;
-import union.utils.level.PlayerObject;
 import union.utils.message.TimeUtil;
 
 
@@ -55,24 +56,42 @@ public class ScheduledCheck {
 
 	private final Integer CLOSE_AFTER_DELAY = 12; // hours
 
+	// Retry later, if guild is not available
+	private final Duration RETRY_DELAY = Duration.ofMinutes(15);
+
 	public ScheduledCheck(App bot) {
 		this.bot = bot;
 		this.db = bot.getDBUtil();
+
+		ExpirationScheduler expirations = db.expirations;
+		expirations.register(ExpirationScheduler.Type.CASE, db.cases::getPendingExpirations, this::expireCases);
+		expirations.register(ExpirationScheduler.Type.TEMP_BAN, db.tempBan::getPendingExpirations, this::expireTempBans);
+		expirations.register(ExpirationScheduler.Type.TEMP_ROLE, db.tempRole::getPendingExpirations, this::expireTempRoles);
+		expirations.register(ExpirationScheduler.Type.STRIKE, db.strike::getPendingExpirations, this::expireStrikes);
+		expirations.register(ExpirationScheduler.Type.RETURN_ROLE, db.persistent::getPendingExpirations, this::expireReturnRoles);
+	}
+
+	// after JDA is ready
+	public void startExpirations() {
+		try {
+			db.expirations.start();
+		} catch (Throwable t) {
+			log.error("Exception caught during expirations start.", t);
+		}
 	}
 
 	// each 10-15 minutes
 	public void timedChecks() {
 		CompletableFuture.runAsync(this::checkTicketStatus)
-			.thenRunAsync(this::checkExpiredTempRoles)
-			.thenRunAsync(this::checkExpiredStrikes)
+			.thenRunAsync(this::refillExpirations)
 			.thenRunAsync(this::generateReport)
-			.thenRunAsync(this::checkExpiredPersistentRoles)
 			.thenRunAsync(this::checkVoiceChannels);
 	}
 
 	private void checkTicketStatus() {
 		try {
-			db.ticket.getOpenedChannels().forEach(channelId -> {
+			db.ticket.getOpenedTickets().forEach(ticket -> {
+				long channelId = ticket.channelId();
 				GuildMessageChannel channel = bot.JDA.getChannelById(GuildMessageChannel.class, channelId);
 				if (channel == null) {
 					// Should be closed???
@@ -84,7 +103,7 @@ public class ScheduledCheck {
 
 				if (net.dv8tion.jda.api.utils.TimeUtil.getTimeCreated(channel.getLatestMessageIdLong()).isBefore(OffsetDateTime.now().minusHours(autocloseTime))) {
 					Guild guild = channel.getGuild();
-					UserSnowflake user = User.fromId(db.ticket.getUserId(channelId));
+					UserSnowflake user = User.fromId(ticket.userId());
 					Instant closeTime = Instant.now().plus(CLOSE_AFTER_DELAY, ChronoUnit.HOURS);
 
 					MessageEmbed embed = new EmbedBuilder()
@@ -145,20 +164,34 @@ public class ScheduledCheck {
 		}
 	}
 
-	private void checkExpiredTempRoles() {
+	private void refillExpirations() {
 		try {
-			List<Map<String, Object>> expired = db.tempRole.expiredRoles(Instant.now());
-			if (expired.isEmpty()) return;
+			db.expirations.refill();
+		} catch (Throwable t) {
+			log.error("Exception caught during expirations refill.", t);
+		}
+	}
+
+	private void expireTempRoles(List<Expiration> expired) {
+		Instant now = Instant.now();
+		for (Expiration expiration : expired) {
+			long roleId = expiration.getFirst();
+			long userId = expiration.getSecond();
+			try {
+				Instant expireAt = db.tempRole.expireAt(roleId, userId);
+				if (expireAt == null) continue;
+				if (expireAt.isAfter(now)) {
+					// Was extended
+					db.expirations.schedule(expiration.getType(), roleId, userId, expireAt.getEpochSecond());
+					continue;
+				}
 
-			expired.forEach(data -> {
-				long roleId = castLong(data.get("roleId"));
 				Role role = bot.JDA.getRoleById(roleId);
 				if (role == null) {
 					db.tempRole.removeRole(roleId);
-					return;
+					continue;
 				}
-				
-				long userId = castLong(data.get("userId"));
+
 				if (db.tempRole.shouldDelete(roleId)) {
 					try {
 						role.delete().reason("Role expired for '"+userId+"'").queue();
@@ -166,75 +199,82 @@ public class ScheduledCheck {
 						log.warn("Was unable to delete temporary role '{}' during scheduled check.", roleId, ex);
 					}
 					db.tempRole.removeRole(roleId);
-					
 				} else {
 					role.getGuild().removeRoleFromMember(User.fromId(userId), role).reason("Role expired").queue(null, failure -> {
 						if (ErrorResponse.UNKNOWN_MEMBER.test(failure)) return;
 						log.warn("Was unable to remove temporary role '{}' from '{}' during scheduled check.", roleId, userId, failure);
 					});
-					ignoreExc(() -> db.tempRole.remove(roleId, userId));
+					db.tempRole.removeAsync(roleId, userId);
 				}
 				// Log
-				bot.getLogger().role.onTempRoleAutoRemoved(role.getGuild(), castLong(userId), role);
-			});
-		} catch (Throwable t) {
-			log.error("Exception caught during expired roles check.", t);
+				bot.getLogger().role.onTempRoleAutoRemoved(role.getGuild(), userId, role);
+			} catch (Throwable t) {
+				log.error("Exception caught during expired role '{}' of '{}'.", roleId, userId, t);
+			}
 		}
 	}
 
-	private void checkExpiredStrikes() {
-		try {
-			List<Map<String, Object>> expired = db.strike.getExpired(Instant.now());
-			if (expired.isEmpty()) return;
+	private void expireStrikes(List<Expiration> expired) {
+		long now = Instant.now().getEpochSecond();
+		for (Expiration expiration : expired) {
+			long guildId = expiration.getFirst();
+			long userId = expiration.getSecond();
+			try {
+				Map<String, Object> data = db.strike.getExpireData(guildId, userId);
+				if (data == null) continue;
+				long expireAfter = castLong(data.get("expireAfter"));
+				if (expireAfter > now) {
+					// Was extended
+					db.expirations.schedule(expiration.getType(), guildId, userId, expireAfter);
+					continue;
+				}
+				expireStrike(guildId, userId, (Integer) data.get("count"), (String) data.getOrDefault("data", ""));
+			} catch (Throwable t) {
+				log.error("Exception caught during expired warns check.", t);
+			}
+		}
+	}
 
-			for (Map<String, Object> data : expired) {
-				Long guildId = castLong(data.get("guildId"));
-				Long userId = castLong(data.get("userId"));
-				Integer strikes = (Integer) data.get("count");
-
-				if (strikes <= 0) {
-					// Should not happen...
-					db.strike.removeGuildUser(guildId, userId);
-				} else if (strikes == 1) {
-					// One strike left, remove user
-					db.strike.removeGuildUser(guildId, userId);
-					// set case inactive
-					db.cases.setInactiveStrikeCases(userId, guildId);
+	private void expireStrike(long guildId, long userId, int strikes, String data) throws Exception {
+		if (strikes <= 0) {
+			// Should not happen...
+			db.strike.removeGuildUser(guildId, userId);
+		} else if (strikes == 1) {
+			// One strike left, remove user
+			db.strike.removeGuildUser(guildId, userId);
+			// set case inactive
+			db.cases.setInactiveStrikeCases(userId, guildId);
+		} else {
+			String[] cases = (data == null ? "" : data).split(";");
+			// Update data
+			if (!cases[0].isEmpty()) {
+				String[] caseInfo = cases[0].split("-");
+				String caseRowId = caseInfo[0];
+				int newCount = Integer.parseInt(caseInfo[1]) - 1;
+
+				StringBuilder newData = new StringBuilder();
+				if (newCount > 0) {
+					newData.append(caseRowId).append("-").append(newCount);
+					if (cases.length > 1)
+						newData.append(";");
 				} else {
-					String[] cases = ((String) data.getOrDefault("data", "")).split(";");
-					// Update data
-					if (!cases[0].isEmpty()) {
-						String[] caseInfo = cases[0].split("-");
-						String caseRowId = caseInfo[0];
-						int newCount = Integer.parseInt(caseInfo[1]) - 1;
-
-						StringBuilder newData = new StringBuilder();
-						if (newCount > 0) {
-							newData.append(caseRowId).append("-").append(newCount);
-							if (cases.length > 1)
-								newData.append(";");
-						} else {
-							// Set case inactive
-							db.cases.setInactive(Integer.parseInt(caseRowId));
-						}
-						if (cases.length > 1) {
-							List<String> list = new ArrayList<>(List.of(cases));
-							list.remove(0);
-							newData.append(String.join(";", list));
-						}
-						// Remove one strike and reset time
-						db.strike.removeStrike(guildId, userId,
-							Instant.now().plus(bot.getDBUtil().getGuildSettings(guildId).getStrikeExpires(), ChronoUnit.DAYS),
-							1, newData.toString()
-						);
-					} else {
-						db.strike.removeGuildUser(guildId, userId);
-						throw new Exception("Strike data is empty. Deleted data for gid '%s' and uid '%s'".formatted(guildId, userId));
-					}
+					// Set case inactive
+					db.cases.setInactive(Integer.parseInt(caseRowId));
 				}
+				if (cases.length > 1) {
+					List<String> list = new ArrayList<>(List.of(cases));
+					list.remove(0);
+					newData.append(String.join(";", list));
+				}
+				// Remove one strike and reset time
+				db.strike.removeStrike(guildId, userId,
+					Instant.now().plus(bot.getDBUtil().getGuildSettings(guildId).getStrikeExpires(), ChronoUnit.DAYS),
+					1, newData.toString()
+				);
+			} else {
+				db.strike.removeGuildUser(guildId, userId);
+				throw new Exception("Strike data is empty. Deleted data for gid '%s' and uid '%s'".formatted(guildId, userId));
 			}
-		} catch (Throwable t) {
-			log.error("Exception caught during expired warns check.", t);
 		}
 	}
 
@@ -283,11 +323,14 @@ public class ScheduledCheck {
 						now.minusDays(interval)
 					);
 
+					// All moderators with one query
+					Map<Long, Map<Integer, Integer>> counts = bot.getDBUtil().modStats.countByMods(guild.getIdLong(), previous, now);
+
 					List<ReportData> reportDataList = new ArrayList<>(members.size());
 					members.forEach(m -> {
 						if (m.getUser().isBot()) return; // Skip bot
-						int countRoles = bot.getDBUtil().ticket.countTicketsByMod(guild.getIdLong(), m.getIdLong(), previous, now, true);
-						Map<Integer, Integer> countCases = bot.getDBUtil().cases.countCasesByMod(guild.getIdLong(), m.getIdLong(), previous, now);
+						Map<Integer, Integer> countCases = counts.getOrDefault(m.getIdLong(), Map.of());
+						int countRoles = countCases.getOrDefault(ModStatsManager.TYPE_TICKET_ROLES, 0);
 						ReportData reportData = new ReportData(m, countRoles, countCases);
 						if (reportData.getCountTotalInt() > 0) // Skip if 0 activity
 							reportDataList.add(reportData);
@@ -298,14 +341,17 @@ public class ScheduledCheck {
 
 					final String attachmentName = EncodingUtil.encodeModreport(guild.getIdLong(), now.toEpochSecond(ZoneOffset.UTC));
 
-					try {
+					RenderExecutor.render(render).whenComplete((bytes, e) -> {
+						if (e != null) {
+							log.error("Exception caught during rendering of modReport.", e);
+							return;
+						}
+						if (bytes == null) return;
 						channel.sendFiles(FileUpload.fromData(
-							new ByteArrayInputStream(render.renderToBytes()),
+							new ByteArrayInputStream(bytes),
 							attachmentName
 						)).queue();
-					} catch (IOException e) {
-						log.error("Exception caught during rendering of modReport.", e);
-					}
+					});
 				});
 			});
 		} catch (Throwable t) {
@@ -313,12 +359,8 @@ public class ScheduledCheck {
 		}
 	}
 
-	private void checkExpiredPersistentRoles() {
-		try {
-			db.persistent.removeExpired();
-		} catch (Throwable t) {
-			log.error("Exception caught during expired persistent roles check.", t);
-		}
+	private void expireReturnRoles(List<Expiration> expired) {
+		expired.forEach(expiration -> db.persistent.removeExpired(expiration.getFirst(), expiration.getSecond()));
 	}
 
 	private void checkVoiceChannels() {
@@ -332,8 +374,7 @@ public class ScheduledCheck {
 
 	// Each 2-5 minutes
 	public void regularChecks() {
-		CompletableFuture.runAsync(this::checkExpiredCases)
-			.thenRunAsync(this::checkAccountUpdates)
+		CompletableFuture.runAsync(this::checkAccountUpdates)
 			.thenRunAsync(this::updateAlertData)
 			.thenRunAsync(this::updateDbQueue);
 	}
@@ -353,6 +394,9 @@ public class ScheduledCheck {
 				Long cacheDiscordId = db.verifyCache.getDiscordId(steam64);
 				
 				String discordIdStr = account.get("discord_id");
+				// Account changed, autochecks must query it again
+				if (discordIdStr != null) db.unionVerify.invalidateCached(discordIdStr);
+				if (cacheDiscordId != null) db.unionVerify.invalidateCached(String.valueOf(cacheDiscordId));
 				if (discordIdStr == null) {
 					// if not cached - cant track
 					if (cacheDiscordId == null) continue;
@@ -401,28 +445,58 @@ public class ScheduledCheck {
 		}
 	}
 
-	private void checkExpiredCases() {
-		try {
-			db.cases.getExpired().forEach(caseData -> {
+	private void expireCases(List<Expiration> expired) {
+		Instant now = Instant.now();
+		for (Expiration expiration : expired) {
+			int rowId = (int) expiration.getFirst();
+			try {
+				CaseData caseData = db.cases.getInfo(rowId);
+				// Already inactive or made permanent
+				if (caseData == null || !caseData.isActive() || caseData.getDuration().getSeconds() <= 0) continue;
+				Instant timeEnd = caseData.getTimeEnd();
+				if (timeEnd.isAfter(now)) {
+					// Duration was changed
+					db.expirations.schedule(expiration.getType(), rowId, 0, timeEnd.getEpochSecond());
+					continue;
+				}
+
 				if (caseData.getCaseType().equals(CaseType.MUTE)) {
-					ignoreExc(() -> db.cases.setInactive(caseData.getRowId()));
-					return;
+					db.cases.setInactiveAsync(rowId);
+					continue;
 				}
 				Guild guild = bot.JDA.getGuildById(caseData.getGuildId());
-				if (guild == null || !guild.getSelfMember().hasPermission(Permission.BAN_MEMBERS)) return;
+				if (guild == null || !guild.getSelfMember().hasPermission(Permission.BAN_MEMBERS)) {
+					db.expirations.schedule(expiration.getType(), rowId, 0, now.plus(RETRY_DELAY).getEpochSecond());
+					continue;
+				}
 				guild.unban(User.fromId(caseData.getTargetId())).reason(bot.getLocaleUtil().getLocalized(guild.getLocale(), "misc.ban_expired")).queue(
 					s -> bot.getLogger().mod.onAutoUnban(caseData, guild),
 					f -> log.warn("Exception at unban attempt. {}", f.getMessage())
 				);
-				ignoreExc(() -> db.cases.setInactive(caseData.getRowId()));
-			});
+				db.cases.setInactiveAsync(rowId);
+			} catch (Throwable t) {
+				log.error("Exception caught during scheduled unban of case '{}'.", rowId, t);
+			}
+		}
+	}
 
-			db.tempBan.getExpired().forEach(data -> {
-				ignoreExc(() -> db.tempBan.remove(data.getLeft(), data.getRight()));
-				Optional.ofNullable(Helper.getInstance()).ifPresent(h -> h.unban(data.getLeft(), data.getRight(), "Remove temp ban"));
-			});
-		} catch (Throwable t) {
-			log.error("Exception caught during scheduled unban.", t);
+	private void expireTempBans(List<Expiration> expired) {
+		Instant now = Instant.now();
+		for (Expiration expiration : expired) {
+			long guildId = expiration.getFirst();
+			long userId = expiration.getSecond();
+			try {
+				Instant until = db.tempBan.getUntil(guildId, userId);
+				if (until == null) continue;
+				if (until.isAfter(now)) {
+					db.expirations.schedule(expiration.getType(), guildId, userId, until.getEpochSecond());
+					continue;
+				}
+				db.tempBan.removeAsync(guildId, userId);
+				Optional.ofNullable(Helper.getInstance()).ifPresent(h -> h.unban(guildId, userId, "Remove temp ban"));
+			} catch (Throwable t) {
+				log.error("Exception caught during scheduled temp unban.", t);
+			}
 		}
 	}
 
@@ -439,27 +513,7 @@ public class ScheduledCheck {
 	private void updateDbQueue() {
 		try {
 			// level data
-			Iterator<PlayerObject> itr = bot.getLevelUtil().getUpdateQueue().iterator();
-			if (!itr.hasNext()) return;
-
-			Set<PlayerObject> players = new HashSet<>(); // to (try) avoid ConcurrentModificationException
-			while (itr.hasNext()) {
-				PlayerObject player = itr.next();
-				players.add(player);
-
-				itr.remove();
-
-			}
-			if (players.isEmpty()) return;
-
-			int updatedCount = 0;
-			for (PlayerObject player : players) {
-				LevelManager.PlayerData playerData = db.levels.getPlayer(player);
-				if (playerData == null) continue;
-
-				db.levels.updatePlayer(player, playerData);
-				updatedCount++;
-			}
+			int updatedCount = db.levels.flushPlayers();
 			if (updatedCount != 0) log.debug("Updated data for {} players", updatedCount);
 		} catch (Throwable t) {
 			log.error("Exception caught during DB queue update.", t);
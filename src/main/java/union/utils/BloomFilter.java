@@ -0,0 +1,67 @@
+package union.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import union.utils.encoding.MurmurHash3;
+
+/**
+ * Bloom filter of long values (IDs).
+ * {@link #mightContain(long)} never returns false for added value,
+ * but can return true for value that was not added.
+ * Values can not be removed, filter should be rebuilt instead.
+ */
+public class BloomFilter {
+	private final AtomicLongArray bits;
+	private final int bitCount;
+	private final int hashCount;
+	private final int capacity;
+	private final AtomicInteger size = new AtomicInteger(0);
+
+	/**
+	 * @param capacity expected number of values
+	 * @param fpp false positive probability at full capacity, between 0 and 1
+	 */
+	public BloomFilter(int capacity, double fpp) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1!");
+		if (fpp <= 0 || fpp >= 1)
+			throw new IllegalArgumentException("False positive probability must be between 0 and 1!");
+		this.capacity = capacity;
+		// m = -n*ln(p)/ln(2)^2, k = m/n*ln(2)
+		long m = (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+		this.bitCount = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+		this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+	}
+
+	public void put(long value) {
+		int hash1 = MurmurHash3.hash32(value);
+		int hash2 = MurmurHash3.hash32(value, hash1);
+		for (int i = 0; i < hashCount; i++) {
+			int index = Math.floorMod(hash1 + i * hash2, bitCount);
+			long mask = 1L << (index & 63);
+			bits.getAndUpdate(index >>> 6, word -> word | mask);
+		}
+		// Repeated values are counted too, filter is rebuilt a bit earlier
+		size.incrementAndGet();
+	}
+
+	public boolean mightContain(long value) {
+		int hash1 = MurmurHash3.hash32(value);
+		int hash2 = MurmurHash3.hash32(value, hash1);
+		for (int i = 0; i < hashCount; i++) {
+			int index = Math.floorMod(hash1 + i * hash2, bitCount);
+			if ((bits.get(index >>> 6) & (1L << (index & 63))) == 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return true, if more values were added than filter was sized for
+	 */
+	public boolean isSaturated() {
+		return size.get() > capacity;
+	}
+
+}
@@ -0,0 +1,175 @@
+package union.utils;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Bidirectional map of primitive long keys and values, both are unique.
+ * Lookups in both directions are O(1) and do not box.
+ * <p>0 is reserved as empty slot, so it can not be used as key or value (Discord IDs are never 0).
+ * All methods are synchronized.
+ */
+public class LongBiMap {
+	private final LongMap forward = new LongMap();
+	private final LongMap backward = new LongMap();
+
+	/**
+	 * Puts pair, replacing previous pairs with the same key or value.
+	 */
+	public synchronized void put(long key, long value) {
+		if (key == 0 || value == 0)
+			throw new IllegalArgumentException("Key and value can not be 0!");
+		long oldValue = forward.remove(key);
+		if (oldValue != 0) backward.remove(oldValue);
+		long oldKey = backward.remove(value);
+		if (oldKey != 0) forward.remove(oldKey);
+
+		forward.put(key, value);
+		backward.put(value, key);
+	}
+
+	/**
+	 * @return value or 0, if key is not present
+	 */
+	public synchronized long getValue(long key) {
+		return forward.get(key);
+	}
+
+	/**
+	 * @return key or 0, if value is not present
+	 */
+	public synchronized long getKey(long value) {
+		return backward.get(value);
+	}
+
+	public synchronized boolean containsKey(long key) {
+		return forward.get(key) != 0;
+	}
+
+	public synchronized boolean containsValue(long value) {
+		return backward.get(value) != 0;
+	}
+
+	/**
+	 * @return removed value or 0
+	 */
+	public synchronized long removeKey(long key) {
+		long value = forward.remove(key);
+		if (value != 0) backward.remove(value);
+		return value;
+	}
+
+	/**
+	 * @return removed key or 0
+	 */
+	public synchronized long removeValue(long value) {
+		long key = backward.remove(value);
+		if (key != 0) forward.remove(key);
+		return key;
+	}
+
+	public synchronized int size() {
+		return forward.size;
+	}
+
+	/**
+	 * Iterates over copy of pairs, so action can modify this map.
+	 */
+	public void forEach(BiConsumer<Long, Long> action) {
+		long[] keys, values;
+		synchronized (this) {
+			keys = new long[forward.size];
+			values = new long[forward.size];
+			int n = 0;
+			for (int i = 0; i < forward.keys.length; i++) {
+				if (forward.keys[i] == 0) continue;
+				keys[n] = forward.keys[i];
+				values[n] = forward.values[i];
+				n++;
+			}
+		}
+		for (int i = 0; i < keys.length; i++) {
+			action.accept(keys[i], values[i]);
+		}
+	}
+
+	// Open addressing with linear probing
+	private static class LongMap {
+		private long[] keys = new long[16];
+		private long[] values = new long[16];
+		private int size = 0;
+
+		private int slot(long key) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+		}
+
+		long get(long key) {
+			int mask = keys.length - 1;
+			for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+				if (keys[i] == key) return values[i];
+			}
+			return 0;
+		}
+
+		void put(long key, long value) {
+			if ((size + 1) * 4 > keys.length * 3) resize(keys.length * 2);
+			int mask = keys.length - 1;
+			int i = slot(key);
+			while (keys[i] != 0) {
+				if (keys[i] == key) {
+					values[i] = value;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+			size++;
+		}
+
+		long remove(long key) {
+			int mask = keys.length - 1;
+			int i = slot(key);
+			while (keys[i] != 0) {
+				if (keys[i] == key) {
+					long value = values[i];
+					shiftBack(i);
+					size--;
+					return value;
+				}
+				i = (i + 1) & mask;
+			}
+			return 0;
+		}
+
+		// Move following entries into the freed slot, so probing chains stay unbroken
+		private void shiftBack(int free) {
+			int mask = keys.length - 1;
+			int i = free;
+			while (true) {
+				i = (i + 1) & mask;
+				if (keys[i] == 0) break;
+				int home = slot(keys[i]);
+				// Entry can be moved, if its home slot is not between free and current slot
+				if (((i - home) & mask) >= ((i - free) & mask)) {
+					keys[free] = keys[i];
+					values[free] = values[i];
+					free = i;
+				}
+			}
+			keys[free] = 0;
+			values[free] = 0;
+		}
+
+		private void resize(int capacity) {
+			long[] oldKeys = keys, oldValues = values;
+			keys = new long[capacity];
+			values = new long[capacity];
+			size = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0) put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+package union.utils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import union.metrics.Metrics;
+import union.objects.constants.Constants;
+
+/**
+ * Bounded cache for per-guild settings and similar data.
+ * Entries are evicted by frequency and recency (W-TinyLFU), hits, misses and evictions
+ * are exported to {@link Metrics} with cache name as label.
+ * <p>Complete cache, see {@link #preload(Map)}, is unbounded and holds every stored row,
+ * so it should only be used for data that grows with guild count, not with members or messages.
+ *
+ * @param <K> key type
+ * @param <V> cache item type
+ */
+public class SettingsCache<K, V> {
+
+	private static volatile int defaultSize = Constants.DEFAULT_CACHE_SIZE;
+
+	private final Cache<K, V> cache;
+	// All stored values are in cache, missing key has no stored value
+	private volatile boolean complete = false;
+
+	/**
+	 * Cache with default size, see {@link #setDefaultSize(int)}.
+	 * @param name name used in metrics
+	 */
+	public SettingsCache(@NotNull String name) {
+		this(name, defaultSize);
+	}
+
+	public SettingsCache(@NotNull String name, int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("Cache size must be at least 1!");
+		this.cache = Caffeine.newBuilder()
+			.maximumSize(size)
+			// Evicted key may still have a stored value, it must be loaded again
+			.evictionListener((K key, V value, RemovalCause cause) -> complete = false)
+			.recordStats(() -> new MetricsStatsCounter(name))
+			.build();
+	}
+
+	/**
+	 * Sets size for caches created after this call.
+	 * @param size maximum number of entries in each cache
+	 */
+	public static void setDefaultSize(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("Cache size must be at least 1!");
+		defaultSize = size;
+	}
+
+	/**
+	 * Returns cached value or loads it, concurrent loads for the same key are done once.
+	 * @param key key
+	 * @param loader function to load value, must not return null
+	 * @return cached or loaded value
+	 */
+	public V get(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+		return cache.get(key, loader);
+	}
+
+	@Nullable
+	public V get(@NotNull K key) {
+		return cache.getIfPresent(key);
+	}
+
+	public void put(@NotNull K key, @NotNull V value) {
+		cache.put(key, value);
+	}
+
+	/**
+	 * Changes cached value atomically, concurrent updates of the same key are not lost.
+	 * Missing value is loaded on next {@link #get(Object, Function)}, unless cache is complete.
+	 * @param key key
+	 * @param empty value to modify, if cache is complete and key is missing
+	 * @param modifier returns new value, must not change the given one
+	 */
+	public void update(@NotNull K key, @NotNull V empty, @NotNull Function<? super V, ? extends V> modifier) {
+		cache.asMap().compute(key, (k, value) -> {
+			if (value == null) return complete ? modifier.apply(empty) : null;
+			return modifier.apply(value);
+		});
+	}
+
+	/**
+	 * Fills cache with all stored values, so missing keys can be answered without loading.
+	 * Size limit is removed, so preloaded entries are not evicted and memory use grows with stored rows.
+	 * If an entry is still evicted, cache is no longer complete and missing keys are loaded from database.
+	 * @param values all stored values
+	 */
+	public void preload(@NotNull Map<K, V> values) {
+		cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(Long.MAX_VALUE));
+		cache.putAll(values);
+		complete = true;
+	}
+
+	/**
+	 * @return true after {@link #preload(Map)}, loader should return empty value without database query
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	public void pull(@NotNull K key) {
+		cache.invalidate(key);
+	}
+
+	public void purge() {
+		complete = false;
+		cache.invalidateAll();
+	}
+
+	public boolean contains(@NotNull K key) {
+		return cache.asMap().containsKey(key);
+	}
+
+	public Collection<V> getValues() {
+		return cache.asMap().values();
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	private static class MetricsStatsCounter implements StatsCounter {
+		private final String name;
+		private final ConcurrentStatsCounter delegate = new ConcurrentStatsCounter();
+
+		private MetricsStatsCounter(String name) {
+			this.name = name;
+			Metrics.cacheHits.initLabel(name);
+			Metrics.cacheMisses.initLabel(name);
+			Metrics.cacheEvictions.initLabel(name);
+		}
+
+		@Override
+		public void recordHits(int count) {
+			delegate.recordHits(count);
+			Metrics.cacheHits.labelValue(name).inc(count);
+		}
+
+		@Override
+		public void recordMisses(int count) {
+			delegate.recordMisses(count);
+			Metrics.cacheMisses.labelValue(name).inc(count);
+		}
+
+		@Override
+		public void recordLoadSuccess(long loadTime) {
+			delegate.recordLoadSuccess(loadTime);
+		}
+
+		@Override
+		public void recordLoadFailure(long loadTime) {
+			delegate.recordLoadFailure(loadTime);
+		}
+
+		@Override
+		public void recordEviction(int weight, RemovalCause cause) {
+			delegate.recordEviction(weight, cause);
+			Metrics.cacheEvictions.labelValue(name).inc();
+		}
+
+		@Override
+		public CacheStats snapshot() {
+			return delegate.snapshot();
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package union.utils.database;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops requests to unavailable database.
+ * <p>After {@link #threshold} consecutive failures breaker opens and requests fail fast for cool-down duration.
+ * Then single trial request is allowed, its success closes breaker, failure opens it again.
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED,
+		OPEN,
+		HALF_OPEN
+	}
+
+	private final int threshold;
+	private final long coolDown;
+
+	private final AtomicInteger failures = new AtomicInteger(0);
+	private final AtomicLong openedAt = new AtomicLong(0);
+	private final AtomicBoolean trial = new AtomicBoolean(false);
+	private final AtomicLong rejected = new AtomicLong(0);
+	private final AtomicInteger opened = new AtomicInteger(0);
+
+	/**
+	 * @param threshold consecutive failures to open breaker
+	 * @param coolDown milliseconds to fail fast after opening
+	 */
+	public CircuitBreaker(int threshold, long coolDown) {
+		this.threshold = threshold;
+		this.coolDown = coolDown;
+	}
+
+	/**
+	 * @return true, if request can be executed, its result must be recorded
+	 */
+	public boolean allowRequest() {
+		long opened = openedAt.get();
+		if (opened == 0) return true;
+		if (System.currentTimeMillis() - opened >= coolDown && trial.compareAndSet(false, true)) {
+			return true;
+		}
+		rejected.incrementAndGet();
+		return false;
+	}
+
+	public void recordSuccess() {
+		failures.set(0);
+		openedAt.set(0);
+		trial.set(false);
+	}
+
+	public void recordFailure() {
+		int count = failures.incrementAndGet();
+		if (trial.get()) {
+			// Trial failed, start new cool-down
+			openedAt.set(System.currentTimeMillis());
+			trial.set(false);
+		} else if (count >= threshold && openedAt.compareAndSet(0, System.currentTimeMillis())) {
+			opened.incrementAndGet();
+		}
+	}
+
+	public State getState() {
+		long opened = openedAt.get();
+		if (opened == 0) return State.CLOSED;
+		if (trial.get() || System.currentTimeMillis() - opened >= coolDown) return State.HALF_OPEN;
+		return State.OPEN;
+	}
+
+	public int getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * @return milliseconds until trial request is allowed, 0 if not open
+	 */
+	public long getRetryIn() {
+		long opened = openedAt.get();
+		if (opened == 0) return 0;
+		return Math.max(0, opened + coolDown - System.currentTimeMillis());
+	}
+
+	/**
+	 * @return total requests rejected while open
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * @return how many times breaker was opened
+	 */
+	public int getOpenedCount() {
+		return opened.get();
+	}
+
+}
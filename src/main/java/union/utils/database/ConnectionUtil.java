@@ -1,20 +1,186 @@
 package union.utils.database;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
 import ch.qos.logback.classic.Logger;
+import org.sqlite.SQLiteConfig;
 
+/**
+ * Provides long-lived SQLite connections.
+ * Single writer connection and several reader connections, database in WAL mode,
+ * so readers are not blocked by the writer.
+ */
 public class ConnectionUtil {
 
+	public static final int DEFAULT_READERS = 4;
+	// How long to wait for free connection, in milliseconds
+	private static final long ACQUIRE_TIMEOUT = 10_000;
+	private static final int BUSY_TIMEOUT = 5_000;
+
 	private final String urlSQLite;
 
 	protected final Logger logger;
 
+	private final PooledConnection writer;
+	private final ReentrantLock writerLock = new ReentrantLock(true);
+	private final BlockingQueue<PooledConnection> readers;
+	private final WriteQueue writeQueue;
+
+	private volatile boolean closed = false;
+
 	protected ConnectionUtil(String urlSQLite, Logger logger) {
+		this(urlSQLite, logger, DEFAULT_READERS);
+	}
+
+	protected ConnectionUtil(String urlSQLite, Logger logger, int readersCount) {
+		if (readersCount < 1)
+			throw new IllegalArgumentException("Readers count must be at least 1!");
 		this.urlSQLite = urlSQLite;
 		this.logger = logger;
+
+		this.writer = new PooledConnection(this, true);
+		this.readers = new ArrayBlockingQueue<>(readersCount);
+		for (int i = 0; i < readersCount; i++) {
+			readers.add(new PooledConnection(this, false));
+		}
+		// Thread named after database file
+		String fileName = urlSQLite.substring(Math.max(urlSQLite.lastIndexOf('/'), urlSQLite.lastIndexOf('\\'))+1);
+		this.writeQueue = new WriteQueue(this, "Writer "+fileName);
 	}
 
 	protected String getUrlSQLite() {
 		return urlSQLite;
 	}
-	
+
+	/**
+	 * Exclusive connection for statements that modify database.
+	 * Must be closed after use to release it for other writers.
+	 * @return leased writer connection
+	 * @throws SQLException if pool is closed, timed out waiting or failed to open connection
+	 * @throws IllegalStateException if this thread already holds the writer connection
+	 */
+	public PooledConnection getWriter() throws SQLException {
+		checkOpen();
+		// Closing nested lease would roll back the outer transaction and leave the lock held
+		if (writerLock.isHeldByCurrentThread())
+			throw new IllegalStateException("SQLite writer connection is already leased by this thread.");
+		try {
+			if (!writerLock.tryLock(ACQUIRE_TIMEOUT, TimeUnit.MILLISECONDS))
+				throw new SQLException("Timed out waiting for SQLite writer connection.");
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for SQLite writer connection.", ex);
+		}
+		try {
+			writer.lease();
+		} catch (SQLException ex) {
+			writerLock.unlock();
+			throw ex;
+		}
+		return writer;
+	}
+
+	/**
+	 * @return background writer, executes statements in batches using writer connection
+	 */
+	public WriteQueue getWriteQueue() {
+		return writeQueue;
+	}
+
+	/**
+	 * Connection for read-only statements.
+	 * Must be closed after use to return it to the pool.
+	 * @return leased reader connection
+	 * @throws SQLException if pool is closed, timed out waiting or failed to open connection
+	 */
+	public PooledConnection getReader() throws SQLException {
+		checkOpen();
+		PooledConnection reader;
+		try {
+			reader = readers.poll(ACQUIRE_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for SQLite reader connection.", ex);
+		}
+		if (reader == null)
+			throw new SQLException("Timed out waiting for SQLite reader connection.");
+		try {
+			reader.lease();
+		} catch (SQLException ex) {
+			readers.offer(reader);
+			throw ex;
+		}
+		return reader;
+	}
+
+	void release(PooledConnection connection) {
+		if (connection.isWriter()) {
+			// Do not leave unfinished transaction for the next user
+			try {
+				Connection conn = connection.get();
+				if (conn != null && !conn.isClosed() && !conn.getAutoCommit()) {
+					conn.rollback();
+					conn.setAutoCommit(true);
+				}
+			} catch (SQLException ex) {
+				logger.warn("DB SQLite: Failed to reset writer connection, reopening.", ex);
+				connection.shutdown();
+			}
+			if (closed) connection.shutdown();
+			writerLock.unlock();
+		} else {
+			if (closed) connection.shutdown();
+			readers.offer(connection);
+		}
+	}
+
+	Connection openConnection(boolean writer) throws SQLException {
+		checkOpen();
+		SQLiteConfig config = new SQLiteConfig();
+		config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+		config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+		config.setBusyTimeout(BUSY_TIMEOUT);
+
+		Connection conn = DriverManager.getConnection(urlSQLite, config.toProperties());
+		if (!writer) {
+			// Guard against accidental writes through reader connections
+			try (Statement st = conn.createStatement()) {
+				st.execute("PRAGMA query_only = true");
+			}
+		}
+		logger.debug("DB SQLite: Opened new {} connection", writer ? "writer" : "reader");
+		return conn;
+	}
+
+	private void checkOpen() throws SQLException {
+		if (closed)
+			throw new SQLException("SQLite connection pool is closed.");
+	}
+
+	/**
+	 * Writes queued statements and closes all idle connections, leased connections are closed on release.
+	 */
+	public void close() {
+		writeQueue.shutdown();
+		closed = true;
+		if (writerLock.tryLock()) {
+			try {
+				writer.shutdown();
+			} finally {
+				writerLock.unlock();
+			}
+		}
+		PooledConnection reader;
+		while ((reader = readers.poll()) != null) {
+			reader.shutdown();
+		}
+	}
+
 }
@@ -14,6 +14,8 @@ import java.util.List;
 
 import ch.qos.logback.classic.Level;
 import union.App;
+import union.services.ExpirationScheduler;
+import union.utils.SettingsCache;
 import union.utils.database.managers.*;
 import union.utils.database.managers.GuildLogsManager.LogSettings;
 import union.utils.database.managers.GuildSettingsManager.GuildSettings;
@@ -33,6 +35,7 @@ public class DBUtil {
 
 	private final FileManager fileManager;
 	private final ConnectionUtil connectionUtil;
+	private final ConnectionUtil banlistConnectionUtil;
 	
 	protected final Logger log = (Logger) LoggerFactory.getLogger(DBUtil.class);
 
@@ -62,6 +65,7 @@ public class DBUtil {
 	public final GameStrikeManager games;
 	public final TempBanManager tempBan;
 	public final ModReportManager modReport;
+	public final ModStatsManager modStats;
 	public final PersistentManager persistent;
 	public final CommentsManager comments;
 	public final LevelManager levels;
@@ -73,6 +77,8 @@ public class DBUtil {
 
 	public final BanlistManager banlist;
 
+	public final ExpirationScheduler expirations = new ExpirationScheduler();
+
 	public DBUtil(FileManager fileManager, SettingsManager settings) {
 		this.fileManager = fileManager;
 
@@ -100,6 +106,10 @@ public class DBUtil {
 		String userCentral = fileManager.getNullableString("config", "central-user");
 		String passCentral = fileManager.getNullableString("config", "central-pass");
 		
+		// Size of per-guild caches, optional
+		Integer cacheSize = fileManager.getInteger("config", "cache-size");
+		if (cacheSize != null) SettingsCache.setDefaultSize(cacheSize);
+
 		this.connectionUtil = new ConnectionUtil(urlSQLite, log);
 
 		updateDB();
@@ -118,9 +128,9 @@ public class DBUtil {
 		guildVoice = new GuildVoiceManager(connectionUtil);
 		user = new UserSettingsManager(connectionUtil);
 		voice = new VoiceChannelManager(connectionUtil);
-		tempRole = new TempRoleManager(connectionUtil);
-		cases = new CaseManager(connectionUtil);
-		strike = new StrikeManager(connectionUtil);
+		tempRole = new TempRoleManager(connectionUtil, expirations);
+		cases = new CaseManager(connectionUtil, expirations);
+		strike = new StrikeManager(connectionUtil, expirations);
 		autopunish = new AutopunishManager(connectionUtil);
 		blacklist = new BlacklistManager(connectionUtil);
 		logs = new GuildLogsManager(connectionUtil);
@@ -128,23 +138,64 @@ public class DBUtil {
 		modifyRole = new ModifyRoleManager(connectionUtil);
 		threadControl = new ThreadControlManager(connectionUtil);
 		games = new GameStrikeManager(connectionUtil);
-		tempBan = new TempBanManager(connectionUtil);
+		tempBan = new TempBanManager(connectionUtil, expirations);
 		modReport = new ModReportManager(connectionUtil);
+		modStats = new ModStatsManager(connectionUtil);
 		persistent = new PersistentManager(connectionUtil);
 		comments = new CommentsManager(connectionUtil);
 		levels = new LevelManager(connectionUtil);
 		levelRoles = new LevelRolesManager(connectionUtil);
 		connectedRoles = new ConnectedRolesManager(connectionUtil);
 		
+		preloadGuildConfig();
+
 		unionVerify = new UnionVerifyManager(connectionUtil, settings, urlWebsite, userWebsite, passWebsite);
 		unionPlayers = new UnionPlayerManager(connectionUtil, settings, urlCentralTemp, userCentral, passCentral);
 
 		urlSQLite = "jdbc:sqlite:%s".formatted(fileManager.getFiles().get("banlist"));
 		Logger banlistLogger = (Logger) LoggerFactory.getLogger("Banlist manager");
 		banlistLogger.setLevel(Level.INFO);
-		ConnectionUtil banlistConnectionUtil = new ConnectionUtil(urlSQLite, banlistLogger);
+		this.banlistConnectionUtil = new ConnectionUtil(urlSQLite, banlistLogger, 2);
 
 		banlist = new BanlistManager(banlistConnectionUtil);
+		log.info("Loaded {} banlist entries", banlist.preload());
+	}
+
+	// Fill settings caches before any events are received, instead of single row selects for each guild
+	private void preloadGuildConfig() {
+		long start = System.currentTimeMillis();
+		int count = guildSettings.preload();
+		logs.preload();
+		verifySettings.preload();
+		ticketSettings.preload();
+		guildVoice.preload();
+		levels.preload();
+		access.preload();
+		logExemption.preload();
+		int tickets = ticket.preload();
+		int groups = group.preload();
+		blacklist.preload();
+		log.info("Preloaded settings of {} guilds, {} open tickets and {} groups in {} ms", count, tickets, groups, System.currentTimeMillis()-start);
+
+		start = System.currentTimeMillis();
+		try {
+			log.info("Loaded leaderboards of {} players in {} ms", levels.loadRanks(), System.currentTimeMillis()-start);
+		} catch (SQLException ex) {
+			log.error("Failed to load leaderboards", ex);
+		}
+	}
+
+	public void shutdown() {
+		expirations.shutdown();
+		try {
+			levels.flushPlayers();
+		} catch (SQLException ex) {
+			log.error("Failed to save level data on shutdown", ex);
+		}
+		connectionUtil.close();
+		banlistConnectionUtil.close();
+		unionVerify.close();
+		unionPlayers.close();
 	}
 
 	public VerifySettings getVerifySettings(Guild guild) {
@@ -178,8 +229,8 @@ public class DBUtil {
 	// in the end set active db version to resources
 	public Integer getActiveDBVersion() {
 		int version = 0;
-		try (Connection conn = DriverManager.getConnection(connectionUtil.getUrlSQLite());
-			PreparedStatement st = conn.prepareStatement("PRAGMA user_version")) {
+		try (PooledConnection conn = connectionUtil.getReader();
+			PreparedStatement st = conn.get().prepareStatement("PRAGMA user_version")) {
 			version = st.executeQuery().getInt(1);
 		} catch(SQLException ex) {
 			log.warn("SQLite: Failed to get active database version", ex);
@@ -240,9 +291,10 @@ public class DBUtil {
 
 		if (newVersion > activeVersion) {
 			try (
-				Connection conn = DriverManager.getConnection(connectionUtil.getUrlSQLite());
-				Statement st = conn.createStatement()
+				PooledConnection pooled = connectionUtil.getWriter();
+				Statement st = pooled.get().createStatement()
 			) {
+				Connection conn = pooled.get();
 				conn.setAutoCommit(false);
 				try {
 					for (List<String> version : loadInstructions(activeVersion)) {
@@ -262,8 +314,8 @@ public class DBUtil {
 			}
 			
 			// Update version
-			try (Connection conn = DriverManager.getConnection(connectionUtil.getUrlSQLite());
-			Statement st = conn.createStatement()) {
+			try (PooledConnection conn = connectionUtil.getWriter();
+			Statement st = conn.get().createStatement()) {
 				st.execute("PRAGMA user_version = "+newVersion);
 				log.info("SQLite: Database version updated to {}", newVersion);
 			} catch(SQLException ex) {
@@ -1,22 +1,31 @@
 package union.utils.database;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import union.metrics.Metrics;
-
+import union.utils.CastUtil;
+
+/**
+ * Base for SQLite managers.
+ * <p>Statements can be passed with '?' placeholders and values as {@code params},
+ * such statements are cached per connection and only prepared once.
+ * Statements without parameters are prepared each time, as they are usually built with values inside.
+ */
 @SuppressWarnings("SqlSourceToSinkFlow")
 public class LiteDBBase {
 
@@ -30,78 +39,111 @@ public class LiteDBBase {
 
 	/**
 	 * @param sql SQL statement to execute
+	 * @param params values for statement placeholders
 	 * @throws SQLException Rethrows error
 	 */
-	protected void execute(final String sql) throws SQLException {
+	protected void execute(final String sql, final Object... params) throws SQLException {
 		// Metrics
-		Metrics.databaseLiteQueries.labelValue(sql.split(" ")[0].toUpperCase()).inc();
+		Metrics.databaseLiteQueries.labelValue(statementType(sql)).inc();
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			 PreparedStatement st = conn.prepareStatement(sql)) {
-			st.executeUpdate();
+		try (PooledConnection conn = util.getWriter()) {
+			if (params.length == 0) {
+				try (PreparedStatement st = conn.get().prepareStatement(sql)) {
+					st.executeUpdate();
+				}
+			} else {
+				PreparedStatement st = conn.prepare(sql);
+				bind(st, params);
+				st.executeUpdate();
+			}
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at statement execution\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at statement execution\nRequest: {}{}", sql, formatParams(params), ex);
 			throw ex;
 		}
 	}
 
 	/**
 	 * @param sql SQL statement to execute
+	 * @param params values for statement placeholders
 	 * @return inserted row ID.
 	 * @throws SQLException Rethrows error
 	 */
-	protected int executeWithRow(final String sql) throws SQLException {
+	protected int executeWithRow(final String sql, final Object... params) throws SQLException {
 		// Metrics
-		Metrics.databaseLiteQueries.labelValue(sql.split(" ")[0].toUpperCase()).inc();
+		Metrics.databaseLiteQueries.labelValue(statementType(sql)).inc();
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			 PreparedStatement st = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+		try (PooledConnection conn = util.getWriter();
+			 PreparedStatement st = conn.get().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			bind(st, params);
 			st.executeUpdate();
 			return st.getGeneratedKeys().getInt(1);
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at statement execution\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at statement execution\nRequest: {}{}", sql, formatParams(params), ex);
+			throw ex;
+		}
+	}
+
+	/**
+	 * @param sql SQL statement with RETURNING clause
+	 * @param selectKeys returned columns to read
+	 * @param params values for statement placeholders
+	 * @return first returned row, or null if statement changed no rows
+	 * @throws SQLException Rethrows error
+	 */
+	@Nullable
+	protected Map<String, Object> executeReturning(final String sql, final Set<String> selectKeys, final Object... params) throws SQLException {
+		// Metrics
+		Metrics.databaseLiteQueries.labelValue(statementType(sql)).inc();
+
+		util.logger.debug(sql);
+		try (PooledConnection conn = util.getWriter();
+			ResultSet rs = query(conn, sql, params)) {
+			if (!rs.next()) return null;
+			Map<String, Object> result = new HashMap<>();
+			for (String key : selectKeys) {
+				result.put(key, rs.getObject(key));
+			}
+			return result;
+		} catch (SQLException ex) {
+			util.logger.warn("DB SQLite: Error at statement execution\nRequest: {}{}", sql, formatParams(params), ex);
 			throw ex;
 		}
 	}
 
 	// Select
 	@Nullable
-	protected <T> T selectOne(final String sql, String selectKey, Class<T> selectClass) {
+	protected <T> T selectOne(final String sql, String selectKey, Class<T> selectClass, final Object... params) {
 		// Metrics
 		Metrics.databaseLiteQueries.labelValue("SELECT").inc();
 
 		T result = null;
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			PreparedStatement st = conn.prepareStatement(sql)) {
-			ResultSet rs = st.executeQuery();
-
+		try (PooledConnection conn = util.getReader();
+			ResultSet rs = query(conn, sql, params)) {
 			try {
 				if (rs.next()) result = rs.getObject(selectKey, selectClass);
 			} catch (SQLException ex) {
 				if (!rs.wasNull()) throw ex;
 			}
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}{}", sql, formatParams(params), ex);
 		}
 		return result;
 	}
 
 	@NotNull
-	protected <T> List<T> select(final String sql, String selectKey, Class<T> selectClass) {
+	protected <T> List<T> select(final String sql, String selectKey, Class<T> selectClass, final Object... params) {
 		// Metrics
 		Metrics.databaseLiteQueries.labelValue("SELECT").inc();
 
 		List<T> results = new ArrayList<>();
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			PreparedStatement st = conn.prepareStatement(sql)) {
-			ResultSet rs = st.executeQuery();
-
+		try (PooledConnection conn = util.getReader();
+			ResultSet rs = query(conn, sql, params)) {
 			while (rs.next()) {
 				try {
 					results.add(rs.getObject(selectKey, selectClass));
@@ -110,45 +152,41 @@ public class LiteDBBase {
 				}
 			}
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}{}", sql, formatParams(params), ex);
 		}
 		return results;
 	}
 
 	@Nullable
-	protected Map<String, Object> selectOne(final String sql, final Set<String> selectKeys) {
+	protected Map<String, Object> selectOne(final String sql, final Set<String> selectKeys, final Object... params) {
 		// Metrics
 		Metrics.databaseLiteQueries.labelValue("SELECT").inc();
 
 		Map<String, Object> result = new HashMap<>();
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			PreparedStatement st = conn.prepareStatement(sql)) {
-			ResultSet rs = st.executeQuery();
-
+		try (PooledConnection conn = util.getReader();
+			ResultSet rs = query(conn, sql, params)) {
 			if (rs.next())
 				for (String key : selectKeys) {
 					result.put(key, rs.getObject(key));
 				}
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}{}", sql, formatParams(params), ex);
 		}
 		return result.isEmpty() ? null : result;
 	}
 
 	@NotNull
-	protected List<Map<String, Object>> select(final String sql, final Set<String> selectKeys) {
+	protected List<Map<String, Object>> select(final String sql, final Set<String> selectKeys, final Object... params) {
 		// Metrics
 		Metrics.databaseLiteQueries.labelValue("SELECT").inc();
 
 		List<Map<String, Object>> results = new ArrayList<>();
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			PreparedStatement st = conn.prepareStatement(sql)) {
-			ResultSet rs = st.executeQuery();
-
+		try (PooledConnection conn = util.getReader();
+			ResultSet rs = query(conn, sql, params)) {
 			while (rs.next()) {
 				Map<String, Object> data = new HashMap<>();
 				for (String key : selectKeys) {
@@ -157,61 +195,143 @@ public class LiteDBBase {
 				results.add(data);
 			}
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}{}", sql, formatParams(params), ex);
+		}
+		return results;
+	}
+
+	/**
+	 * Selects rows and groups them by 'guildId' column, used to fill caches with one query.
+	 * @param sql SQL statement, must select 'guildId' column
+	 * @param selectKeys columns to read, 'guildId' is added
+	 * @param params values for statement placeholders
+	 * @return guild ID to its rows
+	 */
+	@NotNull
+	protected Map<Long, List<Map<String, Object>>> selectByGuild(final String sql, final Set<String> selectKeys, final Object... params) {
+		Set<String> keys = new HashSet<>(selectKeys);
+		keys.add("guildId");
+
+		Map<Long, List<Map<String, Object>>> results = new HashMap<>();
+		for (Map<String, Object> data : select(sql, keys, params)) {
+			Long guildId = CastUtil.castLong(data.get("guildId"));
+			if (guildId == null) continue;
+			results.computeIfAbsent(guildId, k -> new ArrayList<>()).add(data);
 		}
 		return results;
 	}
 
 	// Exists
-	protected boolean exists(final String sql) {
+	protected boolean exists(final String sql, final Object... params) {
 		// Metrics
 		Metrics.databaseLiteQueries.labelValue("SELECT").inc();
 
 		boolean result = false;
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			 PreparedStatement st = conn.prepareStatement(sql)) {
-			ResultSet rs = st.executeQuery();
-
+		try (PooledConnection conn = util.getReader();
+			ResultSet rs = query(conn, sql, params)) {
 			try {
 				if (rs.next()) result = rs.getBoolean(1);
 			} catch (SQLException ex) {
 				if (!rs.wasNull()) throw ex;
 			}
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}{}", sql, formatParams(params), ex);
 		}
 		return result;
 	}
 
-	protected int count(final String sql) {
+	protected int count(final String sql, final Object... params) {
 		// Metrics
 		Metrics.databaseLiteQueries.labelValue("SELECT").inc();
 
 		int result = 0;
 
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(util.getUrlSQLite());
-			PreparedStatement st = conn.prepareStatement(sql)) {
-			ResultSet rs = st.executeQuery();
-
+		try (PooledConnection conn = util.getReader();
+			ResultSet rs = query(conn, sql, params)) {
 			try {
 				if (rs.next()) result = rs.getInt(1);
 			} catch (SQLException ex) {
 				if (!rs.wasNull()) throw ex;
 			}
 		} catch (SQLException ex) {
-			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}", sql, ex);
+			util.logger.warn("DB SQLite: Error at SELECT\nRequest: {}{}", sql, formatParams(params), ex);
 		}
 		return result;
 	}
 
-	protected String getUrl() {
-		return util.getUrlSQLite();
+	/**
+	 * Queues statement for the background writer, returns without waiting for the database.
+	 * @param sql SQL statement with '?' placeholders
+	 * @param params values for statement placeholders
+	 * @return future, completed after statement is committed
+	 */
+	protected CompletableFuture<Void> executeAsync(final String sql, final Object... params) {
+		return util.getWriteQueue().submit(sql, params);
+	}
+
+	protected PooledConnection getWriteConnection() throws SQLException {
+		return util.getWriter();
+	}
+
+	protected PooledConnection getReadConnection() throws SQLException {
+		return util.getReader();
+	}
+
+	/**
+	 * Executes query on the leased connection.
+	 * Closing returned result set also closes not cached statement.
+	 */
+	private ResultSet query(PooledConnection conn, String sql, Object[] params) throws SQLException {
+		if (params.length == 0) {
+			PreparedStatement st = conn.get().prepareStatement(sql);
+			st.closeOnCompletion();
+			return st.executeQuery();
+		}
+		PreparedStatement st = conn.prepare(sql);
+		bind(st, params);
+		return st.executeQuery();
 	}
 
 	// UTILS
+
+	/**
+	 * Binds values to the statement placeholders.
+	 * Same as {@link #quote(Object)}, blank strings and "NULL" are stored as NULL.
+	 */
+	protected static void bind(PreparedStatement st, Object... params) throws SQLException {
+		for (int i = 0; i < params.length; i++) {
+			Object value = params[i];
+			if (value == null) {
+				st.setNull(i+1, Types.NULL);
+			} else if (value instanceof Boolean bool) {
+				st.setInt(i+1, bool ? 1 : 0);
+			} else if (value instanceof String str) {
+				if (str.isBlank() || str.equalsIgnoreCase("NULL")) st.setNull(i+1, Types.NULL);
+				else st.setString(i+1, str);
+			} else {
+				st.setObject(i+1, value);
+			}
+		}
+	}
+
+	// Metrics label without allocating new strings
+	static String statementType(String sql) {
+		if (sql.regionMatches(true, 0, "INSERT", 0, 6)) return "INSERT";
+		if (sql.regionMatches(true, 0, "UPDATE", 0, 6)) return "UPDATE";
+		if (sql.regionMatches(true, 0, "DELETE", 0, 6)) return "DELETE";
+		if (sql.regionMatches(true, 0, "SELECT", 0, 6)) return "SELECT";
+		if (sql.regionMatches(true, 0, "REPLACE", 0, 7)) return "REPLACE";
+		if (sql.regionMatches(true, 0, "WITH", 0, 4)) return "WITH";
+		return "OTHER";
+	}
+
+	private static String formatParams(Object[] params) {
+		return params.length == 0 ? "" : "\nParams: " + Arrays.toString(params);
+	}
+
 	@NotNull
 	protected String quote(Object value) {
 		// Convert to string and replace '(single quote) with ''(2 single quotes) for sql
@@ -0,0 +1,102 @@
+package union.utils.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection leased from {@link ConnectionUtil}.
+ * Closing it returns the underlying connection back to the pool instead of closing it.
+ */
+public class PooledConnection implements AutoCloseable {
+
+	private static final int STATEMENT_CACHE_SIZE = 128;
+
+	private final ConnectionUtil owner;
+	private final boolean writer;
+
+	private Connection connection;
+	private boolean leased = false;
+
+	// Prepared statements for this connection, least recently used are closed
+	private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(32, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+			if (size() <= STATEMENT_CACHE_SIZE) return false;
+			closeQuietly(eldest.getValue());
+			return true;
+		}
+	};
+
+	PooledConnection(ConnectionUtil owner, boolean writer) {
+		this.owner = owner;
+		this.writer = writer;
+	}
+
+	public Connection get() {
+		return connection;
+	}
+
+	/**
+	 * Returns cached prepared statement for this SQL, preparing it on first use.
+	 * Returned statement belongs to the connection and must not be closed by the caller,
+	 * only its result sets.
+	 * @param sql SQL statement with '?' placeholders
+	 * @return prepared statement with cleared parameters and batch
+	 * @throws SQLException on prepare error
+	 */
+	public PreparedStatement prepare(String sql) throws SQLException {
+		PreparedStatement st = statements.get(sql);
+		if (st == null || st.isClosed()) {
+			st = connection.prepareStatement(sql);
+			statements.put(sql, st);
+		} else {
+			st.clearParameters();
+			st.clearBatch();
+		}
+		return st;
+	}
+
+	public boolean isWriter() {
+		return writer;
+	}
+
+	// Lease from pool, reopen if connection was lost
+	void lease() throws SQLException {
+		if (connection == null || connection.isClosed()) {
+			clearStatements();
+			connection = owner.openConnection(writer);
+		}
+		leased = true;
+	}
+
+	@Override
+	public void close() {
+		if (!leased) return;
+		leased = false;
+		owner.release(this);
+	}
+
+	void shutdown() {
+		clearStatements();
+		if (connection == null) return;
+		try {
+			connection.close();
+		} catch (SQLException ignored) {}
+		connection = null;
+	}
+
+	private void clearStatements() {
+		statements.values().forEach(PooledConnection::closeQuietly);
+		statements.clear();
+	}
+
+	private static void closeQuietly(PreparedStatement st) {
+		try {
+			st.close();
+		} catch (SQLException ignored) {}
+	}
+
+}
@@ -0,0 +1,157 @@
+package union.utils.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of MariaDB connections for {@link SqlDBBase}.
+ * Connections are opened on demand and kept open between requests.
+ */
+public class SqlConnectionPool {
+
+	private static final long ACQUIRE_TIMEOUT = 5_000;
+	// Connections idle for longer are validated before use, server may have closed them
+	private static final long VALIDATE_AFTER = 30_000;
+
+	private final String url;
+	private final int maxSize;
+	// Limits number of opened connections, permit is held while connection is leased
+	private final Semaphore permits;
+	private final BlockingQueue<IdleConnection> idle;
+
+	private final AtomicLong acquireTimeouts = new AtomicLong(0);
+
+	private volatile boolean closed = false;
+
+	public SqlConnectionPool(String url, int maxSize) {
+		this.url = url;
+		this.maxSize = maxSize;
+		this.permits = new Semaphore(maxSize, true);
+		this.idle = new ArrayBlockingQueue<>(maxSize);
+	}
+
+	/**
+	 * Must be closed after use to return it to the pool.
+	 * @return leased connection
+	 * @throws SQLException if pool is closed, timed out waiting or failed to open connection
+	 */
+	public Lease lease() throws SQLException {
+		if (closed) throw new SQLException("MariaDB connection pool is closed.");
+		try {
+			if (!permits.tryAcquire(ACQUIRE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				acquireTimeouts.incrementAndGet();
+				throw new SQLException("Timed out waiting for MariaDB connection.");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for MariaDB connection.", ex);
+		}
+		try {
+			Connection connection = takeIdle();
+			if (connection == null) {
+				connection = DriverManager.getConnection(url);
+			}
+			return new Lease(connection);
+		} catch (SQLException ex) {
+			permits.release();
+			throw ex;
+		}
+	}
+
+	// Idle connection, that is still usable, or null
+	private Connection takeIdle() {
+		IdleConnection entry;
+		while ((entry = idle.poll()) != null) {
+			try {
+				if (entry.connection.isClosed()) continue;
+				if (System.currentTimeMillis() - entry.since < VALIDATE_AFTER || entry.connection.isValid(2)) {
+					return entry.connection;
+				}
+			} catch (SQLException ignored) {}
+			closeQuietly(entry.connection);
+		}
+		return null;
+	}
+
+	// Driver closes connection after network errors and timeouts, those are not returned
+	private void release(Connection connection) {
+		try {
+			if (closed || connection.isClosed() || !idle.offer(new IdleConnection(connection, System.currentTimeMillis()))) {
+				closeQuietly(connection);
+			}
+		} catch (SQLException ex) {
+			closeQuietly(connection);
+		} finally {
+			permits.release();
+		}
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getLeased() {
+		return maxSize - permits.availablePermits();
+	}
+
+	public int getIdle() {
+		return idle.size();
+	}
+
+	/**
+	 * @return estimated number of threads waiting for connection
+	 */
+	public int getWaiting() {
+		return permits.getQueueLength();
+	}
+
+	public long getAcquireTimeouts() {
+		return acquireTimeouts.get();
+	}
+
+	/**
+	 * Closes idle connections, leased connections are closed on release.
+	 */
+	public void close() {
+		closed = true;
+		IdleConnection entry;
+		while ((entry = idle.poll()) != null) {
+			closeQuietly(entry.connection);
+		}
+	}
+
+	private static void closeQuietly(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException ignored) {}
+	}
+
+	private record IdleConnection(Connection connection, long since) {}
+
+	public class Lease implements AutoCloseable {
+		private final Connection connection;
+		private boolean released = false;
+
+		private Lease(Connection connection) {
+			this.connection = connection;
+		}
+
+		public Connection get() {
+			return connection;
+		}
+
+		@Override
+		public void close() {
+			if (released) return;
+			released = true;
+			release(connection);
+		}
+	}
+
+}
@@ -13,20 +13,49 @@ import union.utils.file.SettingsManager;
 @SuppressWarnings({"LoggingSimilarMessage", "SqlSourceToSinkFlow", "SameParameterValue"})
 public class SqlDBBase {
 
+	private static final int POOL_SIZE = 4;
+	// Consecutive errors before requests fail fast, and for how long
+	private static final int BREAKER_THRESHOLD = 5;
+	private static final long BREAKER_COOL_DOWN = 30_000;
+
 	private final ConnectionUtil util;
-	private final String url;
+	private final SqlConnectionPool pool;
+	private final CircuitBreaker breaker = new CircuitBreaker(BREAKER_THRESHOLD, BREAKER_COOL_DOWN);
 
 	public SqlDBBase(ConnectionUtil connectionUtil, String url) {
 		this.util = connectionUtil;
-		this.url = url+"&connectTimeout=5000&socketTimeout=3000&sessionVariables=max_statement_time=2";
+		this.pool = new SqlConnectionPool(url+"&connectTimeout=5000&socketTimeout=3000&sessionVariables=max_statement_time=2", POOL_SIZE);
+	}
+
+	public void close() {
+		pool.close();
+	}
+
+	public SqlConnectionPool getPool() {
+		return pool;
+	}
+
+	public CircuitBreaker getBreaker() {
+		return breaker;
+	}
+
+	// Rejection is reported as failure, so callers can tell it apart from missing row
+	private void checkBreaker() throws SQLTransientConnectionException {
+		if (!breaker.allowRequest())
+			throw new SQLTransientConnectionException("MariaDB is unavailable, request rejected by circuit breaker.");
+	}
+
+	private void failed() {
+		Metrics.databaseSqlErrors.inc();
+		breaker.recordFailure();
 	}
 
 	// SELECT sql
-	protected List<String> select(String table, String selectKey, String condKey, String condValue) {
+	protected List<String> select(String table, String selectKey, String condKey, String condValue) throws SQLException {
 		return select(table, selectKey, List.of(condKey), List.of(condValue));
 	}
 
-	protected List<String> select(final String table, final String selectKey, final List<String> condKeys, final List<String> condValuesInp) {
+	protected List<String> select(final String table, final String selectKey, final List<String> condKeys, final List<String> condValuesInp) throws SQLException {
 		// Metrics
 		Metrics.databaseSqlQueries.inc();
 		Metrics.databaseSqlQueries.labelValue("SELECT").inc();
@@ -42,28 +71,32 @@ public class SqlDBBase {
 		}
 
 		List<String> results = new ArrayList<>();
+		checkBreaker();
 		util.logger.debug(sql.toString());
-		try (Connection conn = DriverManager.getConnection(url);
-			 PreparedStatement st = conn.prepareStatement(sql.toString())) {
+		try (SqlConnectionPool.Lease conn = pool.lease();
+			 PreparedStatement st = conn.get().prepareStatement(sql.toString())) {
 			ResultSet rs = st.executeQuery();
 			while (rs.next()) {
 				results.add(rs.getString(selectKey));
 			}
+			breaker.recordSuccess();
 		} catch (SQLTimeoutException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Timeout at request\n{}", ex.getMessage());
+			throw ex;
 		} catch (SQLException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Error at SELECT\nRequest: {}", sql.toString(), ex);
+			throw ex;
 		}
 		return results;
 	}
 
-	protected List<Map<String, String>> select(String table, List<String> selectKeys, String condKey, String condValue) {
+	protected List<Map<String, String>> select(String table, List<String> selectKeys, String condKey, String condValue) throws SQLException {
 		return select(table, selectKeys, List.of(condKey), List.of(condValue));
 	}
 
-	protected List<Map<String, String>> select(final String table, final List<String> selectKeys, final List<String> condKeys, final List<String> condValuesInp) {
+	protected List<Map<String, String>> select(final String table, final List<String> selectKeys, final List<String> condKeys, final List<String> condValuesInp) throws SQLException {
 		// Metrics
 		Metrics.databaseSqlQueries.inc();
 		Metrics.databaseSqlQueries.labelValue("SELECT").inc();
@@ -88,9 +121,10 @@ public class SqlDBBase {
 
 		List<Map<String, String>> results = new ArrayList<>();
 
+		checkBreaker();
 		util.logger.debug(sql.toString());
-		try (Connection conn = DriverManager.getConnection(url);
-			 PreparedStatement st = conn.prepareStatement(sql.toString())) {
+		try (SqlConnectionPool.Lease conn = pool.lease();
+			 PreparedStatement st = conn.get().prepareStatement(sql.toString())) {
 			ResultSet rs = st.executeQuery();
 			List<String> keys = new ArrayList<>();
 
@@ -109,17 +143,20 @@ public class SqlDBBase {
 				}
 				results.add(data);
 			}
+			breaker.recordSuccess();
 		} catch (SQLTimeoutException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Timeout at request\n{}", ex.getMessage());
+			throw ex;
 		} catch (SQLException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Error at SELECT\nRequest: {}", sql.toString(), ex);
+			throw ex;
 		}
 		return results;
 	}
 
-	protected String selectOne(final String table, final String selectKey, final String condKey, final Object condValue) {
+	protected String selectOne(final String table, final String selectKey, final String condKey, final Object condValue) throws SQLException {
 		// Metrics
 		Metrics.databaseSqlQueries.inc();
 		Metrics.databaseSqlQueries.labelValue("SELECT").inc();
@@ -127,22 +164,26 @@ public class SqlDBBase {
 		String sql = "SELECT %s FROM %s WHERE %s=%s".formatted(selectKey, table, condKey, quote(condValue));
 
 		String result = null;
+		checkBreaker();
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(url);
-			 PreparedStatement st = conn.prepareStatement(sql)) {
+		try (SqlConnectionPool.Lease conn = pool.lease();
+			 PreparedStatement st = conn.get().prepareStatement(sql)) {
 			ResultSet rs = st.executeQuery();
 			if (rs.next()) result = rs.getString(selectKey);
+			breaker.recordSuccess();
 		} catch (SQLTimeoutException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Timeout at request\n{}", ex.getMessage());
+			throw ex;
 		} catch (SQLException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Error at SELECT\nrequest: {}", sql, ex);
+			throw ex;
 		}
 		return result;
 	}
 
-	protected Map<String, String> selectOne(final String table, final List<String> selectKeys, final String condKey, final Object condValue) {
+	protected Map<String, String> selectOne(final String table, final List<String> selectKeys, final String condKey, final Object condValue) throws SQLException {
 		// Metrics
 		Metrics.databaseSqlQueries.inc();
 		Metrics.databaseSqlQueries.labelValue("SELECT").inc();
@@ -151,27 +192,31 @@ public class SqlDBBase {
 
 		Map<String, String> result = new HashMap<>();
 
+		checkBreaker();
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(url);
-			 PreparedStatement st = conn.prepareStatement(sql)) {
+		try (SqlConnectionPool.Lease conn = pool.lease();
+			 PreparedStatement st = conn.get().prepareStatement(sql)) {
 			ResultSet rs = st.executeQuery();
 
 			if (rs.next())
 				for (String key : selectKeys) {
 					result.put(key, rs.getString(key));
 				}
+			breaker.recordSuccess();
 		} catch (SQLTimeoutException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Timeout at request\n{}", ex.getMessage());
+			throw ex;
 		} catch (SQLException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Error at SELECT\nRequest: {}", sql, ex);
+			throw ex;
 		}
 		return result.isEmpty() ? null : result;
 	}
 
 	// SELECT with database selection
-	protected String selectOne(final String database, final String table, final String selectKey, final String condKey, final Object condValue) {
+	protected String selectOne(final String database, final String table, final String selectKey, final String condKey, final Object condValue) throws SQLException {
 		// Metrics
 		Metrics.databaseSqlQueries.inc();
 		Metrics.databaseSqlQueries.labelValue("SELECT").inc();
@@ -179,39 +224,47 @@ public class SqlDBBase {
 		String sql = "SELECT %s FROM %s.%s WHERE %s=%s".formatted(selectKey, database, table, condKey, quote(condValue));
 
 		String result = null;
+		checkBreaker();
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(url);
-			 PreparedStatement st = conn.prepareStatement(sql)) {
+		try (SqlConnectionPool.Lease conn = pool.lease();
+			 PreparedStatement st = conn.get().prepareStatement(sql)) {
 			ResultSet rs = st.executeQuery();
 			if (rs.next()) result = rs.getString(selectKey);
+			breaker.recordSuccess();
 		} catch (SQLTimeoutException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Timeout at request\n{}", ex.getMessage());
+			throw ex;
 		} catch (SQLException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Error at SELECT\nRequest: {}", sql, ex);
+			throw ex;
 		}
 		return result;
 	}
 
 	// UPDATE sql
-	protected void update(final String table, final String updateKey, final Object updateValueObj, final String condKey, final Object condValueObj) {
+	protected void update(final String table, final String updateKey, final Object updateValueObj, final String condKey, final Object condValueObj) throws SQLException {
 		// Metrics
 		Metrics.databaseSqlQueries.inc();
 		Metrics.databaseSqlQueries.labelValue("UPDATE").inc();
 
 		String sql = "UPDATE "+table+" SET "+updateKey+"="+quote(updateValueObj)+" WHERE "+condKey+"="+quote(condValueObj);
 
+		checkBreaker();
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(url);
-			 PreparedStatement st = conn.prepareStatement(sql)) {
+		try (SqlConnectionPool.Lease conn = pool.lease();
+			 PreparedStatement st = conn.get().prepareStatement(sql)) {
 			st.executeUpdate();
+			breaker.recordSuccess();
 		} catch (SQLTimeoutException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Timeout at request\n{}", ex.getMessage());
+			throw ex;
 		} catch (SQLException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Error at UPDATE\nRequest: {}", sql, ex);
+			throw ex;
 		}
 	}
 
@@ -226,7 +279,7 @@ public class SqlDBBase {
 
 
 	// Specific SELECT
-	protected Map<String, PlayerInfo> selectPlayerInfoList(final Map<String, SettingsManager.GameServerInfo> servers, final String table, final String steamId) {
+	protected Map<String, PlayerInfo> selectPlayerInfoList(final Map<String, SettingsManager.GameServerInfo> servers, final String table, final String steamId) throws SQLException {
 		// Metrics
 		Metrics.databaseSqlQueries.inc();
 		Metrics.databaseSqlQueries.labelValue("SELECT").inc();
@@ -239,9 +292,10 @@ public class SqlDBBase {
 		final String sql = String.join("\nUNION ALL\n", requests) + ";";
 
 		Map<String, PlayerInfo> result = new HashMap<>();
+		checkBreaker();
 		util.logger.debug(sql);
-		try (Connection conn = DriverManager.getConnection(url);
-			 PreparedStatement st = conn.prepareStatement(sql)) {
+		try (SqlConnectionPool.Lease conn = pool.lease();
+			 PreparedStatement st = conn.get().prepareStatement(sql)) {
 			ResultSet rs = st.executeQuery();
 			while (rs.next()) {
 				String name = rs.getString("server");
@@ -251,13 +305,15 @@ public class SqlDBBase {
 					rs.getLong("play_time")
 				));
 			}
+			breaker.recordSuccess();
 		} catch (SQLTimeoutException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Timeout at request\n{}", ex.getMessage());
+			throw ex;
 		} catch (SQLException ex) {
-			Metrics.databaseSqlErrors.inc();
+			failed();
 			util.logger.warn("DB MariaDB: Error at SELECT\nRequest: {}", sql, ex);
-			return Map.of();
+			throw ex;
 		}
 		return result;
 	}
@@ -0,0 +1,159 @@
+package union.utils.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import union.metrics.Metrics;
+import union.services.CountingThreadFactory;
+
+/**
+ * Single background writer for SQLite statements, which result is not needed by the caller right away.
+ * Queued statements are executed in batches, each batch inside one transaction,
+ * so event threads do not wait for the database.
+ */
+public class WriteQueue {
+
+	private static final int MAX_BATCH = 500;
+
+	private final ConnectionUtil util;
+	private final BlockingQueue<WriteTask> queue = new LinkedBlockingQueue<>();
+	private final ExecutorService executor;
+
+	private volatile boolean running = true;
+
+	WriteQueue(ConnectionUtil util, String name) {
+		this.util = util;
+		this.executor = Executors.newSingleThreadExecutor(new CountingThreadFactory("UTB", name));
+		executor.execute(this::run);
+	}
+
+	/**
+	 * Adds statement to the queue.
+	 * @param sql SQL statement with '?' placeholders
+	 * @param params values for statement placeholders
+	 * @return future, completed after the batch with this statement is committed
+	 */
+	public CompletableFuture<Void> submit(String sql, Object... params) {
+		WriteTask task = new WriteTask(sql, params);
+		if (!running) {
+			task.future.completeExceptionally(new SQLException("SQLite write queue is shut down."));
+		} else {
+			queue.add(task);
+		}
+		return task.future;
+	}
+
+	/**
+	 * @return future, completed after all statements queued before are committed
+	 */
+	public CompletableFuture<Void> flush() {
+		return submit(null);
+	}
+
+	public int size() {
+		return queue.size();
+	}
+
+	private void run() {
+		List<WriteTask> batch = new ArrayList<>();
+		while (running || !queue.isEmpty()) {
+			try {
+				WriteTask first = queue.poll(1, TimeUnit.SECONDS);
+				if (first == null) continue;
+				batch.add(first);
+				queue.drainTo(batch, MAX_BATCH-1);
+				executeBatch(batch);
+			} catch (InterruptedException ex) {
+				// Keep draining, stopped by shutdown()
+				running = false;
+			} catch (Throwable ex) {
+				util.logger.error("DB SQLite: Unexpected error in write queue", ex);
+				batch.forEach(task -> task.future.completeExceptionally(ex));
+			} finally {
+				batch.clear();
+			}
+		}
+		// Anything added after the last batch
+		WriteTask task;
+		while ((task = queue.poll()) != null) {
+			task.future.completeExceptionally(new SQLException("SQLite write queue is shut down."));
+		}
+	}
+
+	private void executeBatch(List<WriteTask> batch) {
+		List<WriteTask> done = new ArrayList<>(batch.size());
+		try (PooledConnection conn = util.getWriter()) {
+			Connection connection = conn.get();
+			connection.setAutoCommit(false);
+			for (WriteTask task : batch) {
+				if (task.sql == null) {
+					// Flush marker
+					done.add(task);
+					continue;
+				}
+				Metrics.databaseLiteQueries.labelValue(LiteDBBase.statementType(task.sql)).inc();
+				util.logger.debug(task.sql);
+				try {
+					if (task.params.length == 0) {
+						try (PreparedStatement st = connection.prepareStatement(task.sql)) {
+							st.executeUpdate();
+						}
+					} else {
+						PreparedStatement st = conn.prepare(task.sql);
+						LiteDBBase.bind(st, task.params);
+						st.executeUpdate();
+					}
+					done.add(task);
+				} catch (SQLException ex) {
+					// Failed statement is rolled back by SQLite, rest of the transaction is kept
+					util.logger.warn("DB SQLite: Error at queued statement execution\nRequest: {}", task.sql, ex);
+					task.future.completeExceptionally(ex);
+				}
+			}
+			connection.commit();
+		} catch (SQLException ex) {
+			util.logger.error("DB SQLite: Failed to commit queued statements, {} lost", batch.size(), ex);
+			batch.forEach(task -> task.future.completeExceptionally(ex));
+			return;
+		}
+		done.forEach(task -> task.future.complete(null));
+	}
+
+	/**
+	 * Stops accepting new statements and waits for queued ones to be written.
+	 */
+	public void shutdown() {
+		running = false;
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+				util.logger.warn("DB SQLite: Write queue did not finish in time, {} statements left", queue.size());
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException ex) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class WriteTask {
+		private final String sql;
+		private final Object[] params;
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		private WriteTask(String sql, Object[] params) {
+			this.sql = sql;
+			this.params = params;
+		}
+	}
+
+}
@@ -1,14 +1,15 @@
 package union.utils.database.managers;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import union.objects.constants.Constants;
 import union.utils.CastUtil;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.LiteDBBase;
 import union.objects.CmdAccessLevel;
 import union.utils.database.ConnectionUtil;
@@ -19,98 +20,125 @@ public class AccessManager extends LiteDBBase {
 	private final String table_user = "accessUser";
 
 	// Cache
-	private final FixedCache<Long, Map<Long, CmdAccessLevel>> roleCache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
-	private final FixedCache<Long, List<Long>> operatorCache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, Map<Long, CmdAccessLevel>> roleCache = new SettingsCache<>("access.roles");
+	private final SettingsCache<Long, List<Long>> operatorCache = new SettingsCache<>("access.operators");
 
 	public AccessManager(ConnectionUtil cu) {
 		super(cu, null);
 	}
 
 	public void addRole(long guildId, long roleId, CmdAccessLevel level) throws SQLException {
-		invalidateRoleCache(guildId);
-		execute("INSERT INTO %s(guildId, roleId, level) VALUES (%s, %s, %d)".formatted(table_role, guildId, roleId, level.getLevel()));
+		execute("INSERT INTO %s(guildId, roleId, level) VALUES (?, ?, ?)".formatted(table_role), guildId, roleId, level.getLevel());
+		roleCache.update(guildId, Map.of(), roles -> {
+			Map<Long, CmdAccessLevel> updated = new HashMap<>(roles);
+			updated.put(roleId, level);
+			return updated;
+		});
 	}
 
 	public void addOperator(long guildId, long userId) throws SQLException {
-		invalidateOperatorCache(guildId);
-		execute("INSERT INTO %s(guildId, userId, level) VALUES (%s, %s, %d)".formatted(table_user, guildId, userId, CmdAccessLevel.OPERATOR.getLevel()));
+		execute("INSERT INTO %s(guildId, userId, level) VALUES (?, ?, ?)".formatted(table_user), guildId, userId, CmdAccessLevel.OPERATOR.getLevel());
+		operatorCache.update(guildId, List.of(), operators -> {
+			List<Long> updated = new ArrayList<>(operators);
+			updated.add(userId);
+			return updated;
+		});
 	}
 
 	public void removeRole(long guildId, long roleId) throws SQLException {
-		invalidateRoleCache(guildId);
-		execute("DELETE FROM %s WHERE (roleId=%s)".formatted(table_role, roleId));
+		execute("DELETE FROM %s WHERE (roleId=?)".formatted(table_role), roleId);
+		roleCache.update(guildId, Map.of(), roles -> {
+			Map<Long, CmdAccessLevel> updated = new HashMap<>(roles);
+			updated.remove(roleId);
+			return updated;
+		});
 	}
 	
 	public void removeUser(long guildId, long userId) throws SQLException {
-		invalidateOperatorCache(guildId);
-		execute("DELETE FROM %s WHERE (guildId=%s AND userId=%s)".formatted(table_user, guildId, userId));
+		execute("DELETE FROM %s WHERE (guildId=? AND userId=?)".formatted(table_user), guildId, userId);
+		operatorCache.update(guildId, List.of(), operators -> {
+			List<Long> updated = new ArrayList<>(operators);
+			updated.remove((Long) userId);
+			return updated;
+		});
 	}
 
 	public void removeAll(long guildId) throws SQLException {
-		invalidateRoleCache(guildId);
-		invalidateOperatorCache(guildId);
-		execute("DELETE FROM %1$s WHERE (guildId=%3$s); DELETE FROM %2$s WHERE (guildId=%3$s);".formatted(table_role, table_user, guildId));
+		// Driver executes only the first statement of a string
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table_role), guildId);
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table_user), guildId);
+		roleCache.put(guildId, Map.of());
+		operatorCache.put(guildId, List.of());
 	}
 
 	public CmdAccessLevel getRoleLevel(long roleId) {
-		Integer data = selectOne("SELECT level FROM %s WHERE (roleId=%s)".formatted(table_role, roleId), "level", Integer.class);
+		Integer data = selectOne("SELECT level FROM %s WHERE (roleId=?)".formatted(table_role), "level", Integer.class, roleId);
 		if (data == null) return CmdAccessLevel.ALL;
 		return CmdAccessLevel.byLevel(data);
 	}
 
 	public CmdAccessLevel getUserLevel(long guildId, long userId) {
-		Integer data = selectOne("SELECT level FROM %s WHERE (guildId=%s AND userId=%s)".formatted(table_user, guildId, userId), "level", Integer.class);
+		Integer data = selectOne("SELECT level FROM %s WHERE (guildId=? AND userId=?)".formatted(table_user), "level", Integer.class, guildId, userId);
 		if (data == null) return null;
 		return CmdAccessLevel.byLevel(data);
 	}
 
 	public Map<Long, CmdAccessLevel> getAllRoles(long guildId) {
-		if (roleCache.contains(guildId))
-			return roleCache.get(guildId);
-		Map<Long, CmdAccessLevel> data = applyNonNull(getRoleData(guildId), this::parseRoleData);
-		if (data==null || data.isEmpty())
-			data = Map.of();
-		roleCache.put(guildId, data);
-		return data;
+		return roleCache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (roleCache.isComplete()) return Map.of();
+			Map<Long, CmdAccessLevel> data = applyNonNull(getRoleData(id), this::parseRoleData);
+			if (data==null || data.isEmpty())
+				data = Map.of();
+			return data;
+		});
 	}
 
 	public List<Long> getRoles(long guildId, CmdAccessLevel level) {
-		return select("SELECT roleId FROM %s WHERE (guildId=%s AND level=%d)".formatted(table_role, guildId, level.getLevel()), "roleId", Long.class);
+		return select("SELECT roleId FROM %s WHERE (guildId=? AND level=?)".formatted(table_role), "roleId", Long.class, guildId, level.getLevel());
 	}
 
 	public List<Long> getOperators(long guildId) {
-		if (operatorCache.contains(guildId))
-			return operatorCache.get(guildId);
-		List<Long> data = getOperatorsData(guildId);
-		if (data.isEmpty())
-			data = List.of();
-		operatorCache.put(guildId, data);
-		return data;
+		return operatorCache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (operatorCache.isComplete()) return List.of();
+			List<Long> data = getOperatorsData(id);
+			if (data.isEmpty())
+				data = List.of();
+			return data;
+		});
 	}
 
 	public boolean isRole(long roleId) {
-		return selectOne("SELECT roleId FROM %s WHERE (roleId=%s)".formatted(table_role, roleId), "roleId", Long.class) != null;
+		return selectOne("SELECT roleId FROM %s WHERE (roleId=?)".formatted(table_role), "roleId", Long.class, roleId) != null;
 	}
 
 	public boolean isOperator(long guildId, long userId) {
 		return getOperators(guildId).contains(userId);
 	}
 
-	private List<Map<String, Object>> getRoleData(long guildId) {
-		return select("SELECT * FROM %s WHERE (guildId=%d)".formatted(table_role, guildId), Set.of("roleId", "level"));
-	}
-
-	private List<Long> getOperatorsData(long guildId) {
-		return select("SELECT userId FROM %s WHERE (guildId=%d and level=%d)"
-			.formatted(table_user, guildId, CmdAccessLevel.OPERATOR.getLevel()), "userId", Long.class);
+	/**
+	 * Caches access roles and operators of all guilds, one query for each.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> roles = selectByGuild("SELECT * FROM %s".formatted(table_role), Set.of("roleId", "level"));
+		Map<Long, Map<Long, CmdAccessLevel>> roleData = new HashMap<>(roles.size());
+		roles.forEach((guildId, rows) -> roleData.put(guildId, parseRoleData(rows)));
+		roleCache.preload(roleData);
+		Map<Long, List<Map<String, Object>>> operators = selectByGuild("SELECT * FROM %s WHERE (level=?)".formatted(table_user), Set.of("userId"), CmdAccessLevel.OPERATOR.getLevel());
+		Map<Long, List<Long>> operatorData = new HashMap<>(operators.size());
+		operators.forEach((guildId, rows) -> operatorData.put(guildId, rows.stream().map(row -> CastUtil.castLong(row.get("userId"))).toList()));
+		operatorCache.preload(operatorData);
+		return roles.size();
 	}
 
-	private void invalidateRoleCache(long guildId) {
-		roleCache.pull(guildId);
+	private List<Map<String, Object>> getRoleData(long guildId) {
+		return select("SELECT * FROM %s WHERE (guildId=?)".formatted(table_role), Set.of("roleId", "level"), guildId);
 	}
 
-	private void invalidateOperatorCache(long guildId) {
-		operatorCache.pull(guildId);
+	private List<Long> getOperatorsData(long guildId) {
+		return select("SELECT userId FROM %s WHERE (guildId=? and level=?)".formatted(table_user), "userId", Long.class, guildId, CmdAccessLevel.OPERATOR.getLevel());
 	}
 
 	public Map<Long, CmdAccessLevel> parseRoleData(List<Map<String, Object>> data) {
@@ -19,31 +19,31 @@ public class AutopunishManager extends LiteDBBase {
 	}
 
 	public void addAction(long guildId, int atStrikeCount, List<PunishActions> actions, @Nullable String data) throws SQLException {
-		execute("INSERT INTO %s(guildId, strike, actions, data) VALUES (%d, %d, %d, %s)".formatted(table, guildId, atStrikeCount, PunishActions.encodeActions(actions), quote(data)));
+		execute("INSERT INTO %s(guildId, strike, actions, data) VALUES (?, ?, ?, ?)".formatted(table), guildId, atStrikeCount, PunishActions.encodeActions(actions), data);
 	}
 
 	public void removeAction(long guildId, int atStrikeCount) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%d AND strike=%d)".formatted(table, guildId, atStrikeCount));
+		execute("DELETE FROM %s WHERE (guildId=? AND strike=?)".formatted(table), guildId, atStrikeCount);
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
 	}
 
 	public Pair<Integer, String> getAction(long guildId, int atStrikeCount) {
-		Map<String, Object> data = selectOne("SELECT actions, data FROM %s WHERE (guildId=%d AND strike=%d) ORDER BY strike DESC".formatted(table, guildId, atStrikeCount), Set.of("actions", "data"));
+		Map<String, Object> data = selectOne("SELECT actions, data FROM %s WHERE (guildId=? AND strike=?) ORDER BY strike DESC".formatted(table), Set.of("actions", "data"), guildId, atStrikeCount);
 		if (data == null) return null;
 		return Pair.of((Integer) data.get("actions"), (String) data.getOrDefault("data", ""));
 	}
 
 	public Pair<Integer, String> getTopAction(long guildId, int minStrikeCount) {
-		Map<String, Object> data = selectOne("SELECT actions, data FROM %s WHERE (guildId=%d AND strike<=%d) ORDER BY strike DESC".formatted(table, guildId, minStrikeCount), Set.of("actions", "data"));
+		Map<String, Object> data = selectOne("SELECT actions, data FROM %s WHERE (guildId=? AND strike<=?) ORDER BY strike DESC".formatted(table), Set.of("actions", "data"), guildId, minStrikeCount);
 		if (data == null) return null;
 		return Pair.of((Integer) data.get("actions"), (String) data.getOrDefault("data", ""));
 	}
 
 	public List<Autopunish> getAllActions(long guildId) {
-		return select("SELECT * FROM %s WHERE (guildId=%d)".formatted(table, guildId), Set.of("strike", "actions", "data"))
+		return select("SELECT * FROM %s WHERE (guildId=?)".formatted(table), Set.of("strike", "actions", "data"), guildId)
 			.stream()
 			.map(Autopunish::new)
 			.toList();
@@ -2,18 +2,64 @@ package union.utils.database.managers;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import union.utils.CastUtil;
+import union.utils.SteamUtil;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
+import union.utils.database.PooledConnection;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
 
 public class BanlistManager extends LiteDBBase {
 
+	public static final Set<String> TABLES = Set.of("alium", "mz", "octo", "custom");
+
+	private static final int IMPORT_BATCH_SIZE = 5_000;
+	public static final int IMPORT_PROGRESS_INTERVAL = 25_000;
+
+	// Sorted copies of tables, replaced as a whole after import
+	private final ConcurrentHashMap<String, TableIndex> indexes = new ConcurrentHashMap<>();
+
 	public BanlistManager(ConnectionUtil cu) {
 		super(cu, null);
 	}
 
+	/**
+	 * Loads all tables into memory, searches do not query database afterwards.
+	 * Tables, that failed to load, are searched in database.
+	 * @return number of loaded entries
+	 */
+	public int preload() {
+		int count = 0;
+		for (String table : TABLES) {
+			reloadIndex(table);
+			TableIndex index = indexes.get(table);
+			if (index != null) count += index.ids.length;
+		}
+		return count;
+	}
+
+	private void reloadIndex(String table) {
+		try {
+			indexes.put(table, loadIndex(table));
+		} catch (SQLException ex) {
+			// Searched in database until next reload
+			indexes.remove(table);
+		}
+	}
+
 	// Plain SteamID, unique
 	public void add(String table, long steam64) throws SQLException {
 		execute("INSERT OR IGNORE INTO %s(steam64) VALUES (%d);"
@@ -37,6 +83,89 @@ public class BanlistManager extends LiteDBBase {
 		execute("DELETE FROM %s;".formatted(table));
 	}
 
+	/**
+	 * Inserts entries in batches inside single transaction, duplicates are ignored.
+	 * <p>If replace is true, entries are written to a new table, that replaces existing one
+	 * in the same transaction, so readers see either old or fully imported list.
+	 * @param table one of {@link #TABLES}
+	 * @param entries entries to import, read one at a time
+	 * @param replace purge existing entries
+	 * @param progress called with number of read entries every {@link #IMPORT_PROGRESS_INTERVAL}
+	 * @return result with number of read and added entries
+	 * @throws SQLException Rethrows error, nothing is imported
+	 */
+	public ImportResult bulkImport(String table, Iterator<BanlistEntry> entries, boolean replace, @Nullable IntConsumer progress) throws SQLException {
+		if (!TABLES.contains(table))
+			throw new IllegalArgumentException("Unknown banlist table: "+table);
+		final boolean octo = table.equals("octo");
+		final boolean withReason = octo || table.equals("custom");
+		final String target = replace ? table+"_import" : table;
+		final String sql = octo
+			? "INSERT OR IGNORE INTO %s(steam64, reason, details, command) VALUES (?, ?, ?, ?)".formatted(target)
+			: (withReason
+				? "INSERT OR IGNORE INTO %s(steam64, reason) VALUES (?, ?)".formatted(target)
+				: "INSERT OR IGNORE INTO %s(steam64) VALUES (?)".formatted(target));
+
+		int read = 0, added = 0;
+		try (PooledConnection conn = getWriteConnection()) {
+			conn.get().setAutoCommit(false);
+			if (replace) {
+				// New table with the same schema
+				String schema = selectSchema(conn, table);
+				try (Statement st = conn.get().createStatement()) {
+					st.executeUpdate("DROP TABLE IF EXISTS %s".formatted(target));
+					st.executeUpdate(schema.replaceFirst("\"?%s\"?".formatted(table), "\"%s\"".formatted(target)));
+				}
+			}
+
+			// Not cached, batch of a failed import must not stay on the statement
+			try (PreparedStatement st = conn.get().prepareStatement(sql)) {
+				int batched = 0;
+				while (entries.hasNext()) {
+					BanlistEntry entry = entries.next();
+					if (octo) bind(st, entry.steam64(), entry.reason(), entry.details(), entry.command());
+					else if (withReason) bind(st, entry.steam64(), entry.reason());
+					else bind(st, entry.steam64());
+					st.addBatch();
+					read++;
+					if (++batched == IMPORT_BATCH_SIZE) {
+						added += sumUpdated(st.executeBatch());
+						batched = 0;
+					}
+					if (progress != null && read % IMPORT_PROGRESS_INTERVAL == 0) progress.accept(read);
+				}
+				if (batched > 0) added += sumUpdated(st.executeBatch());
+			}
+
+			if (replace) {
+				try (Statement ddl = conn.get().createStatement()) {
+					ddl.executeUpdate("DROP TABLE %s".formatted(table));
+					ddl.executeUpdate("ALTER TABLE %s RENAME TO %s".formatted(target, table));
+				}
+			}
+			conn.get().commit();
+		}
+		reloadIndex(table);
+		return new ImportResult(read, added);
+	}
+
+	private static String selectSchema(PooledConnection conn, String table) throws SQLException {
+		PreparedStatement st = conn.prepare("SELECT sql FROM sqlite_master WHERE (type='table' AND name=?)");
+		st.setString(1, table);
+		try (var rs = st.executeQuery()) {
+			if (!rs.next()) throw new SQLException("Table not found: "+table);
+			return rs.getString(1);
+		}
+	}
+
+	private static int sumUpdated(int[] counts) {
+		int sum = 0;
+		for (int count : counts) {
+			if (count > 0) sum += count;
+		}
+		return sum;
+	}
+
 	public BanlistData search(long steam64) {
 		BanlistData data = new BanlistData();
 
@@ -53,6 +182,9 @@ public class BanlistManager extends LiteDBBase {
 	}
 
 	private List<Map<String, String>> contains(String table, long steam64, boolean octo) {
+		TableIndex index = indexes.get(table);
+		if (index != null) return index.find(steam64, octo);
+
 		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (steam64=%d)".formatted(table, steam64),
 			octo?Set.of("reason","details","command"):Set.of("reason")
 		);
@@ -72,9 +204,181 @@ public class BanlistManager extends LiteDBBase {
 	}
 
 	private boolean contains(String table, long steam64) {
+		TableIndex index = indexes.get(table);
+		if (index != null) return index.contains(steam64);
+
 		return exists("SELECT * FROM %s WHERE (steam64=%d)".formatted(table, steam64));
 	}
 
+	private TableIndex loadIndex(String table) throws SQLException {
+		final boolean octo = table.equals("octo");
+		final boolean withReason = octo || table.equals("custom");
+		final String sql = "SELECT %s FROM %s ORDER BY steam64"
+			.formatted(octo ? "steam64, reason, details, command" : (withReason ? "steam64, reason" : "steam64"), table);
+
+		int size = 0;
+		long[] ids = new long[1024];
+		String[] reasons = withReason ? new String[1024] : null;
+		String[] details = octo ? new String[1024] : null;
+		String[] commands = octo ? new String[1024] : null;
+		try (PooledConnection conn = getReadConnection();
+			Statement st = conn.get().createStatement();
+			ResultSet rs = st.executeQuery(sql)) {
+			while (rs.next()) {
+				if (size == ids.length) {
+					int capacity = size * 2;
+					ids = Arrays.copyOf(ids, capacity);
+					if (withReason) reasons = Arrays.copyOf(reasons, capacity);
+					if (octo) {
+						details = Arrays.copyOf(details, capacity);
+						commands = Arrays.copyOf(commands, capacity);
+					}
+				}
+				ids[size] = rs.getLong(1);
+				if (withReason) reasons[size] = rs.getString(2);
+				if (octo) {
+					details[size] = rs.getString(3);
+					commands[size] = rs.getString(4);
+				}
+				size++;
+			}
+		}
+		return new TableIndex(
+			Arrays.copyOf(ids, size),
+			withReason ? Arrays.copyOf(reasons, size) : null,
+			octo ? Arrays.copyOf(details, size) : null,
+			octo ? Arrays.copyOf(commands, size) : null
+		);
+	}
+
+	/**
+	 * Steam64 IDs sorted ascending, repeated IDs are adjacent.
+	 * Optional columns are stored in parallel arrays.
+	 */
+	private static class TableIndex {
+		private final long[] ids;
+		private final String[] reasons, details, commands;
+
+		TableIndex(long[] ids, @Nullable String[] reasons, @Nullable String[] details, @Nullable String[] commands) {
+			this.ids = ids;
+			this.reasons = reasons;
+			this.details = details;
+			this.commands = commands;
+		}
+
+		boolean contains(long steam64) {
+			return Arrays.binarySearch(ids, steam64) >= 0;
+		}
+
+		@Nullable
+		List<Map<String, String>> find(long steam64, boolean octo) {
+			int i = Arrays.binarySearch(ids, steam64);
+			if (i < 0) return null;
+			// Move to first of repeated IDs
+			while (i > 0 && ids[i-1] == steam64) i--;
+
+			List<Map<String, String>> result = new ArrayList<>();
+			for (; i < ids.length && ids[i] == steam64; i++) {
+				if (octo) result.add(Map.of(
+					"reason", String.valueOf(reasons[i]),
+					"details", String.valueOf(details[i]),
+					"command", String.valueOf(commands[i])
+				));
+				else result.add(Map.of("reason", String.valueOf(reasons[i])));
+			}
+			return result;
+		}
+	}
+
+	public record BanlistEntry(long steam64, @Nullable String reason, @Nullable String details, @Nullable String command) {}
+
+	public record ImportResult(int read, int added) {}
+
+	/**
+	 * Reads entries from text, one Steam64 or SteamID per line.
+	 * Blank and malformed lines are skipped.
+	 */
+	public static Iterator<BanlistEntry> readLines(BufferedReader reader) {
+		return new Iterator<>() {
+			private BanlistEntry next;
+
+			@Override
+			public boolean hasNext() {
+				if (next != null) return true;
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						line = line.trim();
+						if (line.isEmpty()) continue;
+						try {
+							long steam64 = line.startsWith("STEAM_") ? SteamUtil.convertSteamIDtoSteam64(line) : Long.parseLong(line);
+							next = new BanlistEntry(steam64, null, null, null);
+							return true;
+						} catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {}
+					}
+					return false;
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+
+			@Override
+			public BanlistEntry next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				BanlistEntry entry = next;
+				next = null;
+				return entry;
+			}
+		};
+	}
+
+	/**
+	 * Reads entries from JSON array of objects, one object at a time.
+	 * Objects are either Octo format (steamID, reason, details, command) or custom (steam64, reason).
+	 * Objects without ID are skipped.
+	 */
+	public static Iterator<BanlistEntry> readJsonArray(Reader reader) {
+		final JSONTokener tokener = new JSONTokener(reader);
+		return new Iterator<>() {
+			private BanlistEntry next;
+			private boolean started = false, ended = false;
+
+			@Override
+			public boolean hasNext() {
+				if (!started) {
+					started = true;
+					if (tokener.nextClean() != '[') throw tokener.syntaxError("Expected JSON array");
+				}
+				while (next == null && !ended) {
+					char c = tokener.nextClean();
+					if (c == ']') {
+						ended = true;
+						break;
+					}
+					if (c == 0) throw tokener.syntaxError("Expected ']'");
+					if (c != ',') tokener.back();
+					if (!(tokener.nextValue() instanceof JSONObject object)) continue;
+					Object id = object.has("steamID") ? object.opt("steamID") : object.opt("steam64");
+					try {
+						Long steam64 = CastUtil.castLong(id);
+						if (steam64 == null) continue;
+						next = new BanlistEntry(steam64, object.optString("reason", null),
+							object.optString("details", null), object.optString("command", null));
+					} catch (NumberFormatException ignored) {}
+				}
+				return next != null;
+			}
+
+			@Override
+			public BanlistEntry next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				BanlistEntry entry = next;
+				next = null;
+				return entry;
+			}
+		};
+	}
+
 	public static class BanlistData {
 		private boolean alium, mz = false;
 		private int octo, custom = 0;
@@ -4,6 +4,7 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -14,69 +15,123 @@ import static union.utils.CastUtil.castLong;
 import static union.utils.CastUtil.getOrDefault;
 
 public class BlacklistManager extends LiteDBBase {
+
+	// groupId - blacklisted user IDs and steam64, loaded once and updated on writes
+	private final Map<Integer, Set<Long>> groupUsers = new ConcurrentHashMap<>();
+	private final Map<Integer, Set<Long>> groupSteam64 = new ConcurrentHashMap<>();
 	
 	public BlacklistManager(ConnectionUtil cu) {
 		super(cu, "blacklist");
 	}
 
-	public void add(long guildId, int groupId, long userId, @Nullable Long steam64, @Nullable String reason, long modId) {
+	/**
+	 * Loads blacklisted users and steam64 of all groups.
+	 * @return number of loaded entries
+	 */
+	public int preload() {
+		List<Map<String, Object>> rows = select("SELECT groupId, userId, steam64 FROM %s".formatted(table), Set.of("groupId", "userId", "steam64"));
+		synchronized (this) {
+			groupUsers.clear();
+			groupSteam64.clear();
+			rows.forEach(row -> {
+				Integer groupId = getOrDefault(row.get("groupId"), null);
+				if (groupId != null) putEntry(groupId, castLong(row.get("userId")), castLong(row.get("steam64")));
+			});
+		}
+		return rows.size();
+	}
+
+	// Reloads group after removal, single row can be matched by both user ID and steam64
+	private void reloadGroup(int groupId) {
+		List<Map<String, Object>> rows = select("SELECT userId, steam64 FROM %s WHERE (groupId=?)".formatted(table), Set.of("userId", "steam64"), groupId);
+		Set<Long> users = ConcurrentHashMap.newKeySet();
+		Set<Long> steamIds = ConcurrentHashMap.newKeySet();
+		rows.forEach(row -> {
+			Long userId = castLong(row.get("userId"));
+			Long steam64 = castLong(row.get("steam64"));
+			if (userId != null && userId != -1) users.add(userId);
+			if (steam64 != null) steamIds.add(steam64);
+		});
+		// Replace whole sets, so concurrent checks never see empty group
+		groupUsers.put(groupId, users);
+		groupSteam64.put(groupId, steamIds);
+	}
+
+	private void putEntry(int groupId, Long userId, Long steam64) {
+		// -1 is placeholder for entries added only by steam64
+		if (userId != null && userId != -1)
+			groupUsers.computeIfAbsent(groupId, k -> ConcurrentHashMap.newKeySet()).add(userId);
+		if (steam64 != null)
+			groupSteam64.computeIfAbsent(groupId, k -> ConcurrentHashMap.newKeySet()).add(steam64);
+	}
+
+	public synchronized void add(long guildId, int groupId, long userId, @Nullable Long steam64, @Nullable String reason, long modId) {
 		try {
-			execute("INSERT INTO %s(guildId, groupId, userId, steam64, reason, modId) VALUES (%d, %d, %d, %d, %s, %s)"
-				.formatted(table, guildId, groupId, userId, steam64, quote(reason), modId));
+			execute("INSERT INTO %s(guildId, groupId, userId, steam64, reason, modId) VALUES (?, ?, ?, ?, ?, ?)".formatted(table),
+				guildId, groupId, userId, steam64, reason, modId);
+			putEntry(groupId, userId, steam64);
 		} catch (SQLException ignored) {}
 	}
 
-	public void addSteam(long guildId, int groupId, @NotNull Long steam64, long modId)  throws SQLException{
-		execute("INSERT INTO %s(guildId, groupId, userId, steam64, modId) VALUES (%d, %d, -1, %d, %s)"
-			.formatted(table, guildId, groupId, steam64, modId));
+	public synchronized void addSteam(long guildId, int groupId, @NotNull Long steam64, long modId)  throws SQLException{
+		execute("INSERT INTO %s(guildId, groupId, userId, steam64, modId) VALUES (?, ?, -1, ?, ?)".formatted(table),
+			guildId, groupId, steam64, modId);
+		putEntry(groupId, null, steam64);
 	}
 
 	public boolean inGroupUser(int groupId, long userId) {
-		return selectOne("SELECT userId FROM %s WHERE (groupId=%d AND userId=%d)".formatted(table, groupId, userId), "userId", Long.class) != null;
+		return groupUsers.getOrDefault(groupId, Set.of()).contains(userId);
 	}
 
 	public boolean inGroupSteam64(int groupId, long steam64) {
-		return selectOne("SELECT steam64 FROM %s WHERE (groupId=%d AND steam64=%d)".formatted(table, groupId, steam64), "steam64", Long.class) != null;
+		return groupSteam64.getOrDefault(groupId, Set.of()).contains(steam64);
 	}
 
-	public void removeUser(int groupId, long userId) throws SQLException {
-		execute("DELETE FROM %s WHERE (groupId=%d AND userId=%d)".formatted(table, groupId, userId));
+	public synchronized void removeUser(int groupId, long userId) throws SQLException {
+		execute("DELETE FROM %s WHERE (groupId=? AND userId=?)".formatted(table), groupId, userId);
+		reloadGroup(groupId);
 	}
 
-	public void removeSteam64(int groupId, long steam64) throws SQLException {
-		execute("DELETE FROM %s WHERE (groupId=%d AND steam64=%d)".formatted(table, groupId, steam64));
+	public synchronized void removeSteam64(int groupId, long steam64) throws SQLException {
+		execute("DELETE FROM %s WHERE (groupId=? AND steam64=?)".formatted(table), groupId, steam64);
+		reloadGroup(groupId);
 	}
 
 	public List<Map<String, Object>> getByPage(int groupId, int page) {
-		return select("SELECT * FROM %s WHERE (groupId=%d) ORDER BY userId DESC LIMIT 20 OFFSET %d".formatted(table, groupId, (page-1)*20), Set.of("guildId", "userId", "steam64", "reason", "modId"));
+		return select("SELECT * FROM %s WHERE (groupId=?) ORDER BY userId DESC LIMIT 20 OFFSET ?".formatted(table), Set.of("guildId", "userId", "steam64", "reason", "modId"),
+			groupId, (page-1)*20);
 	}
 
 	public BlacklistData getByUserId(int groupId, long userId) {
-		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (groupId=%d AND userId=%d) ".formatted(table, groupId, userId), Set.of("guildId", "userId", "steam64", "reason", "modId"));
+		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (groupId=? AND userId=?)".formatted(table), Set.of("guildId", "userId", "steam64", "reason", "modId"),
+			groupId, userId);
 		return (data==null || data.isEmpty()) ? null : new BlacklistData(data);
 	}
 
 	public BlacklistData getBySteam64(int groupId, long steam64) {
-		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (groupId=%d AND steam64=%d) ".formatted(table, groupId, steam64), Set.of("guildId", "userId", "steam64", "reason", "modId"));
+		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (groupId=? AND steam64=?)".formatted(table), Set.of("guildId", "userId", "steam64", "reason", "modId"),
+			groupId, steam64);
 		return (data==null || data.isEmpty()) ? null : new BlacklistData(data);
 	}
 
 	public List<BlacklistData> searchUserId(long userId) {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (userId=%d) ".formatted(table, userId), Set.of("guildId", "groupId", "userId", "steam64", "reason", "modId"));
+		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (userId=?)".formatted(table), Set.of("guildId", "groupId", "userId", "steam64", "reason", "modId"),
+			userId);
 		return (data.isEmpty()) ? List.of() : data.stream()
 			.map(BlacklistData::new)
 			.toList();
 	}
 
 	public List<BlacklistData> searchSteam64(long steam64) {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (steam64=%d) ".formatted(table, steam64), Set.of("guildId", "groupId", "userId", "steam64", "reason", "modId"));
+		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (steam64=?)".formatted(table), Set.of("guildId", "groupId", "userId", "steam64", "reason", "modId"),
+			steam64);
 		return (data.isEmpty()) ? List.of() : data.stream()
 			.map(BlacklistData::new)
 			.toList();
 	}
 
 	public Integer countEntries(int groupId) {
-		return count("SELECT COUNT(*) FROM %s WHERE (groupId=%d)".formatted(table, groupId));
+		return count("SELECT COUNT(*) FROM %s WHERE (groupId=?)".formatted(table), groupId);
 	}
 
 	public class BlacklistData {
@@ -6,17 +6,19 @@ import static union.utils.CastUtil.requireNonNull;
 import java.sql.*;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 import ch.qos.logback.classic.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.LoggerFactory;
 import union.objects.CaseType;
+import union.utils.CastUtil;
+import union.services.ExpirationScheduler;
+import union.services.ExpirationScheduler.Expiration;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
+import union.utils.database.PooledConnection;
 
 public class CaseManager extends LiteDBBase {
 	protected final Logger log = (Logger) LoggerFactory.getLogger(CaseManager.class);
@@ -25,36 +27,46 @@ public class CaseManager extends LiteDBBase {
 		"targetTag", "modId", "modTag", "guildId", "reason",
 		"timeStart", "duration", "active", "logUrl");
 	
-	public CaseManager(ConnectionUtil cu) {
+	private final ExpirationScheduler expirations;
+
+	public CaseManager(ConnectionUtil cu, ExpirationScheduler expirations) {
 		super(cu, "cases");
+		this.expirations = expirations;
 	}
 
 	// add new case
 	public CaseData add(CaseType type, long userId, String userName, long modId, String modName, long guildId, String reason, Instant timeStart, Duration duration) throws SQLException {
 		final String sql = """
 			INSERT INTO %s (type, targetId, targetTag, modId, modTag, guildId, reason, timeStart, duration, active, localId)
-			VALUES (%d, %d, %s, %d, %s, %d, %s, %d, %d, %d, COALESCE((SELECT MAX(localId) + 1 FROM cases WHERE guildId=%d), 1))
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE((SELECT MAX(localId) + 1 FROM cases WHERE guildId=?), 1))
 			RETURNING rowId, localId;
-			""".formatted(table, type.getType(), userId, quote(userName), modId, quote(modName), guildId, quote(reason),
-			timeStart.getEpochSecond(), duration == null ? -1 : duration.getSeconds(), type.isActiveInt(), guildId);
+			""".formatted(table);
 
 		final int rowId, localId;
 		//noinspection SqlSourceToSinkFlow
-		try (
-			Connection conn = DriverManager.getConnection(getUrl());
-			ResultSet rs = conn.prepareStatement(sql).executeQuery()
-		) {
-			if (rs.next()) {
-				rowId = rs.getInt("rowId");
-				localId = rs.getInt("localId");
-			} else {
-				throw new SQLException("Failed to create new case.");
+		try (PooledConnection conn = getWriteConnection()) {
+			// Case and moderator statistics are written together
+			conn.get().setAutoCommit(false);
+			PreparedStatement st = conn.prepare(sql);
+			bind(st, type.getType(), userId, userName, modId, modName, guildId, reason,
+				timeStart.getEpochSecond(), duration == null ? -1 : duration.getSeconds(), type.isActiveInt(), guildId);
+			try (ResultSet rs = st.executeQuery()) {
+				if (rs.next()) {
+					rowId = rs.getInt("rowId");
+					localId = rs.getInt("localId");
+				} else {
+					throw new SQLException("Failed to create new case.");
+				}
 			}
+			PreparedStatement stats = conn.prepare(ModStatsManager.INCREMENT);
+			bind(stats, guildId, modId, ModStatsManager.day(timeStart.getEpochSecond()), type.getType());
+			stats.executeUpdate();
+			conn.get().commit();
 		} catch (SQLException ex) {
 			log.warn("DB SQLite: Error at case creation\nRequest: {}", sql, ex);
 			throw ex;
 		}
-		return new CaseData(
+		CaseData caseData = new CaseData(
 			rowId, localId,
 			type, guildId,
 			userId, userName,
@@ -63,117 +75,110 @@ public class CaseManager extends LiteDBBase {
 			timeStart, duration,
 			type.isActive(), null
 		);
+		scheduleExpiration(caseData);
+		return caseData;
 	}
 
 	// update case reason
 	public void updateReason(int rowId, String reason) throws SQLException {
-		execute("UPDATE %s SET reason=%s WHERE (rowId=%d)".formatted(table, quote(reason), rowId));
+		execute("UPDATE %s SET reason=? WHERE (rowId=?)".formatted(table), reason, rowId);
 	}
 
 	// update case duration
 	public void updateDuration(int rowId, Duration duration) throws SQLException {
-		execute("UPDATE %s SET duration=%d WHERE (rowId=%d)".formatted(table, duration.getSeconds(), rowId));
+		execute("UPDATE %s SET duration=? WHERE (rowId=?)".formatted(table), duration.getSeconds(), rowId);
+		CaseData caseData = getInfo(rowId);
+		if (caseData != null) scheduleExpiration(caseData);
 	}
 
 	// set case inactive
 	public void setInactive(int rowId) throws SQLException {
-		execute("UPDATE %s SET active=0 WHERE (rowId=%d)".formatted(table, rowId));
+		execute("UPDATE %s SET active=0 WHERE (rowId=?)".formatted(table), rowId);
+	}
+
+	// set case inactive, does not wait for the database
+	public CompletableFuture<Void> setInactiveAsync(int rowId) {
+		return executeAsync("UPDATE %s SET active=0 WHERE (rowId=?)".formatted(table), rowId);
 	}
 
 	public void setLogUrl(int rowId, String logUrl) {
 		if (logUrl==null) return;
 		try {
-			execute("UPDATE %s SET logUrl=%s WHERE (rowId=%d)".formatted(table, quote(logUrl), rowId));
+			execute("UPDATE %s SET logUrl=? WHERE (rowId=?)".formatted(table), logUrl, rowId);
 		} catch (SQLException ignored) {}
 	}
 
 	// get case info
 	public CaseData getInfo(int rowId) {
-		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (rowId=%d)".formatted(table, rowId), fullCaseKeys);
+		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (rowId=?)".formatted(table), fullCaseKeys, rowId);
 		if (data == null) return null;
 		return new CaseData(data);
 	}
 
 	// get case info
 	public CaseData getInfo(long guildId, int localId) {
-		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (guildId=%d AND localId=%d)".formatted(table, guildId, localId), fullCaseKeys);
+		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (guildId=? AND localId=?)".formatted(table), fullCaseKeys, guildId, localId);
 		if (data == null) return null;
 		return new CaseData(data);
 	}
 
 	// get 10 cases for guild's user sorted in pages
 	public List<CaseData> getGuildUser(long guildId, long userId, int page) {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=%d AND targetId=%d) ORDER BY rowId DESC LIMIT 10 OFFSET %d"
-				.formatted(table, guildId, userId, (page-1)*10), fullCaseKeys);
+		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=? AND targetId=?) ORDER BY rowId DESC LIMIT 10 OFFSET ?".formatted(table),
+			fullCaseKeys, guildId, userId, (page-1)*10);
 		if (data.isEmpty()) return Collections.emptyList();
 		return data.stream().map(CaseData::new).toList();
 	}
 
 	// get 10 cases for guild's user sorted in pages, active or inactive only
 	public List<CaseData> getGuildUser(long guildId, long userId, int page, boolean active) {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=%d AND targetId=%d AND active=%d) ORDER BY rowId DESC LIMIT 10 OFFSET %d"
-			.formatted(table, guildId, userId, active?1:0, (page-1)*10), fullCaseKeys);
+		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=? AND targetId=? AND active=?) ORDER BY rowId DESC LIMIT 10 OFFSET ?".formatted(table),
+			fullCaseKeys, guildId, userId, active, (page-1)*10);
 		if (data.isEmpty()) return Collections.emptyList();
 		return data.stream().map(CaseData::new).toList();
 	}
 
 	// get user active temporary cases data
 	public CaseData getMemberActive(long userId, long guildId, CaseType type) {
-		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (guildId=%d AND targetId=%d AND type=%d AND active=1)"
-			.formatted(table, guildId, userId, type.getType()), fullCaseKeys);
+		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (guildId=? AND targetId=? AND type=? AND active=1)".formatted(table),
+			fullCaseKeys, guildId, userId, type.getType());
 		if (data == null) return null;
 		return new CaseData(data);
 	}
 
 	// set all ban cases for user inactive
 	public void setInactiveStrikeCases(long userId, long guildId) throws SQLException {
-		execute("UPDATE %s SET active=0 WHERE (targetId=%d AND guildId=%d AND type>20)".formatted(table, userId, guildId));
+		execute("UPDATE %s SET active=0 WHERE (targetId=? AND guildId=? AND type>20)".formatted(table), userId, guildId);
 	}
 
 	// set all strike cases for user inactive
 	// Better way for this is harder...
 	public void setInactiveByType(long userId, long guildId, CaseType type) {
 		try {
-			execute("UPDATE %s SET active=0 WHERE (targetId=%d AND guildId=%d AND type=%d)".formatted(table, userId, guildId, type.getType()));
+			execute("UPDATE %s SET active=0 WHERE (targetId=? AND guildId=? AND type=?)".formatted(table), userId, guildId, type.getType());
 		} catch (SQLException ignored) {}
 	}
 
 	// get case pages
 	public int countCases(long guildId, long userId) {
-		return count("SELECT COUNT(*) FROM %s WHERE (guildId=%d AND targetId=%d)".formatted(table, guildId, userId));
-	}
-
-	// count cases by moderator after certain date
-	public Map<Integer, Integer> countCasesByMod(long guildId, long modId, Instant afterTime) {
-		List<Map<String, Object>> data = select("SELECT type, COUNT(*) AS cc FROM %s WHERE (guildId=%d AND modId=%d AND timeStart>%d) GROUP BY type"
-			.formatted(table, guildId, modId, afterTime.getEpochSecond()), Set.of("type", "cc"));
-		if (data.isEmpty()) return Collections.emptyMap();
-		return data.stream().collect(Collectors.toMap(s -> (Integer) s.get("type"), s -> (Integer) s.get("cc")));
+		return count("SELECT COUNT(*) FROM %s WHERE (guildId=? AND targetId=?)".formatted(table), guildId, userId);
 	}
 
-	// count all cases by moderator
-	public Map<Integer, Integer> countCasesByMod(long guildId, long modId) {
-		List<Map<String, Object>> data = select("SELECT type, COUNT(*) AS cc FROM %s WHERE (guildId=%d AND modId=%d) GROUP BY type"
-			.formatted(table, guildId, modId), Set.of("type", "cc"));
-		if (data.isEmpty()) return Collections.emptyMap();
-		return data.stream().collect(Collectors.toMap(s -> (Integer) s.get("type"), s -> (Integer) s.get("cc")));
-	}
-
-	// count all cases by moderator after and before certain dates
-	public Map<Integer, Integer> countCasesByMod(long guildId, long modId, LocalDateTime afterTime, LocalDateTime beforeTime) {
-		List<Map<String, Object>> data = select("SELECT type, COUNT(*) AS cc FROM %s WHERE (guildId=%d AND modId=%d AND timeStart>%d AND timeStart<%d) GROUP BY type"
-			.formatted(table, guildId, modId, afterTime.toEpochSecond(ZoneOffset.UTC), beforeTime.toEpochSecond(ZoneOffset.UTC)), Set.of("type", "cc"));
-		if (data.isEmpty()) return Collections.emptyMap();
-		return data.stream().collect(Collectors.toMap(s -> (Integer) s.get("type"), s -> (Integer) s.get("cc")));
-	}
 
 	//  BANS
-	// get all active expired bans
-	public List<CaseData> getExpired() {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (active=1 AND type<20 AND duration>0 AND timeStart+duration<%d) ORDER BY rowId DESC LIMIT 10"
-			.formatted(table, Instant.now().getEpochSecond()), fullCaseKeys);
+	// get active temporary cases, that expire before given time
+	public List<Expiration> getPendingExpirations(long until) {
+		List<Map<String, Object>> data = select("SELECT rowId, timeStart+duration AS timeEnd FROM %s WHERE (active=1 AND type<20 AND duration>0 AND timeStart+duration<?)".formatted(table),
+			Set.of("rowId", "timeEnd"), until);
 		if (data.isEmpty()) return Collections.emptyList();
-		return data.stream().map(CaseData::new).toList();
+		return data.stream()
+			.map(m -> new Expiration(ExpirationScheduler.Type.CASE, (Integer) m.get("rowId"), 0, CastUtil.castLong(m.get("timeEnd"))))
+			.toList();
+	}
+
+	private void scheduleExpiration(CaseData caseData) {
+		if (!caseData.isActive() || caseData.getCaseType().getType() >= 20 || caseData.getDuration().getSeconds() <= 0) return;
+		expirations.schedule(ExpirationScheduler.Type.CASE, caseData.getRowId(), 0, caseData.getTimeEnd().getEpochSecond());
 	}
 
 	public static class CaseData {
@@ -1,7 +1,6 @@
 package union.utils.database.managers;
 
-import union.objects.constants.Constants;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -12,46 +11,41 @@ import static union.utils.CastUtil.castLong;
 
 public class ConnectedRolesManager extends LiteDBBase {
 	// cache
-	private final FixedCache<Long, List<Long>> roleCache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE); /// guild - watched roles
+	private final SettingsCache<Long, List<Long>> roleCache = new SettingsCache<>("connectedRoles"); /// guild - watched roles
 
 	public ConnectedRolesManager(ConnectionUtil cu) {
 		super(cu, "connectedRoles");
 	}
 
 	public void addRole(long roleId, long guildId, long mainRoleId, long mainGuildId) throws SQLException {
-		execute("INSERT INTO %s(roleId, mainRoleId, guildId, mainGuildId) VALUES (%d, %d, %d, %d)"
-			.formatted(table, roleId, mainRoleId, guildId, mainGuildId));
+		execute("INSERT INTO %s(roleId, mainRoleId, guildId, mainGuildId) VALUES (?, ?, ?, ?)".formatted(table), roleId, mainRoleId, guildId, mainGuildId);
 		invalidateRoleCache(mainGuildId);
 	}
 
 	public void removeRole(long roleId) throws SQLException {
-		execute("DELETE FROM %s WHERE (roleId = %d OR mainRoleId = %<d)".formatted(table, roleId));
+		execute("DELETE FROM %s WHERE (roleId = ? OR mainRoleId = ?)".formatted(table), roleId, roleId);
 		roleCache.purge(); // sorry ;(
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId = %d OR mainGuildId = %<d)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId = ? OR mainGuildId = ?)".formatted(table), guildId, guildId);
 		invalidateRoleCache(guildId);
 	}
 
 	public List<Long> getWatchedRoles(long mainGuildId) {
-		if (roleCache.contains(mainGuildId))
-			return roleCache.get(mainGuildId);
-		List<Long> data = getWatchedRolesData(mainGuildId);
-		roleCache.put(mainGuildId, data);
-		return data;
+		return roleCache.get(mainGuildId, this::getWatchedRolesData);
 	}
 
 	public List<Long> getWatchedRolesData(long mainGuildId) {
-		return select("SELECT mainRoleId FROM %s WHERE (mainGuildId = %d)".formatted(table, mainGuildId), "mainRoleId", Long.class);
+		return select("SELECT mainRoleId FROM %s WHERE (mainGuildId = ?)".formatted(table), "mainRoleId", Long.class, mainGuildId);
 	}
 
 	public List<Long> getConnectedRoles(long mainRoleId) {
-		return select("SELECT roleId FROM %s WHERE (mainRoleId = %d)".formatted(table, mainRoleId), "roleId", Long.class);
+		return select("SELECT roleId FROM %s WHERE (mainRoleId = ?)".formatted(table), "roleId", Long.class, mainRoleId);
 	}
 
 	public Map<Long, List<Long>> getAllRoles(long mainGuildId) {
-		var data = select("SELECT roleId, mainRoleId FROM %s WHERE (mainGuildId = %d)".formatted(table, mainGuildId), Set.of("roleId", "mainRoleId"));
+		var data = select("SELECT roleId, mainRoleId FROM %s WHERE (mainGuildId = ?)".formatted(table), Set.of("roleId", "mainRoleId"), mainGuildId);
 		if (data.isEmpty()) return Map.of();
 		Map<Long, List<Long>> roles = new HashMap<>();
 		data.forEach(s -> {
@@ -62,7 +56,7 @@ public class ConnectedRolesManager extends LiteDBBase {
 	}
 
 	public boolean isConnected(long roleId, long mainRoleId) {
-		return selectOne("SELECT roleId FROM %s WHERE (roleId = %d OR mainRoleId = %d)".formatted(table, roleId, mainRoleId), "roleId", Long.class) != null;
+		return selectOne("SELECT roleId FROM %s WHERE (roleId = ? OR mainRoleId = ?)".formatted(table), "roleId", Long.class, roleId, mainRoleId) != null;
 	}
 
 	private void invalidateRoleCache(long mainGuildId) {
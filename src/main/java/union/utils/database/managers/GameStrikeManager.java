@@ -17,44 +17,46 @@ public class GameStrikeManager extends LiteDBBase {
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		execute("DELETE FROM gameChannels WHERE (guildId=%s); DELETE FROM gameStrikes WHERE (guildId=%<s)".formatted(guildId));
+		execute("DELETE FROM gameChannels WHERE (guildId=?)", guildId);
+		execute("DELETE FROM gameStrikes WHERE (guildId=?)", guildId);
 	}
 
 	public void removeChannel(long channelId) throws SQLException {
-		execute("DELETE FROM gameChannels WHERE (channelId=%s); DELETE FROM gameStrikes WHERE (channelId=%<s)".formatted(channelId));
+		execute("DELETE FROM gameChannels WHERE (channelId=?)", channelId);
+		execute("DELETE FROM gameStrikes WHERE (channelId=?)", channelId);
 	}
 
 	// Channels
 	public void addChannel(long guildId, long channelId, int maxStrike) throws SQLException {
-		execute("INSERT INTO %s(guildId, channelId, maxStrikes) VALUES (%s, %s, %s)".formatted(channels, guildId, channelId, maxStrike));
+		execute("INSERT INTO %s(guildId, channelId, maxStrikes) VALUES (?, ?, ?)".formatted(channels), guildId, channelId, maxStrike);
 	}
 
 	public Integer getMaxStrikes(long channelId) {
-		return selectOne("SELECT maxStrikes FROM %s WHERE (channelId=%s)".formatted(channels, channelId), "maxStrikes", Integer.class);
+		return selectOne("SELECT maxStrikes FROM %s WHERE (channelId=?)".formatted(channels), "maxStrikes", Integer.class, channelId);
 	}
 
 	public List<Long> getChannels(long guildId) {
-		return select("SELECT channelId FROM %s WHERE (guildId=%s)".formatted(channels, guildId), "channelId", Long.class);
+		return select("SELECT channelId FROM %s WHERE (guildId=?)".formatted(channels), "channelId", Long.class, guildId);
 	}
 
 	// Strikes
 	public void addStrike(long guildId, long channelId, long userId) throws SQLException {
-		execute("INSERT INTO %s(guildId, channelId, userId, count, lastUpdate) VALUES (%s, %s, %s, 1, %s) ON CONFLICT(channelId, userId) DO UPDATE SET count=count+1, lastUpdate=%<s".formatted(
-			strikes, guildId, channelId, userId, Instant.now().getEpochSecond()
-		));
+		execute("INSERT INTO %s(guildId, channelId, userId, count, lastUpdate) VALUES (?, ?, ?, 1, ?) ON CONFLICT(channelId, userId) DO UPDATE SET count=count+1, lastUpdate=excluded.lastUpdate".formatted(strikes),
+			guildId, channelId, userId, Instant.now().getEpochSecond()
+		);
 	}
 
 	public Instant getLastUpdate(long channelId, long userId) {
-		Long data = selectOne("SELECT lastUpdate FROM %s WHERE (channelId=%s AND userId=%s)".formatted(strikes, channelId, userId), "lastUpdate", Long.class);
+		Long data = selectOne("SELECT lastUpdate FROM %s WHERE (channelId=? AND userId=?)".formatted(strikes), "lastUpdate", Long.class, channelId, userId);
 		return data==null ? null : Instant.ofEpochSecond(data);
 	}
 
 	public Integer countStrikes(long channelId, long userId) {
-		return selectOne("SELECT count FROM %s WHERE (channelId=%s AND userId=%s)".formatted(strikes, channelId, userId), "count", Integer.class);
+		return selectOne("SELECT count FROM %s WHERE (channelId=? AND userId=?)".formatted(strikes), "count", Integer.class, channelId, userId);
 	}
 
 	public void clearStrikes(long channelId, long userId) throws SQLException {
-		execute("DELETE FROM %s WHERE (channelId=%s AND userId=%s)".formatted(strikes, channelId, userId));
+		execute("DELETE FROM %s WHERE (channelId=? AND userId=?)".formatted(strikes), channelId, userId);
 	}
 
 }
@@ -1,12 +1,18 @@
 package union.utils.database.managers;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import union.objects.AnticrashAction;
 import union.utils.AlertUtil;
+import union.utils.CastUtil;
 import union.utils.database.LiteDBBase;
 import union.utils.database.ConnectionUtil;
 
@@ -14,23 +20,78 @@ public class GroupManager extends LiteDBBase {
 
 	private final String groups = "groups";
 	private final String members = "groupMembers";
-	
+
+	// Membership graph, loaded once and updated on writes
+	// groupId - ownerId
+	private final Map<Integer, Long> owners = new ConcurrentHashMap<>();
+	// ownerId - owned groupIds
+	private final Map<Long, Set<Integer>> ownedGroups = new ConcurrentHashMap<>();
+	// groupId - (guildId - canManage)
+	private final Map<Integer, Map<Long, Boolean>> groupMembers = new ConcurrentHashMap<>();
+	// guildId - groupIds, where guild is member
+	private final Map<Long, Set<Integer>> guildGroups = new ConcurrentHashMap<>();
+
 	public GroupManager(ConnectionUtil cu) {
 		super(cu, null);
 	}
 
+	/**
+	 * Loads owners and members of all groups.
+	 * @return number of loaded groups
+	 */
+	public int preload() {
+		List<Map<String, Object>> groupRows = select("SELECT groupId, ownerId FROM %s".formatted(groups), Set.of("groupId", "ownerId"));
+		List<Map<String, Object>> memberRows = select("SELECT groupId, guildId, canManage FROM %s".formatted(members), Set.of("groupId", "guildId", "canManage"));
+		synchronized (this) {
+			owners.clear();
+			ownedGroups.clear();
+			groupMembers.clear();
+			guildGroups.clear();
+			groupRows.forEach(row -> putOwner((Integer) row.get("groupId"), CastUtil.castLong(row.get("ownerId"))));
+			memberRows.forEach(row -> putMember((Integer) row.get("groupId"), CastUtil.castLong(row.get("guildId")),
+				Integer.valueOf(1).equals(row.get("canManage"))));
+		}
+		return owners.size();
+	}
+
+	private void putOwner(int groupId, long ownerId) {
+		owners.put(groupId, ownerId);
+		ownedGroups.computeIfAbsent(ownerId, k -> ConcurrentHashMap.newKeySet()).add(groupId);
+	}
+
+	private void putMember(int groupId, long guildId, boolean canManage) {
+		groupMembers.computeIfAbsent(groupId, k -> new ConcurrentHashMap<>()).put(guildId, canManage);
+		guildGroups.computeIfAbsent(guildId, k -> ConcurrentHashMap.newKeySet()).add(groupId);
+	}
+
+	private void removeMember(int groupId, long guildId) {
+		Map<Long, Boolean> guilds = groupMembers.get(groupId);
+		if (guilds != null) guilds.remove(guildId);
+		Set<Integer> groupIds = guildGroups.get(guildId);
+		if (groupIds != null) groupIds.remove(groupId);
+	}
+
 	// groups table
-	public int create(long guildId, String name, String selfInvite) throws SQLException {
-		return executeWithRow("INSERT INTO %s(ownerId, name, selfInvite) VALUES (%d, %s, %s)"
+	public synchronized int create(long guildId, String name, String selfInvite) throws SQLException {
+		int groupId = executeWithRow("INSERT INTO %s(ownerId, name, selfInvite) VALUES (%d, %s, %s)"
 			.formatted(groups, guildId, quote(name), quote(selfInvite)));
+		if (groupId > 0) putOwner(groupId, guildId);
+		return groupId;
 	}
 
-	public void deleteGroup(int groupId) throws SQLException {
+	public synchronized void deleteGroup(int groupId) throws SQLException {
 		execute("DELETE FROM %s WHERE (groupId=%d)".formatted(groups, groupId));
+		Long ownerId = owners.remove(groupId);
+		if (ownerId != null) {
+			Set<Integer> groupIds = ownedGroups.get(ownerId);
+			if (groupIds != null) groupIds.remove(groupId);
+		}
 	}
 
-	public void deleteGuildGroups(long guildId) throws SQLException {
+	public synchronized void deleteGuildGroups(long guildId) throws SQLException {
 		execute("DELETE FROM %s WHERE (ownerId=%d)".formatted(groups, guildId));
+		Set<Integer> groupIds = ownedGroups.remove(guildId);
+		if (groupIds != null) groupIds.forEach(owners::remove);
 	}
 
 	public void rename(int groupId, String name) throws SQLException {
@@ -38,11 +99,11 @@ public class GroupManager extends LiteDBBase {
 	}
 
 	public Long getOwner(int groupId) {
-		return selectOne("SELECT ownerId FROM %s WHERE (groupId=%d)".formatted(groups, groupId), "ownerId", Long.class);
+		return owners.get(groupId);
 	}
 
 	public List<Integer> getOwnedGroups(long guildId) {
-		return select("SELECT groupId FROM %s WHERE (ownerId=%d)".formatted(groups, guildId), "groupId", Integer.class);
+		return List.copyOf(ownedGroups.getOrDefault(guildId, Set.of()));
 	}
 
 	public String getName(int groupId) {
@@ -50,8 +111,8 @@ public class GroupManager extends LiteDBBase {
 	}
 
 	public boolean isOwner(int groupId, long guildId) {
-		return selectOne("SELECT ownerId FROM %s WHERE (groupId=%d AND ownerId=%d)"
-			.formatted(groups, groupId, guildId), "ownerId", Long.class) != null;
+		Long ownerId = owners.get(groupId);
+		return ownerId != null && ownerId == guildId;
 	}
 
 	public void setSelfInvite(int groupId, @Nullable String selfInvite) throws SQLException {
@@ -93,53 +154,87 @@ public class GroupManager extends LiteDBBase {
 	}
 
 	// groupMembers table
-	public void add(int groupId, long guildId, Boolean canManage) throws SQLException {
+	public synchronized void add(int groupId, long guildId, Boolean canManage) throws SQLException {
 		execute("INSERT INTO %s(groupId, guildId, canManage) VALUES (%d, %d, %d)".formatted(members, groupId, guildId, canManage ? 1 : 0));
+		putMember(groupId, guildId, canManage);
 	}
 
-	public void remove(int groupId, long guildId) throws SQLException {
+	public synchronized void remove(int groupId, long guildId) throws SQLException {
 		execute("DELETE FROM %s WHERE (groupId=%d AND guildId=%d)".formatted(members, groupId, guildId));
+		removeMember(groupId, guildId);
 	}
 
-	public void removeGuildFromGroups(long guildId) throws SQLException {
+	public synchronized void removeGuildFromGroups(long guildId) throws SQLException {
 		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(members, guildId));
+		Set<Integer> groupIds = guildGroups.remove(guildId);
+		if (groupIds != null) groupIds.forEach(groupId -> {
+			Map<Long, Boolean> guilds = groupMembers.get(groupId);
+			if (guilds != null) guilds.remove(guildId);
+		});
 	}
 	
-	public void clearGroup(int groupId) throws SQLException {
+	public synchronized void clearGroup(int groupId) throws SQLException {
 		execute("DELETE FROM %s WHERE (groupId=%d)".formatted(members, groupId));
+		Map<Long, Boolean> guilds = groupMembers.remove(groupId);
+		if (guilds != null) guilds.keySet().forEach(guildId -> {
+			Set<Integer> groupIds = guildGroups.get(guildId);
+			if (groupIds != null) groupIds.remove(groupId);
+		});
 	}
 
 	public Boolean isMember(int groupId, long guildId) {
-		return selectOne("SELECT guildId FROM %s WHERE (groupId=%d AND guildId=%d)".formatted(members, groupId, guildId), "guildId", Long.class) != null;
+		return groupMembers.getOrDefault(groupId, Map.of()).containsKey(guildId);
 	}
 
 	public List<Long> getGroupMembers(int groupId) {
-		return select("SELECT guildId FROM %s WHERE (groupId=%d)".formatted(members, groupId), "guildId", Long.class);
+		return List.copyOf(groupMembers.getOrDefault(groupId, Map.of()).keySet());
 	}
 
 	public int countMembers(int groupId) {
-		return count("SELECT COUNT(guildId) FROM %s WHERE (groupId=%d)".formatted(members, groupId));
+		return groupMembers.getOrDefault(groupId, Map.of()).size();
 	}
 
 	public List<Integer> getGuildGroups(long guildId) {
-		return select("SELECT groupId FROM %s WHERE (guildId=%d)".formatted(members, guildId), "groupId", Integer.class);
+		return List.copyOf(guildGroups.getOrDefault(guildId, Set.of()));
 	}
 
 	public List<Integer> getManagedGroups(long guildId) {
-		return select("SELECT groupId FROM %s WHERE (guildId=%d AND canManage=1)".formatted(members, guildId), "groupId", Integer.class);
+		return guildGroups.getOrDefault(guildId, Set.of()).stream()
+			.filter(groupId -> canManage(groupId, guildId))
+			.toList();
 	}
 
 	public List<Long> getGroupManagers(int groupId) {
-		return select("SELECT guildId FROM %s WHERE (groupId=%d AND canManage=1)".formatted(members, groupId), "guildId", Long.class);
+		return groupMembers.getOrDefault(groupId, Map.of()).entrySet().stream()
+			.filter(Map.Entry::getValue)
+			.map(Map.Entry::getKey)
+			.toList();
 	}
 
 	public boolean canManage(int groupId, long guildId) {
-		Integer data = selectOne("SELECT canManage FROM %s WHERE (groupId=%d AND guildId=%d)".formatted(members, groupId, guildId), "canManage", Integer.class);
-		return data != null && data == 1;
+		return Boolean.TRUE.equals(groupMembers.getOrDefault(groupId, Map.of()).get(guildId));
 	}
 
-	public void setManage(int groupId, long guildId, boolean canManage) throws SQLException {
+	public synchronized void setManage(int groupId, long guildId, boolean canManage) throws SQLException {
 		execute("UPDATE %s SET canManage=%d WHERE (groupId=%d AND guildId=%d)".formatted(members, canManage ? 1 : 0, groupId, guildId));
+		Map<Long, Boolean> guilds = groupMembers.get(groupId);
+		if (guilds != null) guilds.computeIfPresent(guildId, (k, v) -> canManage);
+	}
+
+	/**
+	 * Guilds, where sync actions of the group are applied:
+	 * members of the group and members of groups owned by its managers.
+	 * @return distinct guild IDs
+	 */
+	public List<Long> getSyncGuilds(int groupId) {
+		Set<Long> guildIds = new LinkedHashSet<>();
+		for (long managerId : getGroupManagers(groupId)) {
+			for (int subGroupId : ownedGroups.getOrDefault(managerId, Set.of())) {
+				guildIds.addAll(groupMembers.getOrDefault(subGroupId, Map.of()).keySet());
+			}
+		}
+		guildIds.addAll(groupMembers.getOrDefault(groupId, Map.of()).keySet());
+		return new ArrayList<>(guildIds);
 	}
 
 }
@@ -3,21 +3,21 @@ package union.utils.database.managers;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.jetbrains.annotations.NotNull;
-import union.objects.constants.Constants;
 import union.objects.logs.LogType;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
 public class GuildLogsManager extends LiteDBBase {
 
 	// Cache
-	private final FixedCache<Long, LogSettings> cache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, LogSettings> cache = new SettingsCache<>("logs");
 	private final LogSettings blankSettings = new LogSettings();
 
 	private final Set<String> logColumns = LogType.getAllNames();
@@ -27,48 +27,56 @@ public class GuildLogsManager extends LiteDBBase {
 	}
 
 	public void setLogWebhook(@NotNull LogType type, long guildId, WebhookData webhookData) throws SQLException {
-		invalidateCache(guildId);
 		String data = webhookData==null ? "NULL" : webhookData.encodeData();
-		execute("INSERT INTO %s(guildId, %s) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET %2$s=%4$s"
+		updateCache(guildId, "INSERT INTO %s(guildId, %s) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET %2$s=%4$s"
 			.formatted(table, quote(type.getName()), guildId, quote(data)));
 	}
 
 	public void removeLogWebhook(LogType type, long guildId) throws SQLException {
-		invalidateCache(guildId);
-		execute("UPDATE %s SET %s=NULL WHERE (guildId=%d)".formatted(table, type.getName(), guildId));
+		updateCache(guildId, "UPDATE %s SET %s=NULL WHERE (guildId=%d)".formatted(table, type.getName(), guildId));
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		invalidateCache(guildId);
 		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
+		cache.put(guildId, blankSettings);
 	}
 
 	public WebhookData getLogWebhook(LogType type, long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId).getWebhookData(type);
-		LogSettings settings = applyNonNull(getData(guildId), LogSettings::new);
-		if (settings == null)
-			return null;
-		cache.put(guildId, settings);
-		return settings.getWebhookData(type);
+		// Guilds without logs get blank settings cached too
+		return getSettings(guildId).getWebhookData(type);
 	}
 
 	public LogSettings getSettings(long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId);
-		LogSettings settings = applyNonNull(getData(guildId), LogSettings::new);
-		if (settings == null)
-			settings = blankSettings;
-		cache.put(guildId, settings);
-		return settings;
+		return cache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (cache.isComplete()) return blankSettings;
+			LogSettings settings = applyNonNull(getData(id), LogSettings::new);
+			if (settings == null)
+				settings = blankSettings;
+			return settings;
+		});
+	}
+
+	/**
+	 * Caches settings of all guilds from the table with one query.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> data = selectByGuild("SELECT * FROM %s".formatted(table), logColumns);
+		Map<Long, LogSettings> settings = new HashMap<>(data.size());
+		data.forEach((guildId, rows) -> settings.put(guildId, new LogSettings(rows.get(0))));
+		cache.preload(settings);
+		return data.size();
 	}
 
 	private Map<String, Object> getData(long guildId) {
 		return selectOne("SELECT * FROM %s WHERE (guildId=%d)".formatted(table, guildId), logColumns);
 	}
 
-	private void invalidateCache(long guildId) {
-		cache.pull(guildId);
+	// Caches the row returned by the statement, instead of reading it again
+	private void updateCache(long guildId, String sql, Object... params) throws SQLException {
+		Map<String, Object> data = executeReturning(sql+" RETURNING *", logColumns, params);
+		cache.put(guildId, data==null ? blankSettings : new LogSettings(data));
 	}
 
 	public static class LogSettings {
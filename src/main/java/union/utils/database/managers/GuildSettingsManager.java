@@ -16,7 +16,7 @@ import java.util.stream.Stream;
 
 import union.objects.CmdModule;
 import union.objects.constants.Constants;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import static union.utils.CastUtil.getOrDefault;
 import static union.utils.CastUtil.resolveOrDefault;
@@ -31,8 +31,8 @@ public class GuildSettingsManager extends LiteDBBase {
 	);
 
 	// Cache
-	private final FixedCache<Long, GuildSettings> cache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
-	private final FixedCache<Long, AnticrashAction> anticrashCache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, GuildSettings> cache = new SettingsCache<>("guildSettings");
+	private final SettingsCache<Long, AnticrashAction> anticrashCache = new SettingsCache<>("anticrash");
 	private final GuildSettings blankSettings = new GuildSettings();
 	
 	public GuildSettingsManager(ConnectionUtil cu) {
@@ -44,13 +44,26 @@ public class GuildSettingsManager extends LiteDBBase {
 	}
 
 	public GuildSettings getSettings(long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId);
-		GuildSettings settings = applyNonNull(getData(guildId), GuildSettings::new);
-		if (settings == null)
-			settings = blankSettings;
-		cache.put(guildId, settings);
-		return settings;
+		return cache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (cache.isComplete()) return blankSettings;
+			GuildSettings settings = applyNonNull(getData(id), GuildSettings::new);
+			if (settings == null)
+				settings = blankSettings;
+			return settings;
+		});
+	}
+
+	/**
+	 * Caches settings of all guilds from the table with one query.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> data = selectByGuild("SELECT * FROM %s".formatted(table), columns);
+		Map<Long, GuildSettings> settings = new HashMap<>(data.size());
+		data.forEach((guildId, rows) -> settings.put(guildId, new GuildSettings(rows.get(0))));
+		cache.preload(settings);
+		return data.size();
 	}
 
 	private Map<String, Object> getData(long guildId) {
@@ -67,111 +80,94 @@ public class GuildSettingsManager extends LiteDBBase {
 	}
 
 	public void remove(long guildId) throws SQLException {
-		invalidateCache(guildId);
 		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
+		cache.put(guildId, blankSettings);
 	}
 	
 	public void setColor(long guildId, int color) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, color) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET color=%<d".formatted(table, guildId, color));
+		updateCache(guildId, "INSERT INTO %s(guildId, color) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET color=%<d".formatted(table, guildId, color));
 	}
 
 	public void setLastWebhookId(long guildId, long webhookId) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, lastWebhookId) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET lastWebhookId=%<d".formatted(table, guildId, webhookId));
+		updateCache(guildId, "INSERT INTO %s(guildId, lastWebhookId) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET lastWebhookId=%<d".formatted(table, guildId, webhookId));
 	}
 
 	public void setAppealLink(long guildId, String link) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, appealLink) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET appealLink=%<s".formatted(table, guildId, quote(link)));
+		updateCache(guildId, "INSERT INTO %s(guildId, appealLink) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET appealLink=%<s".formatted(table, guildId, quote(link)));
 	}
 
 	public void setRulesLink(long guildId, String link) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, rulesLink) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET rulesLink=%<s".formatted(table, guildId, quote(link)));
+		updateCache(guildId, "INSERT INTO %s(guildId, rulesLink) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET rulesLink=%<s".formatted(table, guildId, quote(link)));
 	}
 
 	public void setReportChannelId(long guildId, @Nullable Long channelId) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, reportChannelId) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET reportChannelId=%<s".formatted(table, guildId, channelId==null ? "NULL" : channelId));
+		updateCache(guildId, "INSERT INTO %s(guildId, reportChannelId) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET reportChannelId=%<s".formatted(table, guildId, channelId==null ? "NULL" : channelId));
 	}
 
 	public void setStrikeExpiresAfter(long guildId, int expiresAfter) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, strikeExpires) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET strikeExpires=%<d".formatted(table, guildId, expiresAfter));
+		updateCache(guildId, "INSERT INTO %s(guildId, strikeExpires) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET strikeExpires=%<d".formatted(table, guildId, expiresAfter));
 	}
 
 	public void setStrikeCooldown(long guildId, int cooldown) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, strikeCooldown) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET strikeCooldown=%<d".formatted(table, guildId, cooldown));
+		updateCache(guildId, "INSERT INTO %s(guildId, strikeCooldown) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET strikeCooldown=%<d".formatted(table, guildId, cooldown));
 	}
 
 	public void setModulesDisabled(long guildId, int modulesOff) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, modulesOff) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET modulesOff=%<d".formatted(table, guildId, modulesOff));
+		updateCache(guildId, "INSERT INTO %s(guildId, modulesOff) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET modulesOff=%<d".formatted(table, guildId, modulesOff));
 	}
 
 	public void setAnticrashAction(long guildId, AnticrashAction action) throws SQLException {
-		invalidateCache(guildId);
-		invalidateAnticrashCache(guildId);
-		execute("INSERT INTO %s(guildId, anticrash) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET anticrash=%<d"
+		updateCache(guildId, "INSERT INTO %s(guildId, anticrash) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET anticrash=%<d"
 			.formatted(table, guildId, action.value));
+		invalidateAnticrashCache(guildId);
 	}
 
 	public void setAnticrashTrigger(long guildId, int triggerAmount) throws SQLException {
-		invalidateCache(guildId);
-		invalidateAnticrashCache(guildId);
-		execute("INSERT INTO %s(guildId, anticrashTrigger) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET anticrashTrigger=%<d"
+		updateCache(guildId, "INSERT INTO %s(guildId, anticrashTrigger) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET anticrashTrigger=%<d"
 			.formatted(table, guildId, triggerAmount));
+		invalidateAnticrashCache(guildId);
 	}
 
 	public void setAnticrashPing(long guildId, String ping) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, anticrashPing) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET anticrashPing=%<s".formatted(table, guildId, quote(ping)));
+		updateCache(guildId, "INSERT INTO %s(guildId, anticrashPing) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET anticrashPing=%<s".formatted(table, guildId, quote(ping)));
 	}
 
 	public void setInformBanLevel(long guildId, ModerationInformLevel informLevel) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, informBan) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informBan=%<d".formatted(table, guildId, informLevel.getLevel()));
+		updateCache(guildId, "INSERT INTO %s(guildId, informBan) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informBan=%<d".formatted(table, guildId, informLevel.getLevel()));
 	}
 
 	public void setInformKickLevel(long guildId, ModerationInformLevel informLevel) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, informKick) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informKick=%<d".formatted(table, guildId, informLevel.getLevel()));
+		updateCache(guildId, "INSERT INTO %s(guildId, informKick) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informKick=%<d".formatted(table, guildId, informLevel.getLevel()));
 	}
 
 	public void setInformMuteLevel(long guildId, ModerationInformLevel informLevel) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, informMute) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informMute=%<d".formatted(table, guildId, informLevel.getLevel()));
+		updateCache(guildId, "INSERT INTO %s(guildId, informMute) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informMute=%<d".formatted(table, guildId, informLevel.getLevel()));
 	}
 
 	public void setInformStrikeLevel(long guildId, ModerationInformLevel informLevel) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, informStrike) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informStrike=%<d".formatted(table, guildId, informLevel.getLevel()));
+		updateCache(guildId, "INSERT INTO %s(guildId, informStrike) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informStrike=%<d".formatted(table, guildId, informLevel.getLevel()));
 	}
 
 	public void setInformDelstrikeLevel(long guildId, ModerationInformLevel informLevel) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, informDelstrike) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informDelstrike=%<d".formatted(table, guildId, informLevel.getLevel()));
+		updateCache(guildId, "INSERT INTO %s(guildId, informDelstrike) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET informDelstrike=%<d".formatted(table, guildId, informLevel.getLevel()));
 	}
 
 	public void setRoleWhitelist(long guildId, boolean roleWhitelist) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, roleWhitelist) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET roleWhitelist=%<d".formatted(table, guildId, roleWhitelist?1:0));
+		updateCache(guildId, "INSERT INTO %s(guildId, roleWhitelist) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET roleWhitelist=%<d".formatted(table, guildId, roleWhitelist?1:0));
 	}
 
 	public void setDramaLevel(long guildId, DramaLevel dramaLevel) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, drama) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET drama=%<d".formatted(table, guildId, dramaLevel.level));
+		updateCache(guildId, "INSERT INTO %s(guildId, drama) VALUES (%s, %d) ON CONFLICT(guildId) DO UPDATE SET drama=%<d".formatted(table, guildId, dramaLevel.level));
 	}
 
 	public void setDramaChannelId(long guildId, @Nullable Long channelId) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, dramaChannel) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET dramaChannel=%<s".formatted(table, guildId, channelId==null ? "NULL" : channelId));
+		updateCache(guildId, "INSERT INTO %s(guildId, dramaChannel) VALUES (%s, %s) ON CONFLICT(guildId) DO UPDATE SET dramaChannel=%<s".formatted(table, guildId, channelId==null ? "NULL" : channelId));
 	}
 
-	private void invalidateCache(long guildId) {
-		cache.pull(guildId);
+	// Caches the row returned by the statement, instead of reading it again
+	private void updateCache(long guildId, String sql, Object... params) throws SQLException {
+		Map<String, Object> data = executeReturning(sql+" RETURNING *", columns, params);
+		cache.put(guildId, data==null ? blankSettings : new GuildSettings(data));
 	}
 
 	private void invalidateAnticrashCache(long guildId) {
@@ -1,11 +1,12 @@
 package union.utils.database.managers;
 
-import union.objects.constants.Constants;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,7 +18,7 @@ public class GuildVoiceManager extends LiteDBBase {
 		"categoryId", "channelId", "defaultName", "defaultLimit"
 	);
 	// Cache
-	private final FixedCache<Long, VoiceSettings> cache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, VoiceSettings> cache = new SettingsCache<>("voiceSettings");
 	private final VoiceSettings blankSettings = new VoiceSettings();
 
 	public GuildVoiceManager(ConnectionUtil cu) {
@@ -25,44 +26,56 @@ public class GuildVoiceManager extends LiteDBBase {
 	}
 
 	public void setup(long guildId, long categoryId, long channelId) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, categoryId, channelId) VALUES (%d, %d, %d) ON CONFLICT(guildId) DO UPDATE SET categoryId=%3$d, channelId=%4$d"
-			.formatted(table, guildId, categoryId, channelId));
+		updateCache(guildId, "INSERT INTO %s(guildId, categoryId, channelId) VALUES (?, ?, ?) ON CONFLICT(guildId) DO UPDATE SET categoryId=excluded.categoryId, channelId=excluded.channelId"
+			.formatted(table), guildId, categoryId, channelId);
 	}
 
 	public void remove(long guildId) throws SQLException {
-		invalidateCache(guildId);
-		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
+		cache.put(guildId, blankSettings);
 	}
 
 	public void setName(long guildId, String defaultName) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, defaultName) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET defaultName=%<s"
-			.formatted(table, guildId, quote(defaultName)));
+		updateCache(guildId, "INSERT INTO %s(guildId, defaultName) VALUES (?, ?) ON CONFLICT(guildId) DO UPDATE SET defaultName=excluded.defaultName"
+			.formatted(table), guildId, defaultName);
 	}
 
 	public void setLimit(long guildId, int defaultLimit) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, defaultLimit) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET defaultLimit=%<d"
-			.formatted(table, guildId, defaultLimit));
+		updateCache(guildId, "INSERT INTO %s(guildId, defaultLimit) VALUES (?, ?) ON CONFLICT(guildId) DO UPDATE SET defaultLimit=excluded.defaultLimit"
+			.formatted(table), guildId, defaultLimit);
 	}
 
 	public VoiceSettings getSettings(long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId);
-		VoiceSettings settings = applyNonNull(getData(guildId), VoiceSettings::new);
-		if (settings == null)
-			settings = blankSettings;
-		cache.put(guildId, settings);
-		return settings;
+		return cache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (cache.isComplete()) return blankSettings;
+			VoiceSettings settings = applyNonNull(getData(id), VoiceSettings::new);
+			if (settings == null)
+				settings = blankSettings;
+			return settings;
+		});
+	}
+
+	/**
+	 * Caches settings of all guilds from the table with one query.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> data = selectByGuild("SELECT * FROM %s".formatted(table), columns);
+		Map<Long, VoiceSettings> settings = new HashMap<>(data.size());
+		data.forEach((guildId, rows) -> settings.put(guildId, new VoiceSettings(rows.get(0))));
+		cache.preload(settings);
+		return data.size();
 	}
 
 	private Map<String, Object> getData(long guildId) {
-		return selectOne("SELECT * FROM %s WHERE (guildId=%d)".formatted(table, guildId), columns);
+		return selectOne("SELECT * FROM %s WHERE (guildId=?)".formatted(table), columns, guildId);
 	}
 
-	private void invalidateCache(long guildId) {
-		cache.pull(guildId);
+	// Caches the row returned by the statement, instead of reading it again
+	private void updateCache(long guildId, String sql, Object... params) throws SQLException {
+		Map<String, Object> data = executeReturning(sql+" RETURNING *", columns, params);
+		cache.put(guildId, data==null ? blankSettings : new VoiceSettings(data));
 	}
 
 	public static class VoiceSettings {
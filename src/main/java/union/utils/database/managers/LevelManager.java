@@ -5,20 +5,26 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import net.dv8tion.jda.api.entities.Guild;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import union.metrics.Metrics;
 import union.objects.ExpType;
-import union.objects.constants.Constants;
 import union.utils.CastUtil;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
+import union.utils.database.PooledConnection;
 import union.utils.level.LevelUtil;
 import union.utils.level.PlayerObject;
+import union.utils.level.RankIndex;
 
 import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.Instant;
+import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,13 +33,20 @@ import static union.utils.CastUtil.*;
 public class LevelManager extends LiteDBBase {
 	private final String TABLE_SETTINGS = "levelSettings";
 	private final String TABLE_PLAYERS = "levelPlayers";
+	private final Set<String> SETTINGS_COLUMNS = Set.of("enabled", "exemptChannels", "enabledVoice");
 
 	// cache
-	private final Cache<String, PlayerData> playersCache = Caffeine.newBuilder()
+	private final Cache<PlayerObject, PlayerData> playersCache = Caffeine.newBuilder()
 		.expireAfterAccess(5, TimeUnit.MINUTES)
 		.build();
-	private final FixedCache<Long, LevelSettings> settingsCache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, LevelSettings> settingsCache = new SettingsCache<>("levelSettings");
 	private final LevelSettings blankSettings = new LevelSettings();
+	// Players with changed experience, written in one batch by flushPlayers()
+	private final ConcurrentHashMap<PlayerObject, PlayerData> dirtyPlayers = new ConcurrentHashMap<>();
+	// Leaderboards, loaded once by loadRanks() and updated with player changes
+	private final ConcurrentHashMap<Long, RankIndex> textRanks = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Long, RankIndex> voiceRanks = new ConcurrentHashMap<>();
+	private final RankIndex globalRanks = new RankIndex();
 
 	public LevelManager(ConnectionUtil cu) {
 		super(cu, null);
@@ -46,91 +59,192 @@ public class LevelManager extends LiteDBBase {
 
 	@NotNull
 	public LevelSettings getSettings(long guildId) {
-		if (settingsCache.contains(guildId))
-			return settingsCache.get(guildId);
-		LevelSettings settings = applyNonNull(getSettingsData(guildId), LevelSettings::new);
-		if (settings == null)
-			settings = blankSettings;
-		settingsCache.put(guildId, settings);
-		return settings;
+		return settingsCache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (settingsCache.isComplete()) return blankSettings;
+			LevelSettings settings = applyNonNull(getSettingsData(id), LevelSettings::new);
+			if (settings == null)
+				settings = blankSettings;
+			return settings;
+		});
+	}
+
+	/**
+	 * Caches settings of all guilds from the table with one query.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> data = selectByGuild("SELECT * FROM %s".formatted(TABLE_SETTINGS), SETTINGS_COLUMNS);
+		Map<Long, LevelSettings> settings = new HashMap<>(data.size());
+		data.forEach((guildId, rows) -> settings.put(guildId, new LevelSettings(rows.get(0))));
+		settingsCache.preload(settings);
+		return data.size();
 	}
 
 	private Map<String, Object> getSettingsData(long guildId) {
-		return selectOne("SELECT * FROM %s WHERE (guildId=%d)".formatted(TABLE_SETTINGS, guildId), Set.of("enabled", "exemptChannels", "enabledVoice"));
+		return selectOne("SELECT * FROM %s WHERE (guildId=?)".formatted(TABLE_SETTINGS), SETTINGS_COLUMNS, guildId);
 	}
 
 	public void remove(long guildId) throws SQLException {
-		invalidateSettings(guildId);
-		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(TABLE_SETTINGS, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(TABLE_SETTINGS), guildId);
+		settingsCache.put(guildId, blankSettings);
 	}
 
 	public void setEnabled(long guildId, boolean enabled) throws SQLException {
-		invalidateSettings(guildId);
-		execute("INSERT INTO %s(guildId, enabled) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET enabled=%<d".formatted(TABLE_SETTINGS, guildId, enabled?1:0));
+		updateCache(guildId, "INSERT INTO %s(guildId, enabled) VALUES (?, ?) ON CONFLICT(guildId) DO UPDATE SET enabled=excluded.enabled".formatted(TABLE_SETTINGS), guildId, enabled);
 	}
 
 	public void setExemptChannels(long guildId, @Nullable String channelIds) throws SQLException {
-		invalidateSettings(guildId);
-		execute("INSERT INTO %s(guildId, exemptChannels) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET exemptChannels=%<s".formatted(TABLE_SETTINGS, guildId, quote(channelIds)));
+		updateCache(guildId, "INSERT INTO %s(guildId, exemptChannels) VALUES (?, ?) ON CONFLICT(guildId) DO UPDATE SET exemptChannels=excluded.exemptChannels".formatted(TABLE_SETTINGS), guildId, channelIds);
 	}
 
 	public void setEnabledVoice(long guildId, boolean enabled) throws SQLException {
-		invalidateSettings(guildId);
-		execute("INSERT INTO %s(guildId, enabledVoice) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET enabledVoice=%<d".formatted(TABLE_SETTINGS, guildId, enabled?1:0));
+		updateCache(guildId, "INSERT INTO %s(guildId, enabledVoice) VALUES (?, ?) ON CONFLICT(guildId) DO UPDATE SET enabledVoice=excluded.enabledVoice".formatted(TABLE_SETTINGS), guildId, enabled);
 	}
 
-	public void invalidateSettings(long guildId) {
-		settingsCache.pull(guildId);
+	// Caches the row returned by the statement, instead of reading it again
+	private void updateCache(long guildId, String sql, Object... params) throws SQLException {
+		Map<String, Object> data = executeReturning(sql+" RETURNING *", SETTINGS_COLUMNS, params);
+		settingsCache.put(guildId, data==null ? blankSettings : new LevelSettings(data));
 	}
 
 	// Guild levels
 	@NotNull
 	public PlayerData getPlayer(long guildId, long userId) {
-		String key = PlayerObject.asKey(guildId, userId);
-		return playersCache.get(key, (k)->new PlayerData(getPlayerData(guildId, userId)));
+		return getPlayer(new PlayerObject(guildId, userId));
 	}
 
-	@Nullable
+	@NotNull
 	public PlayerData getPlayer(PlayerObject player) {
-		return playersCache.getIfPresent(player.asKey());
+		return playersCache.get(player, (k)->new PlayerData(getPlayerData(k.guildId, k.userId)));
 	}
 
 	private Map<String, Object> getPlayerData(long guildId, long userId) {
-		return selectOne("SELECT * FROM %s WHERE (guildId=%d AND userId=%d)".formatted(TABLE_PLAYERS, guildId, userId), Set.of("textExp", "voiceExp", "lastUpdate"));
+		return selectOne("SELECT * FROM %s WHERE (guildId=? AND userId=?)".formatted(TABLE_PLAYERS), Set.of("textExp", "voiceExp", "lastUpdate"), guildId, userId);
 	}
 
-	public void updatePlayer(PlayerObject player, PlayerData playerData) throws SQLException {
-		execute("INSERT INTO %s(guildId, userId, textExp, voiceExp, globalExp, lastUpdate) VALUES (%d, %d, %d, %d, %d, %d) ON CONFLICT(guildId, userId) DO UPDATE SET textExp=%4$d, voiceExp=%5$d, globalExp=globalExp+%6$d, lastUpdate=%7$d;"
-			.formatted(
-				TABLE_PLAYERS, player.guildId, player.userId,
-				playerData.getExperience(ExpType.TEXT), playerData.getExperience(ExpType.VOICE), playerData.getAddedGlobalExperience(), playerData.getLastUpdate()
-			)
-		);
+	/**
+	 * Marks player data as changed, it will be written with next {@link #flushPlayers()}.
+	 * Server leaderboards are updated with new experience.
+	 */
+	public void markDirty(PlayerObject player, PlayerData playerData) {
+		dirtyPlayers.put(player, playerData);
+		getRanks(player.guildId, ExpType.TEXT).set(player.userId, playerData.getExperience(ExpType.TEXT));
+		getRanks(player.guildId, ExpType.VOICE).set(player.userId, playerData.getExperience(ExpType.VOICE));
+	}
+
+	/**
+	 * Adds to global leaderboard, global experience is never decreased.
+	 */
+	public void addGlobalExperience(long userId, long amount) {
+		globalRanks.add(userId, amount);
+	}
+
+	public int getDirtyCount() {
+		return dirtyPlayers.size();
+	}
+
+	/**
+	 * Writes all changed players with one batched statement inside single transaction.
+	 * On failure players are kept for the next flush.
+	 * @return number of written players
+	 * @throws SQLException Rethrows error
+	 */
+	public int flushPlayers() throws SQLException {
+		if (dirtyPlayers.isEmpty()) return 0;
+		long start = System.nanoTime();
+
+		// Take players, changed again during flush are marked anew
+		List<PlayerObject> players = new ArrayList<>();
+		List<PlayerData> data = new ArrayList<>();
+		List<long[]> values = new ArrayList<>();
+		for (PlayerObject player : dirtyPlayers.keySet()) {
+			PlayerData playerData = dirtyPlayers.remove(player);
+			if (playerData == null) continue;
+			players.add(player);
+			data.add(playerData);
+			values.add(playerData.takeUpdateValues());
+		}
+		if (players.isEmpty()) return 0;
+
+		final String sql = "INSERT INTO %s(guildId, userId, textExp, voiceExp, globalExp, lastUpdate) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT(guildId, userId) DO UPDATE SET textExp=excluded.textExp, voiceExp=excluded.voiceExp, globalExp=globalExp+excluded.globalExp, lastUpdate=excluded.lastUpdate"
+			.formatted(TABLE_PLAYERS);
+		try (PooledConnection conn = getWriteConnection()) {
+			conn.get().setAutoCommit(false);
+			PreparedStatement st = conn.prepare(sql);
+			for (int i = 0; i < players.size(); i++) {
+				PlayerObject player = players.get(i);
+				long[] value = values.get(i);
+				bind(st, player.guildId, player.userId, value[0], value[1], value[2], value[3]);
+				st.addBatch();
+			}
+			st.executeBatch();
+			conn.get().commit();
+		} catch (SQLException ex) {
+			// Return global experience and mark again
+			for (int i = 0; i < players.size(); i++) {
+				data.get(i).restoreAddedGlobalExperience(values.get(i)[2]);
+				dirtyPlayers.putIfAbsent(players.get(i), data.get(i));
+			}
+			throw ex;
+		}
+
+		Metrics.levelFlushedRows.inc(players.size());
+		Metrics.levelFlushDuration.observe((System.nanoTime()-start)/1e9);
+		return players.size();
 	}
 
 	public void addVoiceTime(PlayerObject player, long duration) {
-		try {
-			execute("INSERT INTO %s(guildId, userId, voiceTime) VALUES (%d, %d, %d) ON CONFLICT(guildId, userId) DO UPDATE SET voiceTime=voiceTime+%<d;"
-				.formatted(TABLE_PLAYERS, player.guildId, player.userId, duration)
-			);
-		} catch (SQLException ignored) {}
+		executeAsync("INSERT INTO %s(guildId, userId, voiceTime) VALUES (?, ?, ?) ON CONFLICT(guildId, userId) DO UPDATE SET voiceTime=voiceTime+excluded.voiceTime;"
+			.formatted(TABLE_PLAYERS),
+			player.guildId, player.userId, duration
+		);
+	}
+
+	/**
+	 * Fills server and global leaderboards from the table with one pass.
+	 * @return number of loaded players
+	 * @throws SQLException Rethrows error
+	 */
+	public int loadRanks() throws SQLException {
+		textRanks.clear();
+		voiceRanks.clear();
+		globalRanks.clear();
+		int count = 0;
+		try (PooledConnection conn = getReadConnection();
+			Statement st = conn.get().createStatement();
+			ResultSet rs = st.executeQuery("SELECT guildId, userId, textExp, voiceExp, globalExp FROM %s".formatted(TABLE_PLAYERS))) {
+			while (rs.next()) {
+				long guildId = rs.getLong(1);
+				long userId = rs.getLong(2);
+				getRanks(guildId, ExpType.TEXT).set(userId, PlayerData.capExperience(rs.getObject(3)));
+				getRanks(guildId, ExpType.VOICE).set(userId, PlayerData.capExperience(rs.getObject(4)));
+				globalRanks.add(userId, rs.getLong(5));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private RankIndex getRanks(long guildId, ExpType expType) {
+		return switch (expType) {
+			case TEXT -> textRanks.computeIfAbsent(guildId, k -> new RankIndex());
+			case VOICE -> voiceRanks.computeIfAbsent(guildId, k -> new RankIndex());
+			case TOTAL -> throw new IllegalArgumentException("Total experience is not ranked");
+		};
 	}
 
 	public long getSumGlobalExp(long userId) {
-		Long data = selectOne("SELECT SUM(globalExp) AS sumGlobalExp FROM %s WHERE (userId=%d)".formatted(TABLE_PLAYERS, userId), "sumGlobalExp", Long.class);
-		return data==null?0:data;
+		return globalRanks.get(userId);
 	}
 
 	public Integer getServerRank(long guildId, long userId, ExpType expType) {
-		String type = expType==ExpType.TEXT?"textExp":"voiceExp";
-		return selectOne("WITH rankedUsers AS (SELECT userId, guildId, %s, DENSE_RANK() OVER (PARTITION BY guildId ORDER BY %<s DESC) AS rank FROM %s) SELECT rank FROM rankedUsers WHERE (guildId=%d AND userId=%d AND %1$s>0)"
-			.formatted(type, TABLE_PLAYERS, guildId, userId), "rank", Integer.class);
+		return getRanks(guildId, expType).getRank(userId);
 	}
 
 	@SuppressWarnings("unused")
 	public Integer getGlobalRank(long userId) {
-		return selectOne("WITH rankedUsers AS (SELECT userId, SUM(globalExp) as totalExp, DENSE_RANK() OVER (ORDER BY SUM(globalExp) DESC) AS rank FROM %s GROUP BY userId) SELECT rank FROM rankedUsers WHERE (userId=%d)"
-			.formatted(TABLE_PLAYERS, userId), "rank", Integer.class);
+		return globalRanks.getRank(userId);
 	}
 
 	@NotNull
@@ -147,53 +261,52 @@ public class LevelManager extends LiteDBBase {
 			default -> false;
 		};
 
-		StringBuilder query = new StringBuilder("WITH rankedUsers AS (SELECT userId, guildId");
-
-		if (fetchText) query.append(", textExp, ROW_NUMBER() OVER (PARTITION BY guildId ORDER BY textExp DESC) AS textRank");
-		if (fetchVoice) query.append(", voiceExp, ROW_NUMBER() OVER (PARTITION BY guildId ORDER BY voiceExp DESC) AS voiceRank");
-
-		query.append(" FROM ").append(TABLE_PLAYERS)
-			.append(" WHERE guildId=").append(guildId).append(")")
-			.append(" SELECT userId");
-
-		if (fetchText) query.append(", textExp, textRank");
-		if (fetchVoice) query.append(", voiceExp, voiceRank");
-		query.append(" FROM rankedUsers");
-
-		query.append(" WHERE ");
-		if (fetchText && fetchVoice) {
-			query.append("textRank <= ").append(limit).append(" OR voiceRank <= ").append(limit);
-		} else if (fetchText) {
-			query.append("textRank <= ").append(limit);
-		} else if (fetchVoice) {
-			query.append("voiceRank <= ").append(limit);
-		}
-
-		Set<String> keys = new HashSet<>();
-		keys.add("userId");
-		if (fetchText) {
-			keys.add("textExp");
-			keys.add("textRank");
-		}
-		if (fetchVoice) {
-			keys.add("voiceExp");
-			keys.add("voiceRank");
-		}
-
-		return new TopInfo(select(query.toString(), keys), limit);
+		return new TopInfo(
+			fetchText ? getRanks(guildId, ExpType.TEXT).getTop(limit) : List.of(),
+			fetchVoice ? getRanks(guildId, ExpType.VOICE).getTop(limit) : List.of()
+		);
 	}
 
 	public void deleteUser(long guildId, long userId) throws SQLException {
-		playersCache.invalidate(PlayerObject.asKey(guildId, userId));
-		execute("DELETE FROM %s WHERE (guildId=%d AND userId=%d)".formatted(TABLE_PLAYERS, guildId, userId));
+		PlayerObject player = new PlayerObject(guildId, userId);
+		long globalExp = getRemovedGlobalExp(player);
+		playersCache.invalidate(player);
+		dirtyPlayers.remove(player);
+		execute("DELETE FROM %s WHERE (guildId=? AND userId=?)".formatted(TABLE_PLAYERS), guildId, userId);
+		getRanks(guildId, ExpType.TEXT).remove(userId);
+		getRanks(guildId, ExpType.VOICE).remove(userId);
+		globalRanks.add(userId, -globalExp);
 	}
 
 	public void deleteUser(long userId) throws SQLException {
-		execute("DELETE FROM %s WHERE (userId=%d)".formatted(TABLE_PLAYERS, userId));
+		playersCache.asMap().keySet().removeIf(player -> player.userId == userId);
+		dirtyPlayers.keySet().removeIf(player -> player.userId == userId);
+		execute("DELETE FROM %s WHERE (userId=?)".formatted(TABLE_PLAYERS), userId);
+		textRanks.values().forEach(ranks -> ranks.remove(userId));
+		voiceRanks.values().forEach(ranks -> ranks.remove(userId));
+		globalRanks.remove(userId);
 	}
 
 	public void deleteGuild(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(TABLE_PLAYERS, guildId));
+		Map<Long, Long> globalExp = new HashMap<>();
+		select("SELECT userId, globalExp FROM %s WHERE (guildId=?)".formatted(TABLE_PLAYERS), Set.of("userId", "globalExp"), guildId)
+			.forEach(row -> globalExp.put(castLong(row.get("userId")), getOrDefault(row.get("globalExp"), 0L)));
+		dirtyPlayers.forEach((player, data) -> {
+			if (player.guildId == guildId) globalExp.merge(player.userId, data.getAddedGlobalExperience(), Long::sum);
+		});
+		playersCache.asMap().keySet().removeIf(player -> player.guildId == guildId);
+		dirtyPlayers.keySet().removeIf(player -> player.guildId == guildId);
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(TABLE_PLAYERS), guildId);
+		textRanks.remove(guildId);
+		voiceRanks.remove(guildId);
+		globalExp.forEach((userId, exp) -> globalRanks.add(userId, -exp));
+	}
+
+	// Global experience of the player, that is removed from user's sum with its row
+	private long getRemovedGlobalExp(PlayerObject player) {
+		Long data = selectOne("SELECT globalExp FROM %s WHERE (guildId=? AND userId=?)".formatted(TABLE_PLAYERS), "globalExp", Long.class, player.guildId, player.userId);
+		PlayerData dirty = dirtyPlayers.get(player);
+		return (data==null?0:data) + (dirty==null?0:dirty.getAddedGlobalExperience());
 	}
 
 	public static class LevelSettings {
@@ -235,71 +348,90 @@ public class LevelManager extends LiteDBBase {
 		}
 	}
 
+	/**
+	 * Experience of a player, counters are atomic, so concurrent rewards do not lock.
+	 */
 	public static class PlayerData {
-		private long textExperience = 0;
-		private long voiceExperience = 0;
-		private long addedGlobalExperience = 0;
-		private long lastUpdate = 0;
+		private final AtomicLong textExperience = new AtomicLong();
+		private final AtomicLong voiceExperience = new AtomicLong();
+		private final AtomicLong addedGlobalExperience = new AtomicLong();
+		private volatile long lastUpdate = 0;
 
 		PlayerData(Map<String, Object> data) {
 			if (data != null) {
-				BigInteger exp = new BigInteger(CastUtil.getOrDefault(String.valueOf(data.get("textExp")), "0"));
-				if (exp.compareTo(BigInteger.valueOf(LevelUtil.getHardCap())) >= 0) {
-					this.textExperience = LevelUtil.getHardCap();
-				} else {
-					this.textExperience = exp.longValue();
-				}
-				exp = new BigInteger(CastUtil.getOrDefault(String.valueOf(data.get("voiceExp")), "0"));
-				if (exp.compareTo(BigInteger.valueOf(LevelUtil.getHardCap())) >= 0) {
-					this.voiceExperience = LevelUtil.getHardCap();
-				} else {
-					this.voiceExperience = exp.longValue();
-				}
+				textExperience.set(capExperience(data.get("textExp")));
+				voiceExperience.set(capExperience(data.get("voiceExp")));
 				this.lastUpdate = getOrDefault(data.get("lastUpdate"), 0L);
 			}
 		}
 
-		public long getExperience(ExpType expType) {
+		private static long capExperience(Object value) {
+			if (value == null) return 0;
+			BigInteger exp = new BigInteger(CastUtil.getOrDefault(String.valueOf(value), "0"));
+			if (exp.compareTo(BigInteger.valueOf(LevelUtil.getHardCap())) >= 0) {
+				return LevelUtil.getHardCap();
+			}
+			return exp.longValue();
+		}
+
+		private AtomicLong counter(ExpType expType) {
 			return switch (expType) {
 				case TEXT -> textExperience;
 				case VOICE -> voiceExperience;
-				case TOTAL -> textExperience+voiceExperience;
+				case TOTAL -> throw new IllegalArgumentException("Total experience can not be modified");
+			};
+		}
+
+		public long getExperience(ExpType expType) {
+			return switch (expType) {
+				case TEXT -> textExperience.get();
+				case VOICE -> voiceExperience.get();
+				case TOTAL -> textExperience.get()+voiceExperience.get();
 			};
 		}
 
 		public long getAddedGlobalExperience() {
-			return addedGlobalExperience;
+			return addedGlobalExperience.get();
+		}
+
+		// textExp, voiceExp, added globalExp, lastUpdate; added global experience is reset
+		long[] takeUpdateValues() {
+			long added = addedGlobalExperience.getAndSet(0);
+			return new long[]{textExperience.get(), voiceExperience.get(), added, lastUpdate};
+		}
+
+		void restoreAddedGlobalExperience(long amount) {
+			addedGlobalExperience.addAndGet(amount);
 		}
 
 		public void setExperience(long experience, ExpType expType) {
-			switch (expType) {
-				case TEXT -> textExperience = experience;
-				case VOICE -> voiceExperience = experience;
-			}
-			this.lastUpdate = Instant.now().toEpochMilli();
+			counter(expType).set(experience);
+			this.lastUpdate = System.currentTimeMillis();
 		}
 
-		public void incrementExperienceBy(long amount, ExpType expType) {
-			switch (expType) {
-				case TEXT -> textExperience += amount;
-				case VOICE -> voiceExperience += amount;
-			}
-			this.addedGlobalExperience += amount;
-			this.lastUpdate = Instant.now().toEpochMilli();
+		/**
+		 * @return new experience of this type
+		 */
+		public long incrementExperienceBy(long amount, ExpType expType) {
+			long experience = counter(expType).addAndGet(amount);
+			addedGlobalExperience.addAndGet(amount);
+			this.lastUpdate = System.currentTimeMillis();
+			return experience;
 		}
 
-		public void decreaseExperienceBy(long amount, ExpType expType) {
-			switch (expType) {
-				case TEXT -> textExperience -= amount;
-				case VOICE -> voiceExperience -= amount;
-			}
-			this.lastUpdate = Instant.now().toEpochMilli();
+		/**
+		 * @return new experience of this type
+		 */
+		public long decreaseExperienceBy(long amount, ExpType expType) {
+			long experience = counter(expType).addAndGet(-amount);
+			this.lastUpdate = System.currentTimeMillis();
+			return experience;
 		}
 
 		public void clearExperience() {
-			this.textExperience = 0;
-			this.voiceExperience = 0;
-			this.lastUpdate = Instant.now().toEpochMilli();
+			textExperience.set(0);
+			voiceExperience.set(0);
+			this.lastUpdate = System.currentTimeMillis();
 		}
 
 		public long getLastUpdate() {
@@ -308,28 +440,15 @@ public class LevelManager extends LiteDBBase {
 	}
 
 	public class TopInfo {
-		private final Map<Integer, TopUser> textTop = new HashMap<>();
-		private final Map<Integer, TopUser> voiceTop = new HashMap<>();
-
-		public TopInfo(List<Map<String, Object>> data, int limitRank) {
-			for (Map<String, Object> row : data) {
-				long userId = requireNonNull(row.get("userId"));
-
-				if (row.containsKey("textExp")) {
-					long exp = castLong(row.get("textExp"));
-					int rank = requireNonNull(row.get("textRank"));
-					if (exp > 0 && rank <= limitRank) {
-						textTop.put(rank, new TopUser(userId, exp));
-					}
-				}
-
-				if (row.containsKey("voiceExp")) {
-					int rank = requireNonNull(row.get("voiceRank"));
-					long exp = castLong(row.get("voiceExp"));
-					if (exp > 0 && rank <= limitRank) {
-						voiceTop.put(rank, new TopUser(userId, exp));
-					}
-				}
+		private final Map<Integer, TopUser> textTop = new LinkedHashMap<>();
+		private final Map<Integer, TopUser> voiceTop = new LinkedHashMap<>();
+
+		public TopInfo(List<TopUser> text, List<TopUser> voice) {
+			for (int i = 0; i < text.size(); i++) {
+				textTop.put(i+1, text.get(i));
+			}
+			for (int i = 0; i < voice.size(); i++) {
+				voiceTop.put(i+1, voice.get(i));
 			}
 		}
 
@@ -2,8 +2,7 @@ package union.utils.database.managers;
 
 import org.jetbrains.annotations.Nullable;
 import union.objects.ExpType;
-import union.objects.constants.Constants;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -20,25 +19,25 @@ import static union.utils.CastUtil.requireNonNull;
 public class LevelRolesManager extends LiteDBBase {
 
 	// cache
-	private final FixedCache<Long, LevelRoleData> cache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, LevelRoleData> cache = new SettingsCache<>("levelRoles");
 
 	public LevelRolesManager(ConnectionUtil cu) {
 		super(cu, "levelRoles");
 	}
 
 	public void add(long guildId, int level, String roleIds, boolean exact, ExpType type) throws SQLException {
+		execute("INSERT INTO %s(guildId, level, roles, exact, type) VALUES (?, ?, ?, ?, ?) ON CONFLICT(guildId, level, type) DO UPDATE SET roles=excluded.roles, exact=excluded.exact, type=excluded.type".formatted(table), guildId, level, roleIds, exact, type.ordinal());
 		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, level, roles, exact, type) VALUES (%d, %d, %s, %d, %d) ON CONFLICT(guildId, level, type) DO UPDATE SET roles=%4$s, exact=%5$d, type=%6$d".formatted(table, guildId, level, quote(roleIds), exact?1:0, type.ordinal()));
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
 		invalidateCache(guildId);
-		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
 	}
 
 	public void remove(long guildId, int level) throws SQLException {
+		execute("DELETE FROM %s WHERE (guildId=? AND level=?)".formatted(table), guildId, level);
 		invalidateCache(guildId);
-		execute("DELETE FROM %s WHERE (guildId=%d AND level=%d)".formatted(table, guildId, level));
 	}
 
 	public Set<Long> getRoles(long guildId, int level, ExpType expType) {
@@ -47,15 +46,11 @@ public class LevelRolesManager extends LiteDBBase {
 
 	@Nullable
 	public LevelRoleData getAllLevels(long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId);
-		LevelRoleData data = getData(guildId);
-		cache.put(guildId, data);
-		return data;
+		return cache.get(guildId, this::getData);
 	}
 
 	private LevelRoleData getData(long guildId) {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=%d)".formatted(table, guildId), Set.of("level", "roles", "type"));
+		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=?)".formatted(table), Set.of("level", "roles", "type"), guildId);
 		if (data.isEmpty()) return new LevelRoleData();
 		return new LevelRoleData(data);
 	}
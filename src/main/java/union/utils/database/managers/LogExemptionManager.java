@@ -1,37 +1,55 @@
 package union.utils.database.managers;
 
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
-import union.objects.constants.Constants;
-import union.utils.FixedCache;
+import union.utils.CastUtil;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
 public class LogExemptionManager extends LiteDBBase {
 
 	// Cache
-	private final FixedCache<Long, Set<Long>> cache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, Set<Long>> cache = new SettingsCache<>("logExemptions");
 	
 	public LogExemptionManager(ConnectionUtil cu) {
 		super(cu, "logExceptions");
 	}
 
 	public void addExemption(long guildId, long targetId) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, targetId) VALUES (%s, %s)".formatted(table, guildId, targetId));
+		execute("INSERT INTO %s(guildId, targetId) VALUES (?, ?)".formatted(table), guildId, targetId);
+		cache.update(guildId, Set.of(), exemptions -> {
+			Set<Long> updated = new HashSet<>(exemptions);
+			updated.add(targetId);
+			return updated;
+		});
 	}
 
 	public void removeExemption(long guildId, long targetId) throws SQLException {
-		invalidateCache(guildId);
-		execute("DELETE FROM %s WHERE (guildId=%s AND targetId=%s)".formatted(table, guildId, targetId));
+		execute("DELETE FROM %s WHERE (guildId=? AND targetId=?)".formatted(table), guildId, targetId);
+		removeCached(guildId, targetId);
+	}
+
+	// Does not wait for the database, used from event listeners
+	public CompletableFuture<Void> removeExemptionAsync(long guildId, long targetId) {
+		removeCached(guildId, targetId);
+		return executeAsync("DELETE FROM %s WHERE (guildId=? AND targetId=?)".formatted(table), guildId, targetId)
+			.whenComplete((v, ex) -> {
+				// Row was not removed, read it back
+				if (ex != null) cache.update(guildId, Set.of(), exemptions -> loadExemptions(guildId));
+			});
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		invalidateCache(guildId);
-		execute("DELETE FROM %s WHERE (guildId=%s)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
+		cache.put(guildId, Set.of());
 	}
 
 	public boolean isExemption(long guildId, long targetId) {
@@ -39,15 +57,35 @@ public class LogExemptionManager extends LiteDBBase {
 	}
 
 	public Set<Long> getExemptions(long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId);
-		List<Long> data = select("SELECT * FROM %s WHERE (guildId=%d)".formatted(table, guildId), "targetId", Long.class);
-		Set<Long> dataSet = data.isEmpty() ? Set.of() : new HashSet<>(data);
-		cache.put(guildId, dataSet);
-		return dataSet;
+		return cache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (cache.isComplete()) return Set.of();
+			return loadExemptions(id);
+		});
+	}
+
+	/**
+	 * Caches exemptions of all guilds with one query.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> data = selectByGuild("SELECT * FROM %s".formatted(table), Set.of("targetId"));
+		Map<Long, Set<Long>> exemptions = new HashMap<>(data.size());
+		data.forEach((guildId, rows) -> exemptions.put(guildId, rows.stream().map(row -> CastUtil.castLong(row.get("targetId"))).collect(Collectors.toSet())));
+		cache.preload(exemptions);
+		return data.size();
+	}
+
+	private Set<Long> loadExemptions(long guildId) {
+		List<Long> data = select("SELECT * FROM %s WHERE (guildId=?)".formatted(table), "targetId", Long.class, guildId);
+		return data.isEmpty() ? Set.of() : new HashSet<>(data);
 	}
 
-	private void invalidateCache(long guildId) {
-		cache.pull(guildId);
+	private void removeCached(long guildId, long targetId) {
+		cache.update(guildId, Set.of(), exemptions -> {
+			Set<Long> updated = new HashSet<>(exemptions);
+			updated.remove(targetId);
+			return updated;
+		});
 	}
 }
@@ -16,24 +16,22 @@ public class ModReportManager extends LiteDBBase {
 	}
 
 	public void setup(long guildId, long channelId, String roleIds, LocalDateTime nextReport, int interval) throws SQLException {
-		execute(("INSERT INTO %s(guildId, channelId, roleIds, nextReport, interval) VALUES (%d, %d, %s, %d, %d)"+
-			"ON CONFLICT(guildId) DO UPDATE SET channelId=%3$d, roleIds=%4$s, nextReport=%5$d, interval=%6$d"
-			).formatted(table, guildId, channelId, quote(roleIds), nextReport.toEpochSecond(ZoneOffset.UTC), interval));
+		execute(("INSERT INTO %s(guildId, channelId, roleIds, nextReport, interval) VALUES (?, ?, ?, ?, ?)"+
+			"ON CONFLICT(guildId) DO UPDATE SET channelId=excluded.channelId, roleIds=excluded.roleIds, nextReport=excluded.nextReport, interval=excluded.interval"
+			).formatted(table), guildId, channelId, roleIds, nextReport.toEpochSecond(ZoneOffset.UTC), interval);
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId = %d)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId = ?)".formatted(table), guildId);
 	}
 
 	public void updateNext(long channelId, LocalDateTime nextReport) throws SQLException {
-		execute("UPDATE %s SET nextReport = %d WHERE (channelId = %d)"
-			.formatted(table, nextReport.toEpochSecond(ZoneOffset.UTC), channelId));
+		execute("UPDATE %s SET nextReport = ? WHERE (channelId = ?)".formatted(table), nextReport.toEpochSecond(ZoneOffset.UTC), channelId);
 	}
 
 	public List<Map<String, Object>> getExpired(LocalDateTime now) {
-		List<Map<String, Object>> list = select("SELECT * FROM %s WHERE (nextReport<=%d)"
-			.formatted(table, now.toEpochSecond(ZoneOffset.UTC)),
-			Set.of("guildId", "channelId", "roleIds", "nextReport", "interval")
+		List<Map<String, Object>> list = select("SELECT * FROM %s WHERE (nextReport<=?)".formatted(table),
+			Set.of("guildId", "channelId", "roleIds", "nextReport", "interval"), now.toEpochSecond(ZoneOffset.UTC)
 		);
 		if (list.isEmpty()) return List.of();
 		return list;
@@ -0,0 +1,107 @@
+package union.utils.database.managers;
+
+import union.utils.database.ConnectionUtil;
+import union.utils.database.LiteDBBase;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static union.utils.CastUtil.castLong;
+
+/**
+ * Daily counts of cases and closed tickets by moderator.
+ * Rows are incremented with case creation and ticket closing, so statistics sum few rows instead of scanning cases and tickets.
+ * <p>Counts are kept per UTC day, interval bounds are rounded to whole days.
+ */
+public class ModStatsManager extends LiteDBBase {
+
+	static final String TABLE = "modStats";
+	// Ticket counts are stored along with case types
+	public static final int TYPE_TICKET_ROLES = -1;
+	public static final int TYPE_TICKET_OTHER = -2;
+
+	// Increments count of (guildId, modId, day, type)
+	static final String INCREMENT = "INSERT INTO %s(guildId, modId, day, type, count) VALUES (?, ?, ?, ?, 1) ON CONFLICT(guildId, modId, day, type) DO UPDATE SET count=count+1"
+		.formatted(TABLE);
+
+	public ModStatsManager(ConnectionUtil cu) {
+		super(cu, TABLE);
+	}
+
+	static long day(long epochSecond) {
+		return Math.floorDiv(epochSecond, 86400);
+	}
+
+	// Day of the last second before given time
+	private static long lastDay(long epochSecond) {
+		return day(epochSecond-1);
+	}
+
+	// Cases
+	public Map<Integer, Integer> countCases(long guildId, long modId) {
+		return toTypeMap(select("SELECT type, SUM(count) AS cc FROM %s WHERE (guildId=? AND modId=? AND type>=0) GROUP BY type".formatted(table),
+			Set.of("type", "cc"), guildId, modId));
+	}
+
+	public Map<Integer, Integer> countCases(long guildId, long modId, Instant afterTime) {
+		return toTypeMap(select("SELECT type, SUM(count) AS cc FROM %s WHERE (guildId=? AND modId=? AND type>=0 AND day>=?) GROUP BY type".formatted(table),
+			Set.of("type", "cc"), guildId, modId, day(afterTime.getEpochSecond())));
+	}
+
+	public Map<Integer, Integer> countCases(long guildId, long modId, LocalDateTime afterTime, LocalDateTime beforeTime) {
+		return toTypeMap(select("SELECT type, SUM(count) AS cc FROM %s WHERE (guildId=? AND modId=? AND type>=0 AND day>=? AND day<=?) GROUP BY type".formatted(table),
+			Set.of("type", "cc"), guildId, modId, day(afterTime.toEpochSecond(ZoneOffset.UTC)), lastDay(beforeTime.toEpochSecond(ZoneOffset.UTC))));
+	}
+
+	// Tickets
+	public int countTickets(long guildId, long modId, boolean roleTag) {
+		return count("SELECT SUM(count) FROM %s WHERE (guildId=? AND modId=? AND type=?)".formatted(table),
+			guildId, modId, ticketType(roleTag));
+	}
+
+	public int countTickets(long guildId, long modId, Instant afterTime, boolean roleTag) {
+		return count("SELECT SUM(count) FROM %s WHERE (guildId=? AND modId=? AND type=? AND day>=?)".formatted(table),
+			guildId, modId, ticketType(roleTag), day(afterTime.getEpochSecond()));
+	}
+
+	public int countTickets(long guildId, long modId, LocalDateTime afterTime, LocalDateTime beforeTime, boolean roleTag) {
+		return count("SELECT SUM(count) FROM %s WHERE (guildId=? AND modId=? AND type=? AND day>=? AND day<=?)".formatted(table),
+			guildId, modId, ticketType(roleTag), day(afterTime.toEpochSecond(ZoneOffset.UTC)), lastDay(beforeTime.toEpochSecond(ZoneOffset.UTC)));
+	}
+
+	/**
+	 * Counts of all moderators of the guild with one query.
+	 * @return moderator ID to type counts, tickets are under {@link #TYPE_TICKET_ROLES} and {@link #TYPE_TICKET_OTHER}
+	 */
+	public Map<Long, Map<Integer, Integer>> countByMods(long guildId, LocalDateTime afterTime, LocalDateTime beforeTime) {
+		List<Map<String, Object>> data = select("SELECT modId, type, SUM(count) AS cc FROM %s WHERE (guildId=? AND day>=? AND day<=?) GROUP BY modId, type".formatted(table),
+			Set.of("modId", "type", "cc"), guildId, day(afterTime.toEpochSecond(ZoneOffset.UTC)), lastDay(beforeTime.toEpochSecond(ZoneOffset.UTC)));
+		if (data.isEmpty()) return Collections.emptyMap();
+		Map<Long, Map<Integer, Integer>> result = new HashMap<>();
+		for (Map<String, Object> row : data) {
+			result.computeIfAbsent(castLong(row.get("modId")), k -> new HashMap<>())
+				.put((Integer) row.get("type"), (Integer) row.get("cc"));
+		}
+		return result;
+	}
+
+	static int ticketType(boolean roleTag) {
+		return roleTag ? TYPE_TICKET_ROLES : TYPE_TICKET_OTHER;
+	}
+
+	private Map<Integer, Integer> toTypeMap(List<Map<String, Object>> data) {
+		if (data.isEmpty()) return Collections.emptyMap();
+		Map<Integer, Integer> result = new HashMap<>(data.size());
+		for (Map<String, Object> row : data) {
+			result.put((Integer) row.get("type"), (Integer) row.get("cc"));
+		}
+		return result;
+	}
+
+}
@@ -1,8 +1,9 @@
 package union.utils.database.managers;
 
-import union.objects.constants.Constants;
+import union.services.ExpirationScheduler;
+import union.services.ExpirationScheduler.Expiration;
 import union.utils.CastUtil;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -23,49 +24,50 @@ public class PersistentManager extends LiteDBBase {
 	private final String table_return = "returnRole";
 
 	// Cache
-	private final FixedCache<Long, List<Long>> roleCache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE); // GuildId - Role Ids
-	private final FixedCache<Long, Map<Long, List<Long>>> returnCache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE); // GuildId - UserId and Role Ids //
+	private final SettingsCache<Long, List<Long>> roleCache = new SettingsCache<>("persistent.roles"); // GuildId - Role Ids
+	private final SettingsCache<Long, Map<Long, List<Long>>> returnCache = new SettingsCache<>("persistent.return"); // GuildId - UserId and Role Ids //
 
 	public PersistentManager(ConnectionUtil cu) {
 		super(cu, null);
 	}
 
 	public void addRole(long guildId, long roleId) throws SQLException {
+		execute("INSERT INTO %s(guildId, roleId) VALUES (?, ?)".formatted(table_role), guildId, roleId);
 		invalidateRoleCache(guildId);
-		execute("INSERT INTO %s(guildId, roleId) VALUES (%d, %d)".formatted(table_role, guildId, roleId));
 	}
 
 	public void removeRole(long guildId, long roleId) throws SQLException {
+		execute("DELETE FROM %s WHERE (roleId = ?)".formatted(table_role), roleId);
 		invalidateRoleCache(guildId);
-		execute("DELETE FROM %s WHERE (roleId = %d)".formatted(table_role, roleId));
 	}
 
 	public List<Long> getRoles(long guildId) {
-		if (roleCache.contains(guildId))
-			return roleCache.get(guildId);
-		List<Long> data = getRolesData(guildId);
-		if (data.isEmpty())
-			data = List.of();
-		roleCache.put(guildId, data);
-		return data;
+		return roleCache.get(guildId, id -> {
+			List<Long> data = getRolesData(id);
+			if (data.isEmpty())
+				data = List.of();
+			return data;
+		});
 	}
 
 	private List<Long> getRolesData(long guildId) {
-		return select("SELECT roleId FROM %s WHERE (guildId=%d)".formatted(table_role, guildId), "roleId", Long.class);
+		return select("SELECT roleId FROM %s WHERE (guildId=?)".formatted(table_role), "roleId", Long.class, guildId);
 	}
 
 
-	public void addUser(long guildId, long userId, List<Long> roleIds) throws SQLException {
+	// Does not wait for the database, cache is updated right away
+	public void addUser(long guildId, long userId, List<Long> roleIds) {
 		// Add to cache
 		Map<Long, List<Long>> data = getUsers(guildId);
-		data.put(guildId, roleIds);
+		data.put(userId, roleIds);
 		// Add to db
 		final String text = roleIds.stream().map(String::valueOf).collect(Collectors.joining(";"));
-		execute("INSERT INTO %s(guildId, userId, roleIds, expiresAfter) VALUES (%d, %d, %s, %d) ON CONFLICT(guildId, userId) DO UPDATE SET roleIds=%4$s, expiresAfter=%5$d"
-			.formatted(table_return, guildId, userId, quote(text), Instant.now().plus(Duration.ofDays(30)).getEpochSecond()));
+		executeAsync("INSERT INTO %s(guildId, userId, roleIds, expiresAfter) VALUES (?, ?, ?, ?) ON CONFLICT(guildId, userId) DO UPDATE SET roleIds=excluded.roleIds, expiresAfter=excluded.expiresAfter"
+			.formatted(table_return), guildId, userId, text, Instant.now().plus(Duration.ofDays(30)).getEpochSecond());
 	}
 
-	public List<Long> getUserRoles(long guildId, long userId) throws SQLException {
+	// Does not wait for the database, cache is updated right away
+	public List<Long> getUserRoles(long guildId, long userId) {
 		// Get and remove from cache
 		Map<Long, List<Long>> data = getUsers(guildId);
 		if (data.isEmpty() || !data.containsKey(userId))
@@ -74,38 +76,32 @@ public class PersistentManager extends LiteDBBase {
 		List<Long> roleIds = data.get(userId);
 		data.remove(userId);
 		// Remove from bd
-		execute("DELETE FROM %s WHERE (guildId=%d AND userId=%d)".formatted(table_return, guildId, userId));
+		executeAsync("DELETE FROM %s WHERE (guildId=? AND userId=?)".formatted(table_return), guildId, userId);
 		// Return
 		return Collections.unmodifiableList(roleIds);
 	}
 
-	public void removeExpired() {
-		List<Map<String, Object>> data = select("SELECT guildId, userId FROM %s WHERE (expiresAfter<=%d)"
-			.formatted(table_return, Instant.now().getEpochSecond()), Set.of("guildId", "userId"));
-		if (data.isEmpty()) return;
-		for (Map<String, Object> row : data) {
-			long guildId = CastUtil.castLong(row.get("guildId"));
-			long userId = CastUtil.castLong(row.get("userId"));
-			// Remove from cache
-			Map<Long, List<Long>> guildCache = getUsers(guildId);
-			guildCache.remove(userId);
-			// Remove from bd
-			try {
-				execute("DELETE FROM %s WHERE (guildId=%d AND userId=%d)".formatted(table_return, guildId, userId));
-			} catch (SQLException ignored) {}
-		}
+	public List<Expiration> getPendingExpirations(long until) {
+		List<Map<String, Object>> data = select("SELECT guildId, userId, expiresAfter FROM %s WHERE (expiresAfter<=?)".formatted(table_return),
+			Set.of("guildId", "userId", "expiresAfter"), until);
+		if (data.isEmpty()) return List.of();
+		return data.stream()
+			.map(m -> new Expiration(ExpirationScheduler.Type.RETURN_ROLE, CastUtil.castLong(m.get("guildId")), CastUtil.castLong(m.get("userId")), CastUtil.castLong(m.get("expiresAfter"))))
+			.toList();
+	}
+
+	// Removes saved roles, if they were not saved again meanwhile
+	public void removeExpired(long guildId, long userId) {
+		executeAsync("DELETE FROM %s WHERE (guildId=? AND userId=? AND expiresAfter<=?)".formatted(table_return), guildId, userId, Instant.now().getEpochSecond())
+			.thenRun(() -> invalidateReturnCache(guildId));
 	}
 
 	private Map<Long, List<Long>> getUsers(long guildId) {
-		if (returnCache.contains(guildId))
-			return returnCache.get(guildId);
-		Map<Long, List<Long>> data = new HashMap<>(getUsersData(guildId));
-		returnCache.put(guildId, data);
-		return data;
+		return returnCache.get(guildId, id -> new HashMap<>(getUsersData(id)));
 	}
 
 	private Map<Long, List<Long>> getUsersData(long guildId) {
-		List<Map<String, Object>> data = select("SELECT userId, roleIds FROM %s WHERE (guildId=%d)".formatted(table_return, guildId), Set.of("userId", "roleIds"));
+		List<Map<String, Object>> data = select("SELECT userId, roleIds FROM %s WHERE (guildId=?)".formatted(table_return), Set.of("userId", "roleIds"), guildId);
 		if (data.isEmpty()) return Map.of();
 		return data.stream().collect(Collectors.toMap(
 			m -> (Long) m.get("userId"),
@@ -115,10 +111,10 @@ public class PersistentManager extends LiteDBBase {
 
 
 	public void removeGuild(long guildId) throws SQLException {
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table_role), guildId);
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table_return), guildId);
 		invalidateRoleCache(guildId);
 		invalidateReturnCache(guildId);
-		execute("DELETE FROM %1$s WHERE (guildId = %3$d); DELETE FROM %2$s WHERE (guildId = %3$d);"
-			.formatted(table_role, table_return, guildId));
 	}
 
 	private void invalidateRoleCache(long guildId) {
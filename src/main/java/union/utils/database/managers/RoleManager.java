@@ -23,85 +23,83 @@ public class RoleManager extends LiteDBBase {
 	}
 
 	public void add(long guildId, long roleId, String description, Integer row, RoleType roleType, String discordInvite) throws SQLException {
-		execute("INSERT INTO %s(guildId, roleId, description, type, row, discordInvite) VALUES (%s, %s, %s, %d, %d, %s)"
-			.formatted(table, guildId, roleId, quote(description), roleType.getType(), Optional.ofNullable(row).orElse(0), quote(discordInvite)));
+		execute("INSERT INTO %s(guildId, roleId, description, type, row, discordInvite) VALUES (?, ?, ?, ?, ?, ?)".formatted(table), guildId, roleId, description, roleType.getType(), Optional.ofNullable(row).orElse(0), discordInvite);
 	}
 
 	public void remove(long roleId) throws SQLException {
-		execute("DELETE FROM %s WHERE (roleId=%s)".formatted(table, roleId));
+		execute("DELETE FROM %s WHERE (roleId=?)".formatted(table), roleId);
 	}
 
 	public void removeAll(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%s)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
 	}
 
 	public List<RoleData> getRolesByType(long guildId, RoleType type) {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=%s AND type=%d)"
-			.formatted(table, guildId, type.getType()), Set.of("roleId", "description"));
+		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=? AND type=?)".formatted(table), Set.of("roleId", "description"), guildId, type.getType());
 		if (data.isEmpty()) return List.of();
 		return data.stream().map(m -> new RoleData(m, type)).toList();
 	}
 
 	public List<Map<String, Object>> getAssignable(long guildId) {
-		return select("SELECT * FROM %s WHERE (guildId=%s AND type IN (%d, %d))"
-			.formatted(table, guildId, RoleType.ASSIGN.getType(), RoleType.ASSIGN_TEMP.getType()),
-			Set.of("roleId", "description", "row")
+		return select("SELECT * FROM %s WHERE (guildId=? AND type IN (?, ?))".formatted(table),
+			Set.of("roleId", "description", "row"),
+			guildId, RoleType.ASSIGN.getType(), RoleType.ASSIGN_TEMP.getType()
 		);
 	}
 
 	public List<RoleData> getAssignableByRow(long guildId, int row) {
-		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=%s AND type IN (%d, %d) AND row=%d)"
-			.formatted(table, guildId, RoleType.ASSIGN.getType(), RoleType.ASSIGN_TEMP.getType(), row),
-			Set.of("roleId", "type", "description", "discordInvite")
+		List<Map<String, Object>> data = select("SELECT * FROM %s WHERE (guildId=? AND type IN (?, ?) AND row=?)".formatted(table),
+			Set.of("roleId", "type", "description", "discordInvite"),
+			guildId, RoleType.ASSIGN.getType(), RoleType.ASSIGN_TEMP.getType(), row
 		);
 		if (data.isEmpty()) return List.of();
 		return data.stream().map(RoleData::new).toList();
 	}
 
 	public List<Map<String, Object>> getToggleable(long guildId) {
-		return select("SELECT * FROM %s WHERE (guildId=%s AND type=%d)".formatted(table, guildId, RoleType.TOGGLE.getType()), Set.of("roleId", "description"));
+		return select("SELECT * FROM %s WHERE (guildId=? AND type=?)".formatted(table), Set.of("roleId", "description"), guildId, RoleType.TOGGLE.getType());
 	}
 
 	public List<Map<String, Object>> getCustom(long guildId) {
-		return select("SELECT * FROM %s WHERE (guildId=%s AND type=%d)".formatted(table, guildId, RoleType.CUSTOM.getType()), Set.of("roleId", "description"));
+		return select("SELECT * FROM %s WHERE (guildId=? AND type=?)".formatted(table), Set.of("roleId", "description"), guildId, RoleType.CUSTOM.getType());
 	}
 
 	public Map<Long, String> getRolesWithInvites(long guildId) {
-		List<Map<String, Object>> data = select("SELECT roleId, discordInvite FROM %s WHERE (guildId=%s AND discordInvite IS NOT NULL)".formatted(table, guildId),
-			Set.of("roleId", "discordInvite")
+		List<Map<String, Object>> data = select("SELECT roleId, discordInvite FROM %s WHERE (guildId=? AND discordInvite IS NOT NULL)".formatted(table),
+			Set.of("roleId", "discordInvite"), guildId
 		);
 		if (data.isEmpty()) return Collections.emptyMap();
 		return data.stream().collect(Collectors.toMap(s -> castLong(s.get("roleId")), s -> (String) s.get("discordInvite")));
 	}
 
 	public Integer getRowSize(long guildId, int row) {
-		return count("SELECT COUNT(*) FROM %s WHERE (guildId=%s AND row=%d)".formatted(table, guildId, row));
+		return count("SELECT COUNT(*) FROM %s WHERE (guildId=? AND row=?)".formatted(table), guildId, row);
 	}
 
 	public Integer countRoles(long guildId, RoleType type) {
-		return count("SELECT COUNT(*) FROM %s WHERE (guildId=%s AND type=%d)".formatted(table, guildId, type.getType()));
+		return count("SELECT COUNT(*) FROM %s WHERE (guildId=? AND type=?)".formatted(table), guildId, type.getType());
 	}
 
 	public String getDescription(long roleId) {
-		return selectOne("SELECT description FROM %s WHERE (roleId=%s)".formatted(table, roleId), "description", String.class);
+		return selectOne("SELECT description FROM %s WHERE (roleId=?)".formatted(table), "description", String.class, roleId);
 	}
 
 	public RoleType getType(long roleId) {
-		Integer data = selectOne("SELECT type FROM %s WHERE (roleId=%s)".formatted(table, roleId), "type", Integer.class);
+		Integer data = selectOne("SELECT type FROM %s WHERE (roleId=?)".formatted(table), "type", Integer.class, roleId);
 		if (data == null) return null;
 		return RoleType.byType(data);
 	}
 
 	public void setDescription(long roleId, String description) throws SQLException {
-		execute("UPDATE %s SET description=%s WHERE (roleId=%s)".formatted(table, quote(description), roleId));
+		execute("UPDATE %s SET description=? WHERE (roleId=?)".formatted(table), description, roleId);
 	}
 
 	public void setRow(long roleId, Integer row) throws SQLException {
-		execute("UPDATE %s SET row=%d WHERE (roleId=%s)".formatted(table, Optional.ofNullable(row).orElse(0), roleId));
+		execute("UPDATE %s SET row=? WHERE (roleId=?)".formatted(table), Optional.ofNullable(row).orElse(0), roleId);
 	}
 
 	public void setInvite(long roleId, String discordInvite) throws SQLException {
-		execute("UPDATE %s SET discordInvite=%s WHERE (roleId=%s)".formatted(table, quote(discordInvite), roleId));
+		execute("UPDATE %s SET discordInvite=? WHERE (roleId=?)".formatted(table), discordInvite, roleId);
 	}
 
 	public boolean isToggleable(long roleId) {
@@ -115,7 +113,7 @@ public class RoleManager extends LiteDBBase {
 	}
 
 	public boolean existsRole(long roleId) {
-		return selectOne("SELECT roleId FROM %s WHERE (roleId=%s)".formatted(table, roleId), "roleId", Long.class) != null;
+		return selectOne("SELECT roleId FROM %s WHERE (roleId=?)".formatted(table), "roleId", Long.class, roleId) != null;
 	}
 
 	public static class RoleData {
@@ -6,6 +6,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import union.services.ExpirationScheduler;
+import union.services.ExpirationScheduler.Expiration;
+import union.utils.CastUtil;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -13,49 +16,65 @@ import net.dv8tion.jda.internal.utils.tuple.Pair;
 
 public class StrikeManager extends LiteDBBase {
 
-	public StrikeManager(ConnectionUtil cu) {
+	private final ExpirationScheduler expirations;
+
+	public StrikeManager(ConnectionUtil cu, ExpirationScheduler expirations) {
 		super(cu, "strikeExpire");
+		this.expirations = expirations;
 	}
 
 	public void addStrikes(long guildId, long userId, Instant expireAfter, int count, String caseInfo) throws SQLException {
-		execute("INSERT INTO %s(guildId, userId, expireAfter, count, data, lastAddition) VALUES (%d, %d, %d, %d, %s, %s) ON CONFLICT(guildId, userId) DO UPDATE SET count=count+%5$d, data=data || ';' || %6$s, lastAddition=%7$s"
-			.formatted(table, guildId, userId, expireAfter.getEpochSecond(), count, quote(caseInfo), Instant.now().getEpochSecond()));
+		execute("INSERT INTO %s(guildId, userId, expireAfter, count, data, lastAddition) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT(guildId, userId) DO UPDATE SET count=count+excluded.count, data=data || ';' || excluded.data, lastAddition=excluded.lastAddition"
+			.formatted(table), guildId, userId, expireAfter.getEpochSecond(), count, caseInfo, Instant.now().getEpochSecond());
+		// Existing entry keeps its time, handler checks actual time
+		expirations.schedule(ExpirationScheduler.Type.STRIKE, guildId, userId, expireAfter.getEpochSecond());
 	}
 
 	public Integer getStrikeCount(long guildId, long userId) {
-		return selectOne("SELECT count FROM %s WHERE (guildId=%d AND userId=%d)".formatted(table, guildId, userId), "count", Integer.class);
+		return selectOne("SELECT count FROM %s WHERE (guildId=? AND userId=?)".formatted(table), "count", Integer.class, guildId, userId);
+	}
+
+	public List<Expiration> getPendingExpirations(long until) {
+		List<Map<String, Object>> data = select("SELECT guildId, userId, expireAfter FROM %s WHERE (expireAfter<?)".formatted(table), Set.of("guildId", "userId", "expireAfter"), until);
+		if (data.isEmpty()) return List.of();
+		return data.stream()
+			.map(m -> new Expiration(ExpirationScheduler.Type.STRIKE, CastUtil.castLong(m.get("guildId")), CastUtil.castLong(m.get("userId")), CastUtil.castLong(m.get("expireAfter"))))
+			.toList();
 	}
 
-	public List<Map<String, Object>> getExpired(Instant time) {
-		return select("SELECT * FROM %s WHERE (expireAfter<%d)".formatted(table, time.getEpochSecond()), Set.of("guildId", "userId", "count", "data"));
+	public Map<String, Object> getExpireData(long guildId, long userId) {
+		return selectOne("SELECT count, data, expireAfter FROM %s WHERE (guildId=? AND userId=?)".formatted(table), Set.of("count", "data", "expireAfter"), guildId, userId);
 	}
 
 	public Pair<Integer, String> getData(long guildId, long userId) {
-		Map<String, Object> data = selectOne("SELECT count, data FROM %s WHERE (guildId=%d AND userId=%d)".formatted(table, guildId, userId), Set.of("count", "data"));
+		Map<String, Object> data = selectOne("SELECT count, data FROM %s WHERE (guildId=? AND userId=?)".formatted(table), Set.of("count", "data"), guildId, userId);
 		if (data == null || data.isEmpty()) return null;
 		return Pair.of((Integer) data.get("count"), (String) data.getOrDefault("data", ""));
 	}
 
 	public Pair<Integer, Integer> getDataCountAndDate(long guildId, long userId) {
-		Map<String, Object> data = selectOne("SELECT count, expireAfter FROM %s WHERE (guildId=%d AND userId=%d)".formatted(table, guildId, userId), Set.of("count", "expireAfter"));
+		Map<String, Object> data = selectOne("SELECT count, expireAfter FROM %s WHERE (guildId=? AND userId=?)".formatted(table), Set.of("count", "expireAfter"), guildId, userId);
 		if (data == null) return null;
 		return Pair.of((Integer) data.get("count"), (Integer) data.get("expireAfter"));
 	}
 
 	public void removeStrike(long guildId, long userId, Instant expireAfter, int amount, String newData) throws SQLException {
-		execute("UPDATE %s SET expireAfter=%d, count=count-%d, data=%s WHERE (guildId=%d AND userId=%d)".formatted(table, expireAfter.getEpochSecond(), amount, quote(newData), guildId, userId));
+		execute("UPDATE %s SET expireAfter=?, count=count-?, data=? WHERE (guildId=? AND userId=?)".formatted(table), expireAfter.getEpochSecond(), amount, newData, guildId, userId);
+		expirations.schedule(ExpirationScheduler.Type.STRIKE, guildId, userId, expireAfter.getEpochSecond());
 	}
 
 	public void removeGuildUser(long guildId, long userId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%d AND userId=%d)".formatted(table, guildId, userId));
+		execute("DELETE FROM %s WHERE (guildId=? AND userId=?)".formatted(table), guildId, userId);
+		expirations.cancel(ExpirationScheduler.Type.STRIKE, guildId, userId);
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
+		expirations.cancelAll(ExpirationScheduler.Type.STRIKE, guildId);
 	}
 
 	public Instant getLastAddition(long guildId, long userId) {
-		Long data = selectOne("SELECT lastAddition FROM %s WHERE (guildId=%d AND userId=%d)".formatted(table, guildId, userId), "lastAddition", Long.class);
+		Long data = selectOne("SELECT lastAddition FROM %s WHERE (guildId=? AND userId=?)".formatted(table), "lastAddition", Long.class, guildId, userId);
 		return data==null ? null : Instant.ofEpochSecond(data);
 	}
 	
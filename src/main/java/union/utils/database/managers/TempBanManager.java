@@ -1,6 +1,8 @@
 package union.utils.database.managers;
 
-import net.dv8tion.jda.internal.utils.tuple.Pair;
+import union.services.ExpirationScheduler;
+import union.services.ExpirationScheduler.Expiration;
+import union.utils.CastUtil;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -9,31 +11,47 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class TempBanManager extends LiteDBBase {
-	public TempBanManager(ConnectionUtil cu) {
+	private final ExpirationScheduler expirations;
+
+	public TempBanManager(ConnectionUtil cu, ExpirationScheduler expirations) {
 		super(cu, "tempBan");
+		this.expirations = expirations;
 	}
 
 	public void add(long guildId, long userId, Instant until) throws SQLException {
-		execute("INSERT INTO %s(guildId, userId, until) VALUES (%s, %s, %s)".formatted(table, guildId, userId, until.getEpochSecond()));
+		execute("INSERT INTO %s(guildId, userId, until) VALUES (?, ?, ?)".formatted(table), guildId, userId, until.getEpochSecond());
+		expirations.schedule(ExpirationScheduler.Type.TEMP_BAN, guildId, userId, until.getEpochSecond());
 	}
 
 	public void remove(long guildId, long userId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%s AND userId=%s)".formatted(table, guildId, userId));
+		execute("DELETE FROM %s WHERE (guildId=? AND userId=?)".formatted(table), guildId, userId);
+		expirations.cancel(ExpirationScheduler.Type.TEMP_BAN, guildId, userId);
+	}
+
+	// Does not wait for the database
+	public CompletableFuture<Void> removeAsync(long guildId, long userId) {
+		return executeAsync("DELETE FROM %s WHERE (guildId=? AND userId=?)".formatted(table), guildId, userId);
 	}
 
 	public void removeGuild(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%s)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
+		expirations.cancelAll(ExpirationScheduler.Type.TEMP_BAN, guildId);
+	}
+
+	public Instant getUntil(long guildId, long userId) {
+		Long data = selectOne("SELECT until FROM %s WHERE (guildId=? AND userId=?)".formatted(table), "until", Long.class, guildId, userId);
+		return data==null ? null : Instant.ofEpochSecond(data);
 	}
 
-	/**
-	 * @return Pair of guildId and userId
-	 */
-	public List<Pair<Long, Long>> getExpired() {
-		List<Map<String, Object>> data = select("SELECT guildId, userId FROM %s WHERE (until<=%s)".formatted(table, Instant.now().getEpochSecond()), Set.of("guildId", "userId"));
+	public List<Expiration> getPendingExpirations(long until) {
+		List<Map<String, Object>> data = select("SELECT guildId, userId, until FROM %s WHERE (until<=?)".formatted(table), Set.of("guildId", "userId", "until"), until);
 		if (data.isEmpty()) return List.of();
-		return data.stream().map(v -> Pair.of((Long) v.get("guildId"), (Long) v.get("userId"))).toList();
+		return data.stream()
+			.map(m -> new Expiration(ExpirationScheduler.Type.TEMP_BAN, CastUtil.castLong(m.get("guildId")), CastUtil.castLong(m.get("userId")), CastUtil.castLong(m.get("until"))))
+			.toList();
 	}
 
 }
@@ -5,54 +5,74 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import union.services.ExpirationScheduler;
+import union.services.ExpirationScheduler.Expiration;
+import union.utils.CastUtil;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
 public class TempRoleManager extends LiteDBBase {
-	public TempRoleManager(ConnectionUtil cu) {
+	private final ExpirationScheduler expirations;
+
+	public TempRoleManager(ConnectionUtil cu, ExpirationScheduler expirations) {
 		super(cu, "tempRoles");
+		this.expirations = expirations;
 	}
 
 	public void add(long guildId, long roleId, long userId, Boolean deleteAfter, Instant expireAfter) throws SQLException {
-		execute("INSERT INTO %s(guildId, roleId, userId, deleteAfter, expireAfter) VALUES (%s, %s, %s, %d, %d)"
-			.formatted(table, guildId, roleId, userId, (deleteAfter ? 1 : 0), expireAfter.getEpochSecond()));
+		execute("INSERT INTO %s(guildId, roleId, userId, deleteAfter, expireAfter) VALUES (?, ?, ?, ?, ?)"
+			.formatted(table), guildId, roleId, userId, deleteAfter, expireAfter.getEpochSecond());
+		expirations.schedule(ExpirationScheduler.Type.TEMP_ROLE, roleId, userId, expireAfter.getEpochSecond());
 	}
 
 	public void remove(long roleId, long userId) throws SQLException {
-		execute("DELETE FROM %s WHERE (roleId=%s AND userId=%s)".formatted(table, roleId, userId));
+		execute("DELETE FROM %s WHERE (roleId=? AND userId=?)".formatted(table), roleId, userId);
+		expirations.cancel(ExpirationScheduler.Type.TEMP_ROLE, roleId, userId);
+	}
+
+	// Does not wait for the database
+	public CompletableFuture<Void> removeAsync(long roleId, long userId) {
+		return executeAsync("DELETE FROM %s WHERE (roleId=? AND userId=?)".formatted(table), roleId, userId);
 	}
 
 	public void removeRole(long roleId) {
 		try {
-			execute("DELETE FROM %s WHERE (roleId=%s)".formatted(table, roleId));
+			execute("DELETE FROM %s WHERE (roleId=?)".formatted(table), roleId);
 		} catch (SQLException ignored) {}
+		expirations.cancelAll(ExpirationScheduler.Type.TEMP_ROLE, roleId);
 	}
 
 	public void removeAll(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%s)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
 	}
 
 	public void updateTime(long roleId, long userId, Instant expireAfter) throws SQLException {
-		execute("UPDATE %s SET expireAfter=%s WHERE (roleId=%s AND userId=%s)".formatted(table, expireAfter.getEpochSecond(), roleId, userId));
+		execute("UPDATE %s SET expireAfter=? WHERE (roleId=? AND userId=?)".formatted(table), expireAfter.getEpochSecond(), roleId, userId);
+		expirations.schedule(ExpirationScheduler.Type.TEMP_ROLE, roleId, userId, expireAfter.getEpochSecond());
 	}
 
 	public Instant expireAt(long roleId, long userId) {
-		Integer data = selectOne("SELECT expireAfter FROM %s WHERE (roleId=%s AND userId=%s)".formatted(table, roleId, userId), "expireAfter", Integer.class);
+		Integer data = selectOne("SELECT expireAfter FROM %s WHERE (roleId=? AND userId=?)".formatted(table), "expireAfter", Integer.class, roleId, userId);
 		if (data == null) return null;
 		return Instant.ofEpochSecond(data);
 	}
 
-	public List<Map<String, Object>> expiredRoles(Instant now) {
-		return select("SELECT roleId, userId FROM %s WHERE (expireAfter<=%d)".formatted(table, now.getEpochSecond()), Set.of("roleId", "userId"));
+	public List<Expiration> getPendingExpirations(long until) {
+		List<Map<String, Object>> data = select("SELECT roleId, userId, expireAfter FROM %s WHERE (expireAfter<=?)".formatted(table), Set.of("roleId", "userId", "expireAfter"), until);
+		if (data.isEmpty()) return List.of();
+		return data.stream()
+			.map(m -> new Expiration(ExpirationScheduler.Type.TEMP_ROLE, CastUtil.castLong(m.get("roleId")), CastUtil.castLong(m.get("userId")), CastUtil.castLong(m.get("expireAfter"))))
+			.toList();
 	}
 
 	public List<Map<String, Object>> getAll(long guildId) {
-		return select("SELECT * FROM %s WHERE (guildId=%s)".formatted(table, guildId), Set.of("roleId", "userId", "expireAfter"));
+		return select("SELECT * FROM %s WHERE (guildId=?)".formatted(table), Set.of("roleId", "userId", "expireAfter"), guildId);
 	}
 
 	public boolean shouldDelete(long roleId) {
-		Integer data = selectOne("SELECT deleteAfter FROM %s WHERE (roleId=%s)".formatted(table, roleId), "deleteAfter", Integer.class);
+		Integer data = selectOne("SELECT deleteAfter FROM %s WHERE (roleId=?)".formatted(table), "deleteAfter", Integer.class, roleId);
 		return data != null && data == 1;
 	}
 }
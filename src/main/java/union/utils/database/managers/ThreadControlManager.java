@@ -12,15 +12,15 @@ public class ThreadControlManager extends LiteDBBase {
 	}
 
 	public void add(long guildId, long channelId) throws SQLException {
-		execute("INSERT INTO %s(guildId, channelId) VALUES (%s, %s)".formatted(table, guildId, channelId));
+		execute("INSERT INTO %s(guildId, channelId) VALUES (?, ?)".formatted(table), guildId, channelId);
 	}
 
 	public void remove(long channelId) throws SQLException {
-		execute("DELETE FROM %s WHERE (channelId=%s)".formatted(table, channelId));
+		execute("DELETE FROM %s WHERE (channelId=?)".formatted(table), channelId);
 	}
 
 	public void removeAll(long guildId) throws SQLException {
-		execute("DELETE FROM %s WHERE (guildId=%s)".formatted(table, guildId));
+		execute("DELETE FROM %s WHERE (guildId=?)".formatted(table), guildId);
 	}
 
 	public boolean exist(long channelId) {
@@ -28,10 +28,10 @@ public class ThreadControlManager extends LiteDBBase {
 	}
 
 	public Long getGuildId(long channelId) {
-		return selectOne("SELECT guildId FROM %s WHERE (channelId=%s)".formatted(table, channelId), "guildId", Long.class);
+		return selectOne("SELECT guildId FROM %s WHERE (channelId=?)".formatted(table), "guildId", Long.class, channelId);
 	}
 
 	public List<Long> getChannelIds(long guildId) {
-		return select("SELECT channelId FROM %s WHERE (guildId=%s)".formatted(table, guildId), "channelId", Long.class);
+		return select("SELECT channelId FROM %s WHERE (guildId=?)".formatted(table), "channelId", Long.class, guildId);
 	}
 }
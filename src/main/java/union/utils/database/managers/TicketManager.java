@@ -1,22 +1,63 @@
 package union.utils.database.managers;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.jetbrains.annotations.Nullable;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
+import union.utils.database.PooledConnection;
+
+import static union.utils.CastUtil.castLong;
+import static union.utils.CastUtil.getOrDefault;
+import static union.utils.CastUtil.requireNonNull;
 
 public class TicketManager extends LiteDBBase {
+	private final Set<String> stateKeys = Set.of("ticketId", "userId", "modId", "guildId", "channelId",
+		"closed", "roleIds", "tagId", "closeRequested", "replyWait");
+
+	// All open tickets, ChannelId - State. Updated after each write
+	private final ConcurrentHashMap<Long, TicketState> openTickets = new ConcurrentHashMap<>();
+
 	public TicketManager(ConnectionUtil cu) {
 		super(cu, "ticket");
 	}
 
+	/**
+	 * Caches all open tickets with one query.
+	 * @return number of open tickets
+	 */
+	public int preload() {
+		select("SELECT * FROM %s WHERE (closed=0)".formatted(table), stateKeys).forEach(data -> {
+			TicketState state = new TicketState(data);
+			openTickets.put(state.channelId(), state);
+		});
+		return openTickets.size();
+	}
+
+	/**
+	 * Open tickets are returned from cache, closed are read from the database.
+	 * @return ticket state or null, if channel is not a ticket
+	 */
+	@Nullable
+	public TicketState getState(long channelId) {
+		TicketState state = openTickets.get(channelId);
+		if (state != null) return state;
+		Map<String, Object> data = selectOne("SELECT * FROM %s WHERE (channelId=?)".formatted(table), stateKeys, channelId);
+		if (data == null) return null;
+		state = new TicketState(data);
+		if (!state.closed()) openTickets.putIfAbsent(channelId, state);
+		return state;
+	}
+
 	/* tags:
 	 *  0 - role request ticket
 	 *  1+ - custom tags
@@ -25,122 +66,145 @@ public class TicketManager extends LiteDBBase {
 	// add new ticket
 	public void addRoleTicket(int ticketId, long userId, long guildId, long channelId, String roleIds, int replyTime) {
 		try {
-			execute("INSERT INTO %s(ticketId, userId, guildId, channelId, tagId, roleIds, replyWait) VALUES (%d, %s, %s, %s, 0, %s, %d)"
-				.formatted(table, ticketId, userId, guildId, channelId, quote(roleIds), replyTime>0 ? Instant.now().plus(replyTime, ChronoUnit.HOURS).getEpochSecond() : 0));
+			execute("INSERT INTO %s(ticketId, userId, guildId, channelId, tagId, roleIds, replyWait) VALUES (?, ?, ?, ?, 0, ?, ?)".formatted(table),
+				ticketId, userId, guildId, channelId, roleIds, replyWait(replyTime));
+			openTickets.put(channelId, new TicketState(ticketId, userId, null, guildId, channelId, false, parseRoleIds(roleIds), 0, 0, replyWait(replyTime)));
 		} catch (SQLException ignored) {}
 	}
 
 	public void addTicket(int ticketId, long userId, long guildId, long channelId, int tagId, int replyTime) {
 		try {
-			execute("INSERT INTO %s(ticketId, userId, guildId, channelId, tagId, replyWait) VALUES (%d, %s, %s, %s, %d, %d)"
-				.formatted(table, ticketId, userId, guildId, channelId, tagId, replyTime>0 ? Instant.now().plus(replyTime, ChronoUnit.HOURS).getEpochSecond() : 0));
+			execute("INSERT INTO %s(ticketId, userId, guildId, channelId, tagId, replyWait) VALUES (?, ?, ?, ?, ?, ?)".formatted(table),
+				ticketId, userId, guildId, channelId, tagId, replyWait(replyTime));
+			openTickets.put(channelId, new TicketState(ticketId, userId, null, guildId, channelId, false, List.of(), tagId, 0, replyWait(replyTime)));
 		} catch (SQLException ignored) {}
 	}
 
+	private long replyWait(int replyTime) {
+		return replyTime>0 ? Instant.now().plus(replyTime, ChronoUnit.HOURS).getEpochSecond() : 0;
+	}
+
 	// get last ticket's ID
 	public int lastIdByTag(long guildId, int tagId) {
-		Integer data = selectOne("SELECT ticketId FROM %s WHERE (guildId=%s AND tagId=%d) ORDER BY ticketId DESC LIMIT 1"
-			.formatted(table, guildId, tagId), "ticketId", Integer.class);
+		Integer data = selectOne("SELECT ticketId FROM %s WHERE (guildId=? AND tagId=?) ORDER BY ticketId DESC LIMIT 1".formatted(table),
+			"ticketId", Integer.class, guildId, tagId);
 		return data == null ? 0 : data;
 	}
 
 	// update mod
 	public void setClaimed(long channelId, long modId) {
 		try {
-			execute("UPDATE %s SET modId=%s WHERE (channelId=%s)".formatted(table, modId, channelId));
+			execute("UPDATE %s SET modId=? WHERE (channelId=?)".formatted(table), modId, channelId);
+			openTickets.computeIfPresent(channelId, (k, state) -> state.withModId(modId));
 		} catch (SQLException ignored) {}
 	}
 
 	public void setUnclaimed(long channelId) {
 		try {
-			execute("UPDATE %s SET modId=NULL WHERE (channelId=%s)".formatted(table, channelId));
+			execute("UPDATE %s SET modId=NULL WHERE (channelId=?)".formatted(table), channelId);
+			openTickets.computeIfPresent(channelId, (k, state) -> state.withModId(null));
 		} catch (SQLException ignored) {}
 	}
 
 	public Long getClaimer(long channelId) {
-		return selectOne("SELECT modId FROM %s WHERE (channelId=%s)".formatted(table, channelId), "modId", Long.class);
+		TicketState state = getState(channelId);
+		return state == null ? null : state.modId();
 	}
 
 	// set status
 	public void closeTicket(Instant timeClosed, long channelId, String reason) throws SQLException {
-		execute("UPDATE %s SET closed=1, timeClosed=%d, reasonClosed=%s WHERE (channelId=%s)".formatted(table, timeClosed.getEpochSecond(), quote(reason), channelId));
+		try (PooledConnection conn = getWriteConnection()) {
+			// Claimed ticket is counted to moderator statistics together with closing
+			conn.get().setAutoCommit(false);
+			PreparedStatement stats = conn.prepare(("INSERT INTO %s(guildId, modId, day, type, count) SELECT guildId, modId, ?, CASE WHEN tagId=0 THEN %d ELSE %d END, 1 FROM %s"
+				+ " WHERE (channelId=? AND closed=0 AND modId IS NOT NULL) ON CONFLICT(guildId, modId, day, type) DO UPDATE SET count=count+1")
+				.formatted(ModStatsManager.TABLE, ModStatsManager.TYPE_TICKET_ROLES, ModStatsManager.TYPE_TICKET_OTHER, table));
+			bind(stats, ModStatsManager.day(timeClosed.getEpochSecond()), channelId);
+			stats.executeUpdate();
+			PreparedStatement st = conn.prepare("UPDATE %s SET closed=1, timeClosed=?, reasonClosed=? WHERE (channelId=?)".formatted(table));
+			bind(st, timeClosed.getEpochSecond(), reason, channelId);
+			st.executeUpdate();
+			conn.get().commit();
+		}
+		openTickets.remove(channelId);
 	}
 
 	public void forceCloseTicket(long channelId) {
 		try {
-			execute("UPDATE %s SET closed=1 WHERE (channelId=%s)".formatted(table, channelId));
+			execute("UPDATE %s SET closed=1 WHERE (channelId=?)".formatted(table), channelId);
+			openTickets.remove(channelId);
 		} catch (SQLException ignored) {}
 	}
 
 	// get status
 	public boolean isClosed(long channelId) {
-		Integer data = selectOne("SELECT closed FROM %s WHERE (channelId=%s)".formatted(table, channelId), "closed", Integer.class);
-		return data == null || data != 0;
+		TicketState state = getState(channelId);
+		return state == null || state.closed();
 	}
 
 	public Long getOpenedChannel(long userId, long guildId, int tagId) {
-		return selectOne("SELECT channelId FROM %s WHERE (userId=%s AND guildId=%s AND tagId=%s AND closed=0)".formatted(table, userId, guildId, tagId),
-			"channelId", Long.class);
+		return openTickets.values().stream()
+			.filter(state -> state.userId() == userId && state.guildId() == guildId && state.tagId() == tagId)
+			.map(TicketState::channelId)
+			.findFirst()
+			.orElse(null);
 	}
 
 	public List<Long> getOpenedChannel(long userId, long guildId) {
-		return select("SELECT channelId FROM %s WHERE (userId=%s AND guildId=%s AND closed=0)".formatted(table, userId, guildId),
-			"channelId", Long.class);
+		return openTickets.values().stream()
+			.filter(state -> state.userId() == userId && state.guildId() == guildId)
+			.map(TicketState::channelId)
+			.toList();
 	}
 
-	public List<Long> getOpenedChannels() {
-		return select("SELECT channelId FROM %s WHERE (closed=0 AND closeRequested=0)".formatted(table), "channelId", Long.class);
+	/**
+	 * @return open tickets without close request
+	 */
+	public List<TicketState> getOpenedTickets() {
+		return openTickets.values().stream()
+			.filter(state -> state.closeRequested() == 0)
+			.toList();
 	}
 
 	public List<Long> getCloseMarkedTickets() {
-		return select("SELECT channelId FROM %s WHERE (closed=0 AND closeRequested>0 AND closeRequested<=%d)".formatted(table, Instant.now().getEpochSecond()),
-			"channelId", Long.class);
+		final long now = Instant.now().getEpochSecond();
+		return openTickets.values().stream()
+			.filter(state -> state.closeRequested() > 0 && state.closeRequested() <= now)
+			.map(TicketState::channelId)
+			.toList();
 	}
 
 	public List<Long> getReplyExpiredTickets() {
-		return select("SELECT channelId FROM %s WHERE (closed=0 AND replyWait>0 AND replyWait<=%d)".formatted(table, Instant.now().getEpochSecond()),
-			"channelId", Long.class);
+		final long now = Instant.now().getEpochSecond();
+		return openTickets.values().stream()
+			.filter(state -> state.replyWait() > 0 && state.replyWait() <= now)
+			.map(TicketState::channelId)
+			.toList();
 	}
 
 	public List<String> getRoleIds(long channelId) {
-		String data = selectOne("SELECT roleIds FROM %s WHERE (channelId=%s)".formatted(table, channelId), "roleIds", String.class);
-		if (data == null) return Collections.emptyList();
-		return Arrays.asList(data.split(";"));
+		TicketState state = getState(channelId);
+		return state == null ? Collections.emptyList() : state.roleIds();
 	}
 
 	public Long getUserId(long channelId) {
-		return selectOne("SELECT userId FROM %s WHERE (channelId=%s)".formatted(table, channelId), "userId", Long.class);
+		TicketState state = getState(channelId);
+		return state == null ? null : state.userId();
 	}
 
 	public String getTicketId(long channelId) {
-		return selectOne("SELECT ticketId FROM %s WHERE (channelId=%s)".formatted(table, channelId), "ticketId", String.class);
+		TicketState state = getState(channelId);
+		return state == null ? null : String.valueOf(state.ticketId());
 	}
 
 	public Boolean isRoleTicket(long channelId) {
-		Integer data = selectOne("SELECT tagId FROM %s WHERE (channelId=%s)".formatted(table, channelId), "tagId", Integer.class);
-		return data != null && data == 0;
+		TicketState state = getState(channelId);
+		return state != null && state.isRoleTicket();
 	}
 
 	public Integer getTag(long channelId) {
-		return selectOne("SELECT tagId FROM %s WHERE (channelId=%s)".formatted(table, channelId), "tagId", Integer.class);
-	}
-
-	public int countTicketsByMod(long guildId, long modId, LocalDateTime afterTime, LocalDateTime beforeTime, boolean roleTag) {
-		String tagType = roleTag ? "tagId=0" : "tagId>=1";
-		return count("SELECT COUNT(*) FROM %s WHERE (guildId=%s AND modId=%s AND timeClosed>=%d AND timeClosed<=%d AND %s)"
-			.formatted(table, guildId, modId, afterTime.toEpochSecond(ZoneOffset.UTC), beforeTime.toEpochSecond(ZoneOffset.UTC), tagType));
-	}
-
-	public int countTicketsByMod(long guildId, long modId, Instant afterTime, boolean roleTag) {
-		String tagType = roleTag ? "tagId=0" : "tagId>=1";
-		return count("SELECT COUNT(*) FROM %s WHERE (guildId=%s AND modId=%s AND timeClosed>=%d AND %s)"
-			.formatted(table, guildId, modId, afterTime.getEpochSecond(), tagType));
-	}
-
-	public int countTicketsByMod(long guildId, long modId, boolean roleTag) {
-		String tagType = roleTag ? "tagId=0" : "tagId>=1";
-		return count("SELECT COUNT(*) FROM %s WHERE (guildId=%s AND modId=%s AND %s)"
-			.formatted(table, guildId, modId, tagType));
+		TicketState state = getState(channelId);
+		return state == null ? null : state.tagId();
 	}
 
 	/**
@@ -153,24 +217,71 @@ public class TicketManager extends LiteDBBase {
 	 */
 	public void setRequestStatus(long channelId, long closeRequested) {
 		try {
-			execute("UPDATE %s SET closeRequested=%d WHERE (channelId=%s)".formatted(table, closeRequested, channelId));
+			execute("UPDATE %s SET closeRequested=? WHERE (channelId=?)".formatted(table), closeRequested, channelId);
+			openTickets.computeIfPresent(channelId, (k, state) -> state.withCloseRequested(closeRequested));
 		} catch (SQLException ignored) {}
 	}
 
 	public void setRequestStatus(long channelId, long closeRequested, String reason) {
 		try {
-			execute("UPDATE %s SET closeRequested=%d, reasonClosed=%s WHERE (channelId=%s)".formatted(table, closeRequested, quote(reason), channelId));
+			execute("UPDATE %s SET closeRequested=?, reasonClosed=? WHERE (channelId=?)".formatted(table), closeRequested, reason, channelId);
+			openTickets.computeIfPresent(channelId, (k, state) -> state.withCloseRequested(closeRequested));
 		} catch (SQLException ignored) {}
 	}
 
 	public long getTimeClosing(long channelId) {
-		Long data = selectOne("SELECT closeRequested FROM %s WHERE (channelId=%s);".formatted(table, channelId), "closeRequested", Long.class);
-		return data == null ? 0L : data;
+		TicketState state = getState(channelId);
+		return state == null ? 0L : state.closeRequested();
 	}
 
 	public void setWaitTime(long channelId, long time) {
 		try {
-			execute("UPDATE %s SET replyWait=%d WHERE (channelId=%s)".formatted(table, time, channelId));
+			execute("UPDATE %s SET replyWait=? WHERE (channelId=?)".formatted(table), time, channelId);
+			openTickets.computeIfPresent(channelId, (k, state) -> state.withReplyWait(time));
 		} catch (SQLException ignored) {}
 	}
+
+	private static List<String> parseRoleIds(String roleIds) {
+		if (roleIds == null || roleIds.isEmpty()) return List.of();
+		return Arrays.asList(roleIds.split(";"));
+	}
+
+	/**
+	 * Ticket row, tagId 0 is role request ticket.
+	 */
+	public record TicketState(
+		int ticketId, long userId, Long modId, long guildId, long channelId,
+		boolean closed, List<String> roleIds, int tagId, long closeRequested, long replyWait
+	) {
+		TicketState(Map<String, Object> data) {
+			this(
+				requireNonNull(data.get("ticketId")),
+				castLong(requireNonNull(data.get("userId"))),
+				castLong(data.get("modId")),
+				castLong(requireNonNull(data.get("guildId"))),
+				castLong(requireNonNull(data.get("channelId"))),
+				((Integer) requireNonNull(data.get("closed"))) != 0,
+				parseRoleIds((String) data.get("roleIds")),
+				getOrDefault(data.get("tagId"), 0),
+				getOrDefault(data.get("closeRequested"), 0L),
+				getOrDefault(data.get("replyWait"), 0L)
+			);
+		}
+
+		public boolean isRoleTicket() {
+			return tagId == 0;
+		}
+
+		TicketState withModId(Long modId) {
+			return new TicketState(ticketId, userId, modId, guildId, channelId, closed, roleIds, tagId, closeRequested, replyWait);
+		}
+
+		TicketState withCloseRequested(long closeRequested) {
+			return new TicketState(ticketId, userId, modId, guildId, channelId, closed, roleIds, tagId, closeRequested, replyWait);
+		}
+
+		TicketState withReplyWait(long replyWait) {
+			return new TicketState(ticketId, userId, modId, guildId, channelId, closed, roleIds, tagId, closeRequested, replyWait);
+		}
+	}
 }
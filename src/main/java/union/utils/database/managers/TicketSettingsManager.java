@@ -9,8 +9,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
-import union.objects.constants.Constants;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -25,7 +24,7 @@ public class TicketSettingsManager extends LiteDBBase {
 	);
 
 	// Cache
-	private final FixedCache<Long, TicketSettings> cache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, TicketSettings> cache = new SettingsCache<>("ticketSettings");
 	private final TicketSettings defaultSettings = new TicketSettings();
 
 	public TicketSettingsManager(ConnectionUtil cu) {
@@ -37,13 +36,26 @@ public class TicketSettingsManager extends LiteDBBase {
 	}
 
 	public TicketSettings getSettings(long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId);
-		TicketSettings settings = applyNonNull(getData(guildId), TicketSettings::new);
-		if (settings == null)
-			settings = defaultSettings;
-		cache.put(guildId, settings);
-		return settings;
+		return cache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (cache.isComplete()) return defaultSettings;
+			TicketSettings settings = applyNonNull(getData(id), TicketSettings::new);
+			if (settings == null)
+				settings = defaultSettings;
+			return settings;
+		});
+	}
+
+	/**
+	 * Caches settings of all guilds from the table with one query.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> data = selectByGuild("SELECT * FROM %s".formatted(table), columns);
+		Map<Long, TicketSettings> settings = new HashMap<>(data.size());
+		data.forEach((guildId, rows) -> settings.put(guildId, new TicketSettings(rows.get(0))));
+		cache.preload(settings);
+		return data.size();
 	}
 
 	private Map<String, Object> getData(long guildId) {
@@ -51,60 +63,53 @@ public class TicketSettingsManager extends LiteDBBase {
 	}
 
 	public void remove(long guildId) throws SQLException {
-		invalidateCache(guildId);
 		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
+		cache.put(guildId, defaultSettings);
 	}
 
 	public void setRowText(long guildId, int row, String text) throws SQLException {
 		if (row < 1 || row > 3)
 			throw new IndexOutOfBoundsException(row);
-		invalidateCache(guildId);
-		execute("INSERT INTO %1$s(guildId, rowName%2$d) VALUES (%3$d, %4$s) ON CONFLICT(guildId) DO UPDATE SET rowName%2$d=%4$s".formatted(table, row, guildId, quote(text)));
+		updateCache(guildId, "INSERT INTO %1$s(guildId, rowName%2$d) VALUES (%3$d, %4$s) ON CONFLICT(guildId) DO UPDATE SET rowName%2$d=%4$s".formatted(table, row, guildId, quote(text)));
 	}
 
 	public void setAutocloseTime(long guildId, int hours) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, autocloseTime) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET autocloseTime=%<d".formatted(table, guildId, hours));
+		updateCache(guildId, "INSERT INTO %s(guildId, autocloseTime) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET autocloseTime=%<d".formatted(table, guildId, hours));
 	}
 
 	public void setAutocloseLeft(long guildId, boolean close) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, autocloseLeft) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET autocloseLeft=%<d".formatted(table, guildId, close ? 1 : 0));
+		updateCache(guildId, "INSERT INTO %s(guildId, autocloseLeft) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET autocloseLeft=%<d".formatted(table, guildId, close ? 1 : 0));
 	}
 
 	public void setTimeToReply(long guildId, int hours) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, timeToReply) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET timeToReply=%<d".formatted(table, guildId, hours));
+		updateCache(guildId, "INSERT INTO %s(guildId, timeToReply) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET timeToReply=%<d".formatted(table, guildId, hours));
 	}
 
 	public void setOtherRole(long guildId, boolean otherRole) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, otherRole) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET otherRole=%<d".formatted(table, guildId, otherRole ? 1 : 0));
+		updateCache(guildId, "INSERT INTO %s(guildId, otherRole) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET otherRole=%<d".formatted(table, guildId, otherRole ? 1 : 0));
 	}
 
 	public void setSupportRoles(long guildId, @NotNull List<Long> roleIds) throws SQLException {
-		invalidateCache(guildId);
 		final String text = roleIds.stream().map(String::valueOf).collect(Collectors.joining(";"));
-		execute("INSERT INTO %s(guildId, roleSupport) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET roleSupport=%<s".formatted(table, guildId, quote(text)));
+		updateCache(guildId, "INSERT INTO %s(guildId, roleSupport) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET roleSupport=%<s".formatted(table, guildId, quote(text)));
 	}
 
 	public void setDeletePings(long guildId, boolean deletePing) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, deletePing) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET deletePing=%<d".formatted(table, guildId, deletePing ? 1 : 0));
+		updateCache(guildId, "INSERT INTO %s(guildId, deletePing) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET deletePing=%<d".formatted(table, guildId, deletePing ? 1 : 0));
 	}
 
 	public void setAllowClose(long guildId, AllowClose value) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, allowClose) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET allowClose=%<d".formatted(table, guildId, value.getValue()));
+		updateCache(guildId, "INSERT INTO %s(guildId, allowClose) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET allowClose=%<d".formatted(table, guildId, value.getValue()));
 	}
 
 	public void setTranscript(long guildId, TranscriptsMode value) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, transcripts) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET transcripts=%<d".formatted(table, guildId, value.getValue()));
+		updateCache(guildId, "INSERT INTO %s(guildId, transcripts) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET transcripts=%<d".formatted(table, guildId, value.getValue()));
 	}
 
-	private void invalidateCache(long guildId) {
-		cache.pull(guildId);
+	// Caches the row returned by the statement, instead of reading it again
+	private void updateCache(long guildId, String sql, Object... params) throws SQLException {
+		Map<String, Object> data = executeReturning(sql+" RETURNING *", columns, params);
+		cache.put(guildId, data==null ? defaultSettings : new TicketSettings(data));
 	}
 
 	public static class TicketSettings {
@@ -4,10 +4,17 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import union.App;
 import union.objects.constants.Constants;
+import union.services.CountingThreadFactory;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.SqlDBBase;
 import union.utils.encoding.EncodingUtil;
@@ -34,23 +42,29 @@ public class UnionPlayerManager extends SqlDBBase {
 	private final String AXE_PLAYERS = "axe_players";
 	private final SettingsManager settings;
 
+	// Total wait for all server databases, slower ones are left out
+	private final long QUERY_DEADLINE = 4_000;
+	private final ExecutorService queryExecutor = Executors.newFixedThreadPool(4, new CountingThreadFactory("UTB", "PlayerDB"));
+
 	public UnionPlayerManager(ConnectionUtil cu, SettingsManager settings, String url, String user, String password) {
 		super(cu, "%s?user=%s&password=%s".formatted(url, user, password));
 		this.settings = settings;
 	}
 
-	public List<String> getPlayerRank(long guildId, @NotNull String steamId) {
+	@Override
+	public void close() {
+		queryExecutor.shutdownNow();
+		super.close();
+	}
+
+	public List<String> getPlayerRank(long guildId, @NotNull String steamId) throws SQLException {
 		if (settings.isDbPlayerDisabled()) return List.of();
 		// Find corresponding database
 		Map<String, SettingsManager.GameServerInfo> servers = getServers(guildId);
 		if (servers.isEmpty()) return List.of();
 		// Get data from database tables
-		List<String> data = new ArrayList<>(servers.size());
-		for (String db : servers.keySet()) {
-			String rank = selectOne(db, SAM_PLAYERS, "rank", "steamid", steamId);
-			if (rank != null) data.add(rank);
-		}
-		return Collections.unmodifiableList(data);
+		Map<String, String> data = queryServers(servers.keySet(), db -> selectOne(db, SAM_PLAYERS, "rank", "steamid", steamId));
+		return List.copyOf(data.values());
 	}
 
 	public Long getPlayTime(long guildId, @NotNull String steamId) throws Exception {
@@ -59,16 +73,13 @@ public class UnionPlayerManager extends SqlDBBase {
 		Map<String, SettingsManager.GameServerInfo> servers = getServers(guildId);
 		if (servers.isEmpty()) throw new Exception("Database not found.");
 		// Get data from database tables
-		Long playtime = null;
-		for (String db : servers.keySet()) {
-			Long time = castLong(selectOne(db, SAM_PLAYERS, "play_time", "steamid", steamId));
-			if (time != null) playtime = playtime==null ? time : playtime+time;
-		}
-		return playtime;
+		Map<String, Long> data = queryServers(servers.keySet(), db -> castLong(selectOne(db, SAM_PLAYERS, "play_time", "steamid", steamId)));
+		if (data.isEmpty()) return null;
+		return data.values().stream().mapToLong(Long::longValue).sum();
 	}
 
 	@NotNull
-	public List<PlayerInfo> getPlayerInfo(long guildId, @NotNull String steamId) {
+	public List<PlayerInfo> getPlayerInfo(long guildId, @NotNull String steamId) throws SQLException {
 		if (settings.isDbPlayerDisabled()) return List.of();
 		// Find corresponding database
 		Map<String, SettingsManager.GameServerInfo> servers = getServers(guildId);
@@ -84,7 +95,7 @@ public class UnionPlayerManager extends SqlDBBase {
 	}
 
 	@NotNull
-	public List<PlayerInfo> getPlayerInfoFiltered(long guildId, @NotNull String steamId) {
+	public List<PlayerInfo> getPlayerInfoFiltered(long guildId, @NotNull String steamId) throws SQLException {
 		if (settings.isDbPlayerDisabled()) return List.of();
 		// Find corresponding database
 		Map<String, SettingsManager.GameServerInfo> servers = getServers(guildId);
@@ -104,10 +115,54 @@ public class UnionPlayerManager extends SqlDBBase {
 		Map<String, SettingsManager.GameServerInfo> servers = getServers(guildId);
 		if (servers.isEmpty()) throw new Exception("Database not found.");
 		// Get data from database table
-		for (String db : servers.keySet()) {
-			if (selectOne(db, AXE_PLAYERS, "steamid", "steamid", steamId) != null) return true;
+		return !queryServers(servers.keySet(), db -> selectOne(db, AXE_PLAYERS, "steamid", "steamid", steamId)).isEmpty();
+	}
+
+	/**
+	 * Runs query for each server database concurrently and waits for them until {@link #QUERY_DEADLINE}.
+	 * Servers, that failed, returned null or did not respond in time, are missing from the result.
+	 * Queries still running at the deadline are cancelled.
+	 * @return database name to its query result, in the order of databases
+	 * @throws SQLException none of the servers responded
+	 */
+	private <T> Map<String, T> queryServers(Collection<String> databases, ServerQuery<T> query) throws SQLException {
+		List<String> names = List.copyOf(databases);
+		List<Callable<T>> tasks = new ArrayList<>(names.size());
+		for (String db : names) {
+			tasks.add(() -> query.apply(db));
 		}
-		return false;
+		List<Future<T>> futures;
+		try {
+			futures = queryExecutor.invokeAll(tasks, QUERY_DEADLINE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for server databases.", ex);
+		}
+
+		Map<String, T> results = new LinkedHashMap<>(names.size());
+		SQLException failure = null;
+		int responded = 0;
+		for (int i = 0; i < names.size(); i++) {
+			try {
+				T value = futures.get(i).get();
+				responded++;
+				if (value != null) results.put(names.get(i), value);
+			} catch (CancellationException ex) {
+				failure = new SQLTimeoutException("Server database '%s' did not respond in %s ms.".formatted(names.get(i), QUERY_DEADLINE));
+			} catch (ExecutionException ex) {
+				failure = ex.getCause() instanceof SQLException sqlEx ? sqlEx : new SQLException(ex.getCause());
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while waiting for server databases.", ex);
+			}
+		}
+		if (responded == 0 && failure != null) throw failure;
+		return results;
+	}
+
+	@FunctionalInterface
+	private interface ServerQuery<T> {
+		T apply(String database) throws SQLException;
 	}
 
 	public static class PlayerInfo {
@@ -1,8 +1,14 @@
 package union.utils.database.managers;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import net.dv8tion.jda.internal.utils.tuple.Pair;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -16,49 +22,95 @@ public class UnionVerifyManager extends SqlDBBase {
 	private final String TABLE_FORUM = "union.xf_registered_users";
 	private final SettingsManager settings;
 
+	// discordId - steam64 (0 without connected account), autochecks run on every message and interaction.
+	// Concurrent lookups of the same user wait for one query, entries are reloaded in background after 30 seconds.
+	// Failed loads are not cached, failed reloads keep the previous value.
+	private final LoadingCache<String, Long> steamCache = Caffeine.newBuilder()
+		.maximumSize(10_000)
+		.refreshAfterWrite(30, TimeUnit.SECONDS)
+		.expireAfterWrite(1, TimeUnit.MINUTES)
+		.build(discordId -> Objects.requireNonNullElse(getSteam64(discordId), 0L));
+
 	public UnionVerifyManager(ConnectionUtil cu, SettingsManager settings, String url, String user, String password) {
 		super(cu, "%s?user=%s&password=%s".formatted(url, user, password));
 		this.settings = settings;
 	}
 
+	// Display only, null also when database is unavailable
 	@Nullable
 	public String getSteamName(long steam64) {
 		if (settings.isDbVerifyDisabled()) return null;
-		String data = selectOne(TABLE_VERIFY, "name", "steam_id", steam64);
+		String data;
+		try {
+			data = selectOne(TABLE_VERIFY, "name", "steam_id", steam64);
+		} catch (SQLException ex) {
+			return null;
+		}
 		if (data == null || data.isBlank()) return null;
 		return data;
 	}
 
 	// name, avatar
+	// Display only, null also when database is unavailable
 	@Nullable
 	public Pair<String, String> getSteamInfo(long steam64) {
 		if (settings.isDbVerifyDisabled()) return null;
-		Map<String, String> data = selectOne(TABLE_VERIFY, List.of("avatar", "name"), "steam_id", steam64);
+		Map<String, String> data;
+		try {
+			data = selectOne(TABLE_VERIFY, List.of("avatar", "name"), "steam_id", steam64);
+		} catch (SQLException ex) {
+			return null;
+		}
 		if (data == null || data.isEmpty()) return null;
 		return Pair.of(data.get("name"), data.get("avatar"));
 	}
 
+	/**
+	 * @return Steam64 of connected account, null if user has no account connected
+	 * @throws SQLException database is unavailable, account state is unknown
+	 */
 	@Nullable
-	public Long getSteam64(@NotNull String discordId) {
+	public Long getSteam64(@NotNull String discordId) throws SQLException {
 		if (settings.isDbVerifyDisabled()) return null;
 		String data = selectOne(TABLE_VERIFY, "steam_id", "discord_id", discordId);
 		if (data == null || data.isBlank()) return null;
 		return Long.parseLong(data);
 	}
 
+	/**
+	 * Same as {@link #getSteam64(String)}, but result is remembered for a minute.
+	 * Used by autochecks, not by verification itself.
+	 * @throws SQLException database is unavailable, account state is unknown
+	 */
+	@Nullable
+	public Long getSteam64Cached(@NotNull String discordId) throws SQLException {
+		if (settings.isDbVerifyDisabled()) return null;
+		long steam64;
+		try {
+			steam64 = steamCache.get(discordId);
+		} catch (CompletionException ex) {
+			throw ex.getCause() instanceof SQLException sqlEx ? sqlEx : new SQLException(ex.getCause());
+		}
+		return steam64 == 0L ? null : steam64;
+	}
+
+	public void invalidateCached(@NotNull String discordId) {
+		steamCache.invalidate(discordId);
+	}
+
 	// Check for any changed accounts
-	public List<Map<String, String>> updatedAccounts() {
+	public List<Map<String, String>> updatedAccounts() throws SQLException {
 		if (settings.isDbVerifyDisabled()) return List.of();
 		return select(TABLE_VERIFY, List.of("discord_id", "steam_id"), "discord_updated", "1");
 	}
 
-	public void clearUpdated(String steam64) {
+	public void clearUpdated(String steam64) throws SQLException {
 		update(TABLE_VERIFY, "discord_updated", "0", "steam_id", steam64);
 	}
 
 	// get Steam64 associated with forum User's ID
 	@Nullable
-	public Long getSteam64(int xfUserId) {
+	public Long getSteam64(int xfUserId) throws SQLException {
 		if (settings.isDbVerifyDisabled()) return null;
 		String data = selectOne(TABLE_FORUM, "steam_id", "xf_user_id", xfUserId);
 		if (data == null || data.isBlank()) return null;
@@ -66,10 +118,16 @@ public class UnionVerifyManager extends SqlDBBase {
 	}
 
 	// get forum User's ID associated with Steam64
+	// Display only, null also when database is unavailable
 	@Nullable
 	public Integer getUserId(long steam64) {
 		if (settings.isDbVerifyDisabled()) return null;
-		String data = selectOne(TABLE_FORUM, "xf_user_id", "steam_id", steam64);
+		String data;
+		try {
+			data = selectOne(TABLE_FORUM, "xf_user_id", "steam_id", steam64);
+		} catch (SQLException ex) {
+			return null;
+		}
 		if (data == null || data.isBlank()) return null;
 		return Integer.parseInt(data);
 	}
@@ -11,22 +11,22 @@ public class UserSettingsManager extends LiteDBBase {
 	}
 
 	public void remove(long userId) throws SQLException {
-		execute("DELETE FROM %s WHERE (userId=%s)".formatted(table, userId));
+		execute("DELETE FROM %s WHERE (userId=?)".formatted(table), userId);
 	}
 
 	public void setName(long userId, String channelName) throws SQLException {
-		execute("INSERT INTO %s(userId, voiceName) VALUES (%d, %s) ON CONFLICT(userId) DO UPDATE SET voiceName=%<s".formatted(table, userId, quote(channelName)));
+		execute("INSERT INTO %s(userId, voiceName) VALUES (?, ?) ON CONFLICT(userId) DO UPDATE SET voiceName=excluded.voiceName".formatted(table), userId, channelName);
 	}
 
 	public void setLimit(long userId, int channelLimit) throws SQLException {
-		execute("INSERT INTO %s(userId, voiceLimit) VALUES (%d, %d) ON CONFLICT(userId) DO UPDATE SET voiceLimit=%<d".formatted(table, userId, channelLimit));
+		execute("INSERT INTO %s(userId, voiceLimit) VALUES (?, ?) ON CONFLICT(userId) DO UPDATE SET voiceLimit=excluded.voiceLimit".formatted(table), userId, channelLimit);
 	}
 
 	public String getName(long userId) {
-		return selectOne("SELECT voiceName FROM %s WHERE (userId=%d)".formatted(table, userId), "voiceName", String.class);
+		return selectOne("SELECT voiceName FROM %s WHERE (userId=?)".formatted(table), "voiceName", String.class, userId);
 	}
 
 	public Integer getLimit(long userId) {
-		return selectOne("SELECT voiceLimit FROM %s WHERE (userId=%d)".formatted(table, userId), "voiceLimit", Integer.class);
+		return selectOne("SELECT voiceLimit FROM %s WHERE (userId=?)".formatted(table), "voiceLimit", Integer.class, userId);
 	}
 }
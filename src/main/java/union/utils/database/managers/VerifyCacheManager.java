@@ -2,10 +2,12 @@ package union.utils.database.managers;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import union.utils.BloomFilter;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -16,56 +18,84 @@ public class VerifyCacheManager extends LiteDBBase {
 		.maximumSize(1000)
 		.expireAfterAccess(1, TimeUnit.DAYS)
 		.build();
+	// steam64 - discordId, filled by lookups in both directions, forced users (steam64=0) are not stored
+	private final Cache<Long, Long> discordCache = Caffeine.newBuilder()
+		.maximumSize(1000)
+		.expireAfterAccess(1, TimeUnit.DAYS)
+		.build();
+	// discordId of users not in the table, checked on every message
+	private final Cache<Long, Boolean> missingCache = Caffeine.newBuilder()
+		.maximumSize(10_000)
+		.expireAfterWrite(5, TimeUnit.MINUTES)
+		.build();
+	// all discordIds in the table, misses are answered without query
+	private volatile BloomFilter knownUsers;
 
 	public VerifyCacheManager(ConnectionUtil cu) {
 		super(cu, "verified");
+		rebuildFilter();
 	}
 
 	public void addUser(long discordId, long steam64) throws SQLException {
+		execute("INSERT INTO %s(discordId, steam64) VALUES (?, ?) ON CONFLICT(discordId) DO UPDATE SET steam64=excluded.steam64".formatted(table), discordId, steam64);
+		invalidateCache(discordId);
+		addKnownUser(discordId);
+	}
+
+	// Does not wait for the database, used from event listeners
+	public CompletableFuture<Void> addUserAsync(long discordId, long steam64) {
 		invalidateCache(discordId);
-		execute("INSERT INTO %s(discordId, steam64) VALUES (%s, %s) ON CONFLICT(discordId) DO UPDATE SET steam64=%s".formatted(table, discordId, steam64, steam64));
+		cacheBoth(discordId, steam64);
+		addKnownUser(discordId);
+		return executeAsync("INSERT INTO %s(discordId, steam64) VALUES (?, ?) ON CONFLICT(discordId) DO UPDATE SET steam64=excluded.steam64".formatted(table), discordId, steam64);
 	}
 
 	public void removeByDiscord(long discordId) throws SQLException {
+		execute("DELETE FROM %s WHERE (discordId=?)".formatted(table), discordId);
 		invalidateCache(discordId);
-		execute("DELETE FROM %s WHERE (discordId=%s)".formatted(table, discordId));
+		// Stays in bloom filter, but is answered by this cache
+		missingCache.put(discordId, Boolean.TRUE);
 	}
 
 	public boolean isVerified(long discordId) {
-		if (cache.getIfPresent(discordId) != null)
-			return true;
-		Long steam64 = selectOne("SELECT steam64 FROM %s WHERE (discordId=%s)".formatted(table, discordId), "steam64", Long.class);
-		if (steam64 == null)
-			return false;
-		cache.put(discordId, steam64);
-		return true;
+		return getSteam64(discordId) != null;
 	}
 
 	public Long getSteam64(long discordId) {
 		Long steam64 = cache.getIfPresent(discordId);
 		if (steam64 != null)
 			return steam64;
-		steam64 = selectOne("SELECT steam64 FROM %s WHERE (discordId=%s)".formatted(table, discordId), "steam64", Long.class);
-		if (steam64 == null)
+		if (!knownUsers.mightContain(discordId) || missingCache.getIfPresent(discordId) != null)
 			return null;
-		cache.put(discordId, steam64);
+		steam64 = selectOne("SELECT steam64 FROM %s WHERE (discordId=?)".formatted(table), "steam64", Long.class, discordId);
+		if (steam64 == null) {
+			missingCache.put(discordId, Boolean.TRUE);
+			return null;
+		}
+		cacheBoth(discordId, steam64);
 		return steam64;
 	}
 
 	public Long getDiscordId(long steam64) {
-		// Can't be cached
-		return selectOne("SELECT discordId FROM %s WHERE (steam64=%s)".formatted(table, quote(steam64)), "discordId", Long.class);
+		Long discordId = discordCache.getIfPresent(steam64);
+		if (discordId != null)
+			return discordId;
+		discordId = selectOne("SELECT discordId FROM %s WHERE (steam64=?)".formatted(table), "discordId", Long.class, steam64);
+		if (discordId != null)
+			cacheBoth(discordId, steam64);
+		return discordId;
 	}
 
 
 	public void addForcedUser(long discordId) throws SQLException {
+		execute("INSERT INTO %s(discordId) VALUES (?) ON CONFLICT(discordId) DO NOTHING".formatted(table), discordId);
 		invalidateCache(discordId);
-		execute("INSERT INTO %s(discordId) VALUES (%s) ON CONFLICT(discordId) DO NOTHING".formatted(table, discordId));
+		addKnownUser(discordId);
 	}
 
 	public void forceRemoveSteam64(long discordId) throws SQLException {
+		execute("UPDATE %s SET steam64=0 WHERE (discordId=?)".formatted(table), discordId);
 		invalidateCache(discordId);
-		execute("UPDATE %s SET steam64=0 WHERE (discordId=%s)".formatted(table, discordId));
 	}
 
 	public List<Long> getForcedUsers() {
@@ -83,7 +113,33 @@ public class VerifyCacheManager extends LiteDBBase {
 		return count("SELECT COUNT(*) FROM %s".formatted(table));
 	}
 
+	private void cacheBoth(long discordId, long steam64) {
+		cache.put(discordId, steam64);
+		if (steam64 != 0L) discordCache.put(steam64, discordId);
+	}
+
 	private void invalidateCache(long discordId) {
 		cache.invalidate(discordId);
+		missingCache.invalidate(discordId);
+		// Previous steam64 may be not known, writes are rare
+		discordCache.asMap().values().removeIf(id -> id == discordId);
+	}
+
+	private synchronized void addKnownUser(long discordId) {
+		missingCache.invalidate(discordId);
+		knownUsers.put(discordId);
+		if (knownUsers.isSaturated()) rebuildFilter();
+	}
+
+	/**
+	 * Builds bloom filter from all users in the table, sized with room for new users.
+	 */
+	public synchronized void rebuildFilter() {
+		List<Long> ids = select("SELECT discordId FROM %s".formatted(table), "discordId", Long.class);
+		BloomFilter filter = new BloomFilter(Math.max(ids.size()*2, 10_000), 0.01);
+		ids.forEach(filter::put);
+		// Users added asynchronously could be not written yet
+		cache.asMap().keySet().forEach(filter::put);
+		knownUsers = filter;
 	}
 }
@@ -4,14 +4,15 @@ import static union.utils.CastUtil.getOrDefault;
 import static union.utils.CastUtil.resolveOrDefault;
 
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.Nullable;
-import union.objects.constants.Constants;
-import union.utils.FixedCache;
+import union.utils.SettingsCache;
 import union.utils.database.ConnectionUtil;
 import union.utils.database.LiteDBBase;
 
@@ -22,7 +23,7 @@ public class VerifySettingsManager extends LiteDBBase {
 	private final Set<String> columns = Set.of("roleId", "mainText", "checkEnabled", "minimumPlaytime", "additionalRoles");
 
 	// Cache
-	private final FixedCache<Long, VerifySettings> cache = new FixedCache<>(Constants.DEFAULT_CACHE_SIZE);
+	private final SettingsCache<Long, VerifySettings> cache = new SettingsCache<>("verifySettings");
 	private final VerifySettings blankSettings = new VerifySettings();
 
 	public VerifySettingsManager(ConnectionUtil cu) {
@@ -34,13 +35,26 @@ public class VerifySettingsManager extends LiteDBBase {
 	}
 
 	public VerifySettings getSettings(long guildId) {
-		if (cache.contains(guildId))
-			return cache.get(guildId);
-		VerifySettings settings = applyNonNull(getData(guildId), VerifySettings::new);
-		if (settings == null)
-			settings = blankSettings;
-		cache.put(guildId, settings);
-		return settings;
+		return cache.get(guildId, id -> {
+			// All stored rows are preloaded
+			if (cache.isComplete()) return blankSettings;
+			VerifySettings settings = applyNonNull(getData(id), VerifySettings::new);
+			if (settings == null)
+				settings = blankSettings;
+			return settings;
+		});
+	}
+
+	/**
+	 * Caches settings of all guilds from the table with one query.
+	 * @return number of loaded guilds
+	 */
+	public int preload() {
+		Map<Long, List<Map<String, Object>>> data = selectByGuild("SELECT * FROM %s".formatted(table), columns);
+		Map<Long, VerifySettings> settings = new HashMap<>(data.size());
+		data.forEach((guildId, rows) -> settings.put(guildId, new VerifySettings(rows.get(0))));
+		cache.preload(settings);
+		return data.size();
 	}
 
 	private Map<String, Object> getData(long guildId) {
@@ -48,38 +62,35 @@ public class VerifySettingsManager extends LiteDBBase {
 	}
 
 	public void remove(long guildId) throws SQLException {
-		invalidateCache(guildId);
 		execute("DELETE FROM %s WHERE (guildId=%d)".formatted(table, guildId));
+		cache.put(guildId, blankSettings);
 	}
 
 	public void setVerifyRole(long guildId, long roleId) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, roleId) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET roleId=%<d".formatted(table, guildId, roleId));
+		updateCache(guildId, "INSERT INTO %s(guildId, roleId) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET roleId=%<d".formatted(table, guildId, roleId));
 	}
 
 	public void setMainText(long guildId, String text) throws SQLException {
-		invalidateCache(guildId);
 		final String textParsed = quote(text.replace("\\n", "<br>"));
-		execute("INSERT INTO %s(guildId, mainText) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET mainText=%<s".formatted(table, guildId, textParsed));
+		updateCache(guildId, "INSERT INTO %s(guildId, mainText) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET mainText=%<s".formatted(table, guildId, textParsed));
 	}
 
 	public void setCheckState(long guildId, boolean enabled) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, checkEnabled) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET checkEnabled=%<d".formatted(table, guildId, enabled?1:0));
+		updateCache(guildId, "INSERT INTO %s(guildId, checkEnabled) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET checkEnabled=%<d".formatted(table, guildId, enabled?1:0));
 	}
 
 	public void setRequiredPlaytime(long guildId, int hours) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, minimumPlaytime) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET minimumPlaytime=%<d".formatted(table, guildId, hours));
+		updateCache(guildId, "INSERT INTO %s(guildId, minimumPlaytime) VALUES (%d, %d) ON CONFLICT(guildId) DO UPDATE SET minimumPlaytime=%<d".formatted(table, guildId, hours));
 	}
 
 	public void setAdditionalRoles(long guildId, @Nullable String roleIds) throws SQLException {
-		invalidateCache(guildId);
-		execute("INSERT INTO %s(guildId, additionalRoles) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET additionalRoles=%<s".formatted(table, guildId, quote(roleIds)));
+		updateCache(guildId, "INSERT INTO %s(guildId, additionalRoles) VALUES (%d, %s) ON CONFLICT(guildId) DO UPDATE SET additionalRoles=%<s".formatted(table, guildId, quote(roleIds)));
 	}
 
-	private void invalidateCache(long guildId) {
-		cache.pull(guildId);
+	// Caches the row returned by the statement, instead of reading it again
+	private void updateCache(long guildId, String sql, Object... params) throws SQLException {
+		Map<String, Object> data = executeReturning(sql+" RETURNING *", columns, params);
+		cache.put(guildId, data==null ? blankSettings : new VerifySettings(data));
 	}
 
 	public static class VerifySettings {
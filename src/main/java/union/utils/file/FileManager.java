@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import com.jayway.jsonpath.spi.json.JsonOrgJsonProvider;
@@ -28,6 +29,7 @@ import net.dv8tion.jda.api.interactions.DiscordLocale;
 import org.slf4j.LoggerFactory;
 
 import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 
@@ -42,6 +44,8 @@ public class FileManager {
 	
 	private Map<String, File> files;
 	private List<DiscordLocale> locales;
+	// Parsed files, read from disk only once
+	private final Map<String, DocumentContext> documents = new ConcurrentHashMap<>();
 
 	public FileManager() {}
 
@@ -181,6 +185,7 @@ public class FileManager {
 			} else {
 				if (Files.mismatch(file.toPath(), tempFile.toPath()) != -1) {
 					if (export(App.class.getResourceAsStream(internal), file.toPath())) {
+						reload(name);
 						logger.info("Successfully manually updated {}!", name);
 						return "File updated!";
 					} else {
@@ -197,6 +202,27 @@ public class FileManager {
 		return "File was not updated.";
 	}
 
+	/**
+	 * Drops parsed file, next read will load it from disk again.
+	 * @param name - json file name
+	 */
+	public void reload(String name) {
+		documents.remove(name);
+	}
+
+	public void reloadAll() {
+		documents.clear();
+	}
+
+	private DocumentContext getDocument(@NotNull File file, String name) throws IOException {
+		DocumentContext document = documents.get(name);
+		if (document == null) {
+			document = JsonPath.using(CONF).parse(file);
+			documents.put(name, document);
+		}
+		return document;
+	}
+
 	/**
 	 * @param name - json file to be searched
 	 * @return Returns nullable File.
@@ -240,7 +266,7 @@ public class FileManager {
 			if (file == null)
 				throw new FileNotFoundException();
 
-			text = JsonPath.using(CONF).parse(file).read("$." + path);
+			text = getDocument(file, name).read("$." + path);
 
 			if (text != null && text.isBlank()) text = null;
 		
@@ -265,7 +291,7 @@ public class FileManager {
 		}
 
 		try {
-			List<String> array = JsonPath.using(CONF).parse(file).read("$." + path);	
+			List<String> array = getDocument(file, name).read("$." + path);
 			
 			if (array == null || array.isEmpty())
 				throw new KeyIsNull(path);
@@ -288,7 +314,7 @@ public class FileManager {
 		if (file == null) return null;
 
 		try {
-			return JsonPath.using(CONF).parse(file).read("$." + path);
+			return getDocument(file, name).read("$." + path);
 		} catch (FileNotFoundException ex) {
 			logger.error("Couldn't find file {}.json", name);
 		} catch (IOException ex) {
@@ -304,7 +330,7 @@ public class FileManager {
 		if (file == null) return null;
 
 		try {
-			return JsonPath.using(CONF).parse(file).read("$." + path);
+			return getDocument(file, name).read("$." + path);
 		} catch (FileNotFoundException ex) {
 			logger.error("Couldn't find file {}.json", name);
 		} catch (IOException ex) {
@@ -193,6 +193,7 @@ public class SettingsManager {
 			try (FileWriter writer = new FileWriter(file)) {
 				writer.write(prettyJson);
 			}
+			fileManager.reload("settings");
 		} catch (IOException ex) {
 			log.error("Couldn't write settings.json\n{}", ex.getMessage());
 		}
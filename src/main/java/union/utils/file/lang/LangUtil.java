@@ -11,6 +11,7 @@ import com.jayway.jsonpath.JsonPath;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.LoggerFactory;
+import union.objects.Emotes;
 import union.utils.RandomUtil;
 import union.utils.file.FileManager;
 
@@ -22,19 +23,37 @@ public final class LangUtil {
 	private final Logger logger = (Logger) LoggerFactory.getLogger(LangUtil.class);
 
 	private final FileManager fileManager;
-	private final Map<String, Object> languages = new HashMap<>();
+	// Language - flattened path - text, emotes already replaced
+	private final Map<String, Map<String, String>> strings = new HashMap<>();
+	private final Map<String, Map<String, List<String>>> stringLists = new HashMap<>();
 	
 	public LangUtil(FileManager fileManager) {
 		for (DiscordLocale locale : fileManager.getLanguages()) {
 			try {
 				File file = fileManager.getFile(locale.getLocale());
-				languages.put(locale.getLocale(), JsonPath.parse(file).json());
+				Map<String, String> langStrings = new HashMap<>();
+				Map<String, List<String>> langLists = new HashMap<>();
+				flatten("", JsonPath.parse(file).json(), langStrings, langLists);
+				strings.put(locale.getLocale(), Map.copyOf(langStrings));
+				stringLists.put(locale.getLocale(), Map.copyOf(langLists));
 			} catch (IOException e) {
 				logger.warn(e.getMessage(), e);
 			}
 		}
 		this.fileManager = fileManager;
 	}
+
+	// Walks json tree, saving every text by its dotted path
+	private void flatten(String prefix, Object node, Map<String, String> langStrings, Map<String, List<String>> langLists) {
+		if (node instanceof Map<?, ?> map) {
+			map.forEach((key, value) -> flatten(prefix.isEmpty() ? key.toString() : prefix+"."+key, value, langStrings, langLists));
+		} else if (node instanceof List<?> list) {
+			langLists.put(prefix, list.stream().map(value -> Emotes.getWithEmotes(String.valueOf(value))).toList());
+		} else if (node != null) {
+			String text = node.toString();
+			if (!text.isBlank()) langStrings.put(prefix, Emotes.getWithEmotes(text));
+		}
+	}
 	
 	@NotNull
 	public String getString(DiscordLocale locale, String path) {
@@ -82,12 +101,10 @@ public final class LangUtil {
 	public List<String> getStringList(String lang, String path) {
 		List<String> result;
 
-		if (languages.containsKey(lang)) {
-			result = JsonPath.using(FileManager.CONF)
-				.parse(languages.get(lang))
-				.read("$." + path);
+		if (stringLists.containsKey(lang)) {
+			result = stringLists.get(lang).get(path);
 		} else {
-			result = fileManager.getStringList(lang, path);
+			result = fileManager.getStringList(lang, path).stream().map(Emotes::getWithEmotes).toList();
 		}
 
 		if (result == null || result.isEmpty()) {
@@ -100,21 +117,15 @@ public final class LangUtil {
 	/**
 	 * @param lang - language to be used
 	 * @param path - string's json path
-	 * @return Returns null-able string.
+	 * @return Returns null-able string, with emotes.
 	 */
 	@Nullable
 	private String getNullableString(String lang, String path) {
-		final String text;
-
-		if (languages.containsKey(lang)) {
-			text = JsonPath.using(FileManager.CONF)
-				.parse(languages.get(lang))
-				.read("$." + path);
-
-			if (text == null || text.isBlank()) return null;
-			return text;
+		if (strings.containsKey(lang)) {
+			return strings.get(lang).get(path);
 		} else {
-			return fileManager.getNullableString(lang, path);
+			String text = fileManager.getNullableString(lang, path);
+			return text == null ? null : Emotes.getWithEmotes(text);
 		}
 	}
 
@@ -9,7 +9,7 @@ import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import union.App;
-import union.objects.Emotes;
+import union.utils.file.FileManager;
 
 import net.dv8tion.jda.api.interactions.DiscordLocale;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
@@ -18,19 +18,23 @@ import union.utils.message.MessageUtil;
 @SuppressWarnings("unused")
 public class LocaleUtil {
 
-	private final App bot;
+	private final FileManager fileManager;
 	private final LangUtil langUtil;
 	public final DiscordLocale defaultLocale;
 
 	public LocaleUtil(App bot, DiscordLocale defaultLocale) {
-		this.bot = bot;
-		this.langUtil = new LangUtil(bot.getFileManager());
+		this(bot.getFileManager(), defaultLocale);
+	}
+
+	public LocaleUtil(FileManager fileManager, DiscordLocale defaultLocale) {
+		this.fileManager = fileManager;
+		this.langUtil = new LangUtil(fileManager);
 		this.defaultLocale = defaultLocale;
 	}
 
 	@NotNull
 	public String getLocalized(DiscordLocale locale, String path) {
-		return Emotes.getWithEmotes(langUtil.getString(locale, path));
+		return langUtil.getString(locale, path);
 	}
 
 	@NotNull
@@ -75,13 +79,13 @@ public class LocaleUtil {
 
 	@NotNull
 	public String getLocalizedRandom(DiscordLocale locale, String path) {
-		return Emotes.getWithEmotes(langUtil.getRandomString(locale, path));
+		return langUtil.getRandomString(locale, path);
 	}
 
 	@NotNull
 	public Map<DiscordLocale, String> getFullLocaleMap(String path, String defaultText) {
 		Map<DiscordLocale, String> localeMap = new HashMap<>();
-		for (DiscordLocale locale : bot.getFileManager().getLanguages()) {
+		for (DiscordLocale locale : fileManager.getLanguages()) {
 			// Ignores UK/US change
 			if (locale.equals(DiscordLocale.ENGLISH_UK) || locale.equals(DiscordLocale.ENGLISH_US)) continue;
 			localeMap.put(locale, getLocalized(locale, path));
@@ -93,7 +97,7 @@ public class LocaleUtil {
 
 	public Map<DiscordLocale, String> getLocaleMap(String path) {
 		Map<DiscordLocale, String> localeMap = new HashMap<>();
-		for (DiscordLocale locale : bot.getFileManager().getLanguages()) {
+		for (DiscordLocale locale : fileManager.getLanguages()) {
 			// Ignores UK/US change
 			if (locale.equals(DiscordLocale.ENGLISH_UK) || locale.equals(DiscordLocale.ENGLISH_US)) continue;
 			localeMap.put(locale, getLocalized(locale, path));
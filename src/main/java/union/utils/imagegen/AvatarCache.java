@@ -0,0 +1,60 @@
+package union.utils.imagegen;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jetbrains.annotations.NotNull;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LRU cache of decoded avatars.
+ * Avatar URL contains its hash, so changed avatar is downloaded again.
+ */
+public class AvatarCache {
+
+	private static final int TIMEOUT = 5_000;
+
+	private static final Cache<String, BufferedImage> cache = Caffeine.newBuilder()
+		.maximumSize(256)
+		.expireAfterAccess(30, TimeUnit.MINUTES)
+		.build();
+
+	/**
+	 * Concurrent requests for the same avatar share single download.
+	 * @param avatarUrl effective avatar URL
+	 * @return decoded avatar
+	 * @throws IOException if failed to download or decode
+	 */
+	@NotNull
+	public static BufferedImage get(@NotNull String avatarUrl) throws IOException {
+		try {
+			return cache.get(avatarUrl, AvatarCache::download);
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	private static BufferedImage download(String avatarUrl) {
+		try {
+			URLConnection connection = new URL(avatarUrl).openConnection();
+			connection.setRequestProperty("user-Agent", "VOTL-Discord-Bot");
+			connection.setConnectTimeout(TIMEOUT);
+			connection.setReadTimeout(TIMEOUT);
+			try (InputStream stream = connection.getInputStream()) {
+				BufferedImage image = ImageIO.read(stream);
+				if (image == null) throw new IOException("Unsupported avatar image: "+avatarUrl);
+				return image;
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
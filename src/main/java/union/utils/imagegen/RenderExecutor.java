@@ -0,0 +1,55 @@
+package union.utils.imagegen;
+
+import union.services.CountingThreadFactory;
+import union.utils.imagegen.renders.Renderer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool for image rendering, keeps image work off JDA threads.
+ * When the queue is full, new renders fail instead of piling up.
+ */
+public class RenderExecutor {
+
+	private static final int THREADS = 2;
+	private static final int QUEUE_SIZE = 32;
+
+	private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+		THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+		new ArrayBlockingQueue<>(QUEUE_SIZE),
+		new CountingThreadFactory("UTB", "Render"),
+		new ThreadPoolExecutor.AbortPolicy()
+	);
+
+	/**
+	 * @return future with PNG image, completed exceptionally if render failed or was rejected
+	 */
+	public static CompletableFuture<byte[]> render(Renderer renderer) {
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return renderer.renderToBytes();
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}, executor);
+		} catch (RejectedExecutionException ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	public static int getQueued() {
+		return executor.getQueue().size();
+	}
+
+	public static void shutdown() {
+		executor.shutdownNow();
+	}
+
+}
@@ -1,7 +1,9 @@
 package union.utils.imagegen;
 
+import org.jetbrains.annotations.Nullable;
 import union.objects.constants.Constants;
 
+import java.awt.image.BufferedImage;
 import java.util.Objects;
 
 public class UserBackground {
@@ -10,6 +12,8 @@ public class UserBackground {
 	private final String name;
 	private final String backgroundGraphicName;
 	private final BackgroundUserColors userColors;
+	// Decoded and scaled once by UserBackgroundHandler
+	private BufferedImage image = null;
 
 	UserBackground(int id, String name, String backgroundGraphicName, BackgroundUserColors userColor) {
 		this.id = id;
@@ -38,6 +42,18 @@ public class UserBackground {
 		return userColors;
 	}
 
+	/**
+	 * @return scaled background image, or null if background has no image or it failed to load
+	 */
+	@Nullable
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	void setImage(BufferedImage image) {
+		this.image = image;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (!(obj instanceof UserBackground background)) {
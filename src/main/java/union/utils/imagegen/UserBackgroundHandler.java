@@ -10,6 +10,9 @@ import union.App;
 import union.objects.constants.Constants;
 import union.utils.file.ResourceLoaderUtil;
 
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,6 +24,10 @@ import java.util.List;
 
 public class UserBackgroundHandler {
 
+	// Size of background image in profile render
+	public static final int IMAGE_WIDTH = 900;
+	public static final int IMAGE_HEIGHT = 360;
+
 	private static UserBackgroundHandler instance;
 	private final Logger log = (Logger) LoggerFactory.getLogger(UserBackgroundHandler.class);
 
@@ -113,6 +120,10 @@ public class UserBackgroundHandler {
 				continue;
 			}
 
+			if (background.getBackgroundFile() != null) {
+				background.setImage(loadImage(background));
+			}
+
 			usedIds.add(background.getId());
 			usedNames.add(background.getName());
 			localBackgrounds.add(background);
@@ -122,6 +133,29 @@ public class UserBackgroundHandler {
 		return localBackgrounds;
 	}
 
+	// Decodes and scales image once, instead of on each render
+	private BufferedImage loadImage(UserBackground background) {
+		try {
+			BufferedImage source = ImageIO.read(new File(background.getBackgroundPath()));
+			if (source == null) {
+				log.warn("Unsupported image of background {}", background.getName());
+				return null;
+			}
+			return scale(source);
+		} catch (IOException e) {
+			log.warn("Failed to load image of background {}: {}", background.getName(), e.getMessage());
+			return null;
+		}
+	}
+
+	static BufferedImage scale(BufferedImage source) {
+		BufferedImage scaled = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = scaled.createGraphics();
+		g.drawImage(source.getScaledInstance(IMAGE_WIDTH, IMAGE_HEIGHT, Image.SCALE_SMOOTH), 0, 0, null);
+		g.dispose();
+		return scaled;
+	}
+
 	private BackgroundValidation validateUserBackground(UserBackground background) {
 		if (background.getName() == null || background.getName().isEmpty()) {
 			return BackgroundValidation.INVALID_NAME;
@@ -1,7 +1,6 @@
 package union.utils.imagegen.renders;
 
 import net.dv8tion.jda.api.interactions.DiscordLocale;
-import union.App;
 import union.objects.CaseType;
 import union.utils.ColorUtil;
 import union.utils.file.lang.LocaleUtil;
@@ -26,6 +25,7 @@ public class ModStatsRender extends Renderer {
 
 	public ModStatsRender(
 		DiscordLocale locale,
+		LocaleUtil lu,
 		String username,
 		Map<Integer, Integer> countTotal,
 		Map<Integer, Integer> count30,
@@ -35,7 +35,7 @@ public class ModStatsRender extends Renderer {
 		int role7
 	) {
 		this.locale = locale;
-		this.lu = App.getInstance().getLocaleUtil();
+		this.lu = lu;
 		this.username = username;
 		this.countTotal = countTotal;
 		this.count30 = count30;
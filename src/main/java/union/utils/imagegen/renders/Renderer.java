@@ -13,6 +13,14 @@ import java.io.IOException;
 @SuppressWarnings("unused")
 public abstract class Renderer {
 
+	// PNG encoding buffer, reused by each render thread
+	private static final ThreadLocal<ByteArrayOutputStream> encodeBuffer = ThreadLocal.withInitial(() -> new ByteArrayOutputStream(256 * 1024));
+
+	static {
+		// Encode in memory, without temporary cache files
+		ImageIO.setUseCache(false);
+	}
+
 	/**
 	 * Checks if the render is ready to be used, if the {@link #render()} or
 	 * {@link #renderToBytes()} method is called while this returns false,
@@ -67,15 +75,12 @@ public abstract class Renderer {
 			return null;
 		}
 
-		ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		ByteArrayOutputStream byteStream = encodeBuffer.get();
+		byteStream.reset();
 
 		ImageIO.write(bufferedImage, "png", byteStream);
-		byteStream.flush();
-
-		byte[] bytes = byteStream.toByteArray();
-		byteStream.close();
 
-		return bytes;
+		return byteStream.toByteArray();
 	}
 
 	/**
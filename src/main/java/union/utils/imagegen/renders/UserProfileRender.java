@@ -8,19 +8,17 @@ import union.objects.CmdAccessLevel;
 import union.utils.RandomUtil;
 import union.utils.database.managers.UnionPlayerManager.PlayerInfo;
 import union.utils.file.lang.LocaleUtil;
+import union.utils.imagegen.AvatarCache;
 import union.utils.imagegen.Fonts;
 import union.utils.imagegen.UserBackground;
+import union.utils.imagegen.UserBackgroundHandler;
 import union.utils.imagegen.UserRankColor;
 import union.utils.message.MessageUtil;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
-import java.net.URL;
-import java.net.URLConnection;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -142,9 +140,7 @@ public class UserProfileRender extends Renderer {
 
 	@Override
 	protected BufferedImage handleRender() throws IOException {
-		URL url = new URL(avatarUrl);
-		URLConnection connection = url.openConnection();
-		connection.setRequestProperty("user-Agent", "VOTL-Discord-Bot");
+		BufferedImage avatar = AvatarCache.get(avatarUrl);
 
 		BufferedImage backgroundImage = loadAndBuildBackground();
 
@@ -153,7 +149,7 @@ public class UserProfileRender extends Renderer {
 		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
-		createAvatar(g, ImageIO.read(connection.getInputStream()));
+		createAvatar(g, avatar);
 
 		createUserInfo(g);
 		if (playerData != null) {
@@ -169,10 +165,10 @@ public class UserProfileRender extends Renderer {
 		return backgroundImage;
 	}
 
-	private BufferedImage loadAndBuildBackground() throws IOException {
-		final int MAX_WIDTH = 900;
-		final int WIDTH = minimized ? 420 : 900;
-		final int HEIGHT = 360;
+	private BufferedImage loadAndBuildBackground() {
+		final int MAX_WIDTH = UserBackgroundHandler.IMAGE_WIDTH;
+		final int WIDTH = minimized ? 420 : MAX_WIDTH;
+		final int HEIGHT = UserBackgroundHandler.IMAGE_HEIGHT;
 		BufferedImage backgroundImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
 
 		// Create graphics for background
@@ -184,9 +180,8 @@ public class UserProfileRender extends Renderer {
 		RoundRectangle2D roundRectangle = new RoundRectangle2D.Float(0, 0, WIDTH, HEIGHT, 40, 40);
 		g.setClip(roundRectangle);
 
-		if (background.getBackgroundFile() != null) {
-			Image scaledInstance = ImageIO.read(new File(background.getBackgroundPath()))
-				.getScaledInstance(MAX_WIDTH, HEIGHT, Image.SCALE_SMOOTH);
+		BufferedImage scaledInstance = background.getImage();
+		if (scaledInstance != null) {
 			int x = minimized ? -RandomUtil.getInteger(MAX_WIDTH-WIDTH) : WIDTH; // Move image left to random amount
 			g.drawImage(scaledInstance, x, 0, null);
 		} else {
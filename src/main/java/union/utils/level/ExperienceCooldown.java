@@ -0,0 +1,110 @@
+package union.utils.level;
+
+/**
+ * Cooldown of (guildId, userId) pairs, stored in primitive arrays.
+ * Checking and starting cooldown does not allocate.
+ * <p>Table is split into stripes by pair hash, each stripe is locked separately,
+ * expired entries are dropped when stripe grows.
+ */
+public class ExperienceCooldown {
+	private static final int STRIPES = 16;
+
+	private final long duration;
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	/**
+	 * @param duration cooldown duration in milliseconds
+	 */
+	public ExperienceCooldown(long duration) {
+		this.duration = duration;
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * Starts cooldown for the pair, if it is not already on cooldown.
+	 * @return true, if pair was not on cooldown
+	 */
+	public boolean tryAcquire(long guildId, long userId) {
+		long hash = hash(guildId, userId);
+		Stripe stripe = stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+		synchronized (stripe) {
+			return stripe.tryAcquire(guildId, userId, (int) hash, System.currentTimeMillis(), duration);
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size;
+			}
+		}
+		return size;
+	}
+
+	private static long hash(long guildId, long userId) {
+		long hash = (guildId * 0x9E3779B97F4A7C15L) ^ userId;
+		hash *= 0xBF58476D1CE4E5B9L;
+		return hash ^ (hash >>> 31);
+	}
+
+	// Open addressing with linear probing, expires[i] == 0 marks empty slot
+	private static class Stripe {
+		private long[] guildIds = new long[64];
+		private long[] userIds = new long[64];
+		private long[] expires = new long[64];
+		private int size = 0;
+
+		boolean tryAcquire(long guildId, long userId, int hash, long now, long duration) {
+			int mask = expires.length - 1;
+			int i = hash & mask;
+			while (expires[i] != 0) {
+				if (guildIds[i] == guildId && userIds[i] == userId) {
+					if (expires[i] > now) return false;
+					expires[i] = now + duration;
+					return true;
+				}
+				i = (i + 1) & mask;
+			}
+			if ((size + 1) * 4 > expires.length * 3) {
+				rebuild(now);
+				tryAcquire(guildId, userId, hash, now, duration);
+				return true;
+			}
+			guildIds[i] = guildId;
+			userIds[i] = userId;
+			expires[i] = now + duration;
+			size++;
+			return true;
+		}
+
+		// Drop expired entries, grow only if still more than half full
+		private void rebuild(long now) {
+			long[] oldGuildIds = guildIds, oldUserIds = userIds, oldExpires = expires;
+			int active = 0;
+			for (long expire : oldExpires) {
+				if (expire > now) active++;
+			}
+			int capacity = oldExpires.length;
+			if (active * 2 > capacity) capacity *= 2;
+
+			guildIds = new long[capacity];
+			userIds = new long[capacity];
+			expires = new long[capacity];
+			size = 0;
+			int mask = capacity - 1;
+			for (int j = 0; j < oldExpires.length; j++) {
+				if (oldExpires[j] <= now) continue;
+				int i = (int) hash(oldGuildIds[j], oldUserIds[j]) & mask;
+				while (expires[i] != 0) i = (i + 1) & mask;
+				guildIds[i] = oldGuildIds[j];
+				userIds[i] = oldUserIds[j];
+				expires[i] = oldExpires[j];
+				size++;
+			}
+		}
+	}
+
+}
@@ -1,7 +1,5 @@
 package union.utils.level;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
@@ -22,12 +20,8 @@ public class LevelUtil {
 		this.bot = bot;
 	}
 
-	// Cache
-	public static final Cache<String, Boolean> cache = Caffeine.newBuilder()
-		.expireAfterWrite(60, TimeUnit.SECONDS)
-		.build();
-
-	private static final HashSet<PlayerObject> updateQueue = new LinkedHashSet<>();
+	// Message experience cooldown
+	private static final ExperienceCooldown cooldown = new ExperienceCooldown(TimeUnit.SECONDS.toMillis(60));
 
 	private static final long hardCap = (long) Integer.MAX_VALUE*4L;
 
@@ -78,11 +72,10 @@ public class LevelUtil {
 			return;
 		}
 
-		// If in cache - skip, else give exp and add to it
-		cache.get(asKey(event), (k)->{
+		// If on cooldown - skip, else give exp and start cooldown
+		if (cooldown.tryAcquire(event.getGuild().getIdLong(), event.getAuthor().getIdLong())) {
 			giveExperience(event.getMember(), RandomUtil.getInteger(maxRandomExperience)+maxGuaranteeMessageExperience, ExpType.TEXT);
-			return true;
-		});
+		}
 	}
 
 	public void rewardVoicePlayer(@NotNull Member member, @NotNull AudioChannelUnion channel) {
@@ -101,21 +94,23 @@ public class LevelUtil {
 	}
 
 	public void giveExperience(@NotNull Member member, int amount, ExpType expType) {
-		giveExperience(member, bot.getDBUtil().levels.getPlayer(member.getGuild().getIdLong(), member.getIdLong()), amount, expType);
+		PlayerObject playerObject = new PlayerObject(member);
+		giveExperience(member, playerObject, bot.getDBUtil().levels.getPlayer(playerObject), amount, expType);
 	}
 
-	private void giveExperience(@NotNull Member member, @NotNull LevelManager.PlayerData player, int amount, ExpType expType) {
-		int level = getLevelFromExperience(player.getExperience(expType));
-
-		player.incrementExperienceBy(amount, expType);
+	private void giveExperience(@NotNull Member member, @NotNull PlayerObject playerObject, @NotNull LevelManager.PlayerData player, int amount, ExpType expType) {
+		long experience = player.incrementExperienceBy(amount, expType);
+		int level = getLevelFromExperience(experience-amount);
 
-		if (player.getExperience(expType) >= getHardCap()-(maxGuaranteeMessageExperience+maxRandomExperience) || player.getExperience(expType) < -1) {
-			player.setExperience(getHardCap(), expType);
+		if (experience >= getHardCap()-(maxGuaranteeMessageExperience+maxRandomExperience) || experience < -1) {
+			experience = getHardCap();
+			player.setExperience(experience, expType);
 		}
 
-		updateQueue.add(new PlayerObject(member)); // Add to update queue
+		bot.getDBUtil().levels.markDirty(playerObject, player); // Add to update queue
+		bot.getDBUtil().levels.addGlobalExperience(playerObject.userId, amount);
 
-		int newLevel = getLevelFromExperience(player.getExperience(expType));
+		int newLevel = getLevelFromExperience(experience);
 		if (newLevel > level) {
 			// message
 			if (informLevelUp(newLevel)) {
@@ -138,39 +133,27 @@ public class LevelUtil {
 	}
 
 	public void removeExperience(@NotNull Member member, int amount, ExpType expType) {
-		removeExperience(member, bot.getDBUtil().levels.getPlayer(member.getGuild().getIdLong(), member.getIdLong()), amount, expType);
+		PlayerObject playerObject = new PlayerObject(member);
+		removeExperience(playerObject, bot.getDBUtil().levels.getPlayer(playerObject), amount, expType);
 	}
 
-	private void removeExperience(@NotNull Member member, @NotNull LevelManager.PlayerData player, int amount, ExpType expType) {
-		player.decreaseExperienceBy(amount, expType);
-
-		if (player.getExperience(expType) < 0) {
+	private void removeExperience(@NotNull PlayerObject playerObject, @NotNull LevelManager.PlayerData player, int amount, ExpType expType) {
+		if (player.decreaseExperienceBy(amount, expType) < 0) {
 			player.setExperience(0, expType);
 		}
 
-		updateQueue.add(new PlayerObject(member)); // Add to update queue
+		bot.getDBUtil().levels.markDirty(playerObject, player); // Add to update queue
 	}
 
 	public void clearExperience(@NotNull Member member) {
-		clearExperience(member, bot.getDBUtil().levels.getPlayer(member.getGuild().getIdLong(), member.getIdLong()));
+		PlayerObject playerObject = new PlayerObject(member);
+		clearExperience(playerObject, bot.getDBUtil().levels.getPlayer(playerObject));
 	}
 
-	private void clearExperience(@NotNull Member member, @NotNull LevelManager.PlayerData player) {
+	private void clearExperience(@NotNull PlayerObject playerObject, @NotNull LevelManager.PlayerData player) {
 		player.clearExperience();
 
-		updateQueue.add(new PlayerObject(member)); // Add to update queue
-	}
-
-	public HashSet<PlayerObject> getUpdateQueue() {
-		return updateQueue;
-	}
-
-	private String asKey(MessageReceivedEvent event) {
-		return asKey(event.getGuild(), event.getAuthor());
-	}
-
-	private String asKey(Guild guild, UserSnowflake user) {
-		return guild.getId()+":"+user.getId();
+		bot.getDBUtil().levels.markDirty(playerObject, player); // Add to update queue
 	}
 
 	private boolean informLevelUp(int level) {
@@ -2,8 +2,6 @@ package union.utils.level;
 
 import net.dv8tion.jda.api.entities.Member;
 
-import java.util.Objects;
-
 public class PlayerObject {
 	public final long guildId, userId;
 
@@ -17,21 +15,6 @@ public class PlayerObject {
 		this.userId = member.getIdLong();
 	}
 
-	public String asKey() {
-		return guildId + ":" + userId;
-	}
-
-	public static String asKey(long guildId, long userId) {
-		return guildId + ":" + userId;
-	}
-
-	public static PlayerObject fromKey(String key) {
-		String[] split = key.split(":");
-		if (split.length != 2)
-			throw new IllegalArgumentException("Invalid key: " + key);
-		return new PlayerObject(Long.parseLong(split[0]), Long.parseLong(split[1]));
-	}
-
 	@Override
 	public boolean equals(Object o) {
 		if (o == null || getClass() != o.getClass()) return false;
@@ -41,6 +24,7 @@ public class PlayerObject {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(guildId, userId);
+		// Without varargs boxing of Objects.hash
+		return 31 * Long.hashCode(guildId) + Long.hashCode(userId);
 	}
 }
@@ -0,0 +1,196 @@
+package union.utils.level;
+
+import union.utils.database.managers.LevelManager.TopUser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Experience leaderboard, kept as a treap of distinct experience values.
+ * Each node holds users with the same experience and size of its subtree,
+ * so rank and top are found in O(log n) without scanning all players.
+ * <p>Only users with positive experience are ranked.
+ */
+public class RankIndex {
+
+	// userId - experience
+	private final Map<Long, Long> values = new HashMap<>();
+	private Node root = null;
+
+	private static class Node {
+		final long exp;
+		final int priority = ThreadLocalRandom.current().nextInt();
+		final Set<Long> users = new HashSet<>(2);
+		Node left, right;
+		// Distinct experience values in subtree
+		int size = 1;
+
+		Node(long exp, long userId) {
+			this.exp = exp;
+			users.add(userId);
+		}
+	}
+
+	public synchronized void set(long userId, long exp) {
+		Long old = values.get(userId);
+		if (old != null) {
+			if (old == exp) return;
+			root = remove(root, old, userId);
+		}
+		if (exp > 0) {
+			values.put(userId, exp);
+			root = insert(root, exp, userId);
+		} else {
+			values.remove(userId);
+		}
+	}
+
+	public synchronized void add(long userId, long amount) {
+		set(userId, values.getOrDefault(userId, 0L) + amount);
+	}
+
+	public synchronized void remove(long userId) {
+		Long old = values.remove(userId);
+		if (old != null) root = remove(root, old, userId);
+	}
+
+	public synchronized void clear() {
+		values.clear();
+		root = null;
+	}
+
+	public synchronized long get(long userId) {
+		return values.getOrDefault(userId, 0L);
+	}
+
+	public synchronized int size() {
+		return values.size();
+	}
+
+	/**
+	 * Dense rank, users with the same experience share it.
+	 * @return rank starting from 1, or null if user has no experience
+	 */
+	public synchronized Integer getRank(long userId) {
+		Long exp = values.get(userId);
+		if (exp == null) return null;
+		// Count distinct values greater than user's
+		int greater = 0;
+		Node n = root;
+		while (n != null) {
+			if (exp < n.exp) {
+				greater += 1 + size(n.right);
+				n = n.left;
+			} else if (exp > n.exp) {
+				n = n.right;
+			} else {
+				greater += size(n.right);
+				break;
+			}
+		}
+		return greater + 1;
+	}
+
+	/**
+	 * @return up to limit users with most experience, in descending order
+	 */
+	public synchronized List<TopUser> getTop(int limit) {
+		List<TopUser> top = new ArrayList<>(limit);
+		Deque<Node> stack = new ArrayDeque<>();
+		Node n = root;
+		// Reverse in-order walk
+		while ((n != null || !stack.isEmpty()) && top.size() < limit) {
+			while (n != null) {
+				stack.push(n);
+				n = n.right;
+			}
+			n = stack.pop();
+			for (long userId : n.users) {
+				if (top.size() == limit) break;
+				top.add(new TopUser(userId, n.exp));
+			}
+			n = n.left;
+		}
+		return top;
+	}
+
+	private static int size(Node n) {
+		return n == null ? 0 : n.size;
+	}
+
+	private static void update(Node n) {
+		n.size = 1 + size(n.left) + size(n.right);
+	}
+
+	private static Node rotateRight(Node n) {
+		Node l = n.left;
+		n.left = l.right;
+		update(n);
+		l.right = n;
+		update(l);
+		return l;
+	}
+
+	private static Node rotateLeft(Node n) {
+		Node r = n.right;
+		n.right = r.left;
+		update(n);
+		r.left = n;
+		update(r);
+		return r;
+	}
+
+	private static Node insert(Node n, long exp, long userId) {
+		if (n == null) return new Node(exp, userId);
+		if (exp == n.exp) {
+			n.users.add(userId);
+			return n;
+		}
+		if (exp < n.exp) {
+			n.left = insert(n.left, exp, userId);
+			if (n.left.priority > n.priority) return rotateRight(n);
+		} else {
+			n.right = insert(n.right, exp, userId);
+			if (n.right.priority > n.priority) return rotateLeft(n);
+		}
+		update(n);
+		return n;
+	}
+
+	private static Node remove(Node n, long exp, long userId) {
+		if (n == null) return null;
+		if (exp < n.exp) {
+			n.left = remove(n.left, exp, userId);
+		} else if (exp > n.exp) {
+			n.right = remove(n.right, exp, userId);
+		} else {
+			n.users.remove(userId);
+			if (!n.users.isEmpty()) return n;
+			return merge(n.left, n.right);
+		}
+		update(n);
+		return n;
+	}
+
+	// All values of a are less than values of b
+	private static Node merge(Node a, Node b) {
+		if (a == null) return b;
+		if (b == null) return a;
+		if (a.priority > b.priority) {
+			a.right = merge(a.right, b);
+			update(a);
+			return a;
+		}
+		b.left = merge(a, b.left);
+		update(b);
+		return b;
+	}
+
+}
@@ -0,0 +1,117 @@
+package union.utils.transcripts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream, that stores written data in fixed size chunks.
+ * Unlike {@link java.io.ByteArrayOutputStream} it never copies already written data,
+ * and can be read any number of times with {@link #toInputStream()}.
+ */
+public class ChunkedOutputStream extends OutputStream {
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private final List<byte[]> chunks = new ArrayList<>();
+	private byte[] current = null;
+	private int position = CHUNK_SIZE;
+	private long size = 0;
+
+	@Override
+	public void write(int b) {
+		if (position == CHUNK_SIZE) nextChunk();
+		current[position++] = (byte) b;
+		size++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		while (len > 0) {
+			if (position == CHUNK_SIZE) nextChunk();
+			int n = Math.min(len, CHUNK_SIZE - position);
+			System.arraycopy(b, off, current, position, n);
+			position += n;
+			off += n;
+			len -= n;
+			size += n;
+		}
+	}
+
+	private void nextChunk() {
+		current = new byte[CHUNK_SIZE];
+		chunks.add(current);
+		position = 0;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @return new stream over written data
+	 */
+	public InputStream toInputStream() {
+		return new ChunkedInputStream(chunks, size);
+	}
+
+	/**
+	 * @return new stream with gzip compressed data
+	 */
+	public ChunkedOutputStream compress() throws IOException {
+		ChunkedOutputStream compressed = new ChunkedOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, CHUNK_SIZE)) {
+			long left = size;
+			for (byte[] chunk : chunks) {
+				int n = (int) Math.min(left, CHUNK_SIZE);
+				gzip.write(chunk, 0, n);
+				left -= n;
+			}
+		}
+		return compressed;
+	}
+
+	private static class ChunkedInputStream extends InputStream {
+		private final List<byte[]> chunks;
+		private final long size;
+		private long read = 0;
+
+		ChunkedInputStream(List<byte[]> chunks, long size) {
+			this.chunks = chunks;
+			this.size = size;
+		}
+
+		@Override
+		public int read() {
+			if (read >= size) return -1;
+			byte b = chunks.get((int) (read / CHUNK_SIZE))[(int) (read % CHUNK_SIZE)];
+			read++;
+			return b & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) return 0;
+			if (read >= size) return -1;
+			int total = 0;
+			while (len > 0 && read < size) {
+				int offset = (int) (read % CHUNK_SIZE);
+				int n = (int) Math.min(Math.min(len, CHUNK_SIZE - offset), size - read);
+				System.arraycopy(chunks.get((int) (read / CHUNK_SIZE)), offset, b, off, n);
+				read += n;
+				off += n;
+				len -= n;
+				total += n;
+			}
+			return total;
+		}
+
+		@Override
+		public int available() {
+			return (int) Math.min(size - read, Integer.MAX_VALUE);
+		}
+	}
+
+}
@@ -1,11 +1,16 @@
 package union.utils.transcripts;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 import net.dv8tion.jda.api.entities.ISnowflake;
@@ -25,8 +30,10 @@ import net.dv8tion.jda.api.utils.FileUpload;
 
 import org.jetbrains.annotations.NotNull;
 import org.jsoup.Jsoup;
+import org.jsoup.nodes.Comment;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
 import union.utils.encoding.EncodingUtil;
 
 /**
@@ -43,6 +50,18 @@ public class DiscordHtmlTranscripts {
             videoFormats = Arrays.asList("mp4", "webm", "mkv", "avi", "mov", "flv", "wmv", "mpg", "mpeg"),
             audioFormats = Arrays.asList("mp3", "wav", "ogg", "flac");
 
+    // Discord limit for message history request
+    private static final int PAGE_SIZE = 100;
+    // Whole transcript is kept in memory until it is sent
+    private static final int MAX_MESSAGES = 10_000;
+
+    private static final String TITLE = "{{TITLE}}", GUILD_ICON = "{{GUILD_ICON}}", GUILD_NAME = "{{GUILD_NAME}}",
+            CHANNEL_NAME = "{{CHANNEL_NAME}}", MESSAGE_COUNT = "{{MESSAGE_COUNT}}";
+    private static final String CHATLOG_MARKER = "chatlog-messages";
+
+    // Template parsed once and split around chat log, placeholders are replaced for each transcript
+    private String templateHead, templateTail;
+
     public static DiscordHtmlTranscripts getInstance() {
         if (instance == null) {
             instance = new DiscordHtmlTranscripts();
@@ -50,27 +69,87 @@ public class DiscordHtmlTranscripts {
         return instance;
     }
 
+    /**
+     * Retrieves channel history from the oldest message, one page at a time, and writes it to the transcript.
+     * Only the current page of messages is kept in memory.
+     * Transcript is compressed with gzip, if it is larger than the upload limit of the guild.
+     *
+     * @param action receives transcript file or null, if channel has no conversation
+     */
     public void queueCreateTranscript(GuildMessageChannel channel, @NotNull Consumer<FileUpload> action, @NotNull Consumer<? super Throwable> failure) {
-        channel.getIterableHistory()
-            .deadline(System.currentTimeMillis() + 3000)
-            .takeAsync(200)
-            .thenAcceptAsync(list -> {
-                if (list.size() < 2) action.accept(null); // Probably one message is from bot and to be ignored.
-                if (list.size() <= 6) {
-                    // Check if history has repeated authors - then it's bot
-                    Set<Long> ids = new HashSet<>();
-                    list.forEach(msg -> ids.add(msg.getAuthor().getIdLong()));
-                    if (ids.size() <= 1) action.accept(null);
+        final ChunkedOutputStream output = new ChunkedOutputStream();
+        final TranscriptWriter writer;
+        try {
+            writer = new TranscriptWriter(channel, output);
+        } catch (IOException ex) {
+            failure.accept(ex);
+            return;
+        }
+
+        channel.getHistoryFromBeginning(PAGE_SIZE).submit()
+            .thenComposeAsync(history -> {
+                List<Message> page = history.getRetrievedHistory();
+                if (page.size() < PAGE_SIZE && isWithoutConversation(page)) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                return writePages(channel, writer, page).thenApply(v -> true);
+            })
+            .whenComplete((written, ex) -> {
+                if (ex != null) {
+                    failure.accept(ex instanceof CompletionException ? ex.getCause() : ex);
+                    return;
+                }
+                if (!written) {
+                    action.accept(null);
+                    return;
                 }
                 try {
-                    final String fileName = EncodingUtil.encodeTranscript(channel.getIdLong());
-                    action.accept(FileUpload.fromData(generateFromMessages(list), fileName));
-                } catch(Exception ex) {
-                    failure.accept(ex);
+                    writer.finish();
+
+                    String fileName = EncodingUtil.encodeTranscript(channel.getIdLong());
+                    ChunkedOutputStream result = output;
+                    if (output.size() > channel.getGuild().getMaxFileSize()) {
+                        result = output.compress();
+                        fileName += ".gz";
+                    }
+                    action.accept(FileUpload.fromStreamSupplier(fileName, result::toInputStream));
+                } catch (Exception e) {
+                    failure.accept(e);
                 }
             });
     }
 
+    private CompletableFuture<Void> writePages(GuildMessageChannel channel, TranscriptWriter writer, List<Message> page) {
+        if (page.isEmpty()) return CompletableFuture.completedFuture(null);
+        long lastId = 0;
+        try {
+            for (Message message : page.stream()
+                    .sorted(Comparator.comparingLong(ISnowflake::getIdLong))
+                    .toList()) {
+                writer.append(message);
+                lastId = message.getIdLong();
+            }
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        if (page.size() < PAGE_SIZE || writer.getCount() >= MAX_MESSAGES) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return channel.getHistoryAfter(lastId, PAGE_SIZE).submit()
+            .thenComposeAsync(history -> writePages(channel, writer, history.getRetrievedHistory()));
+    }
+
+    // Probably one message is from bot and to be ignored, or history has repeated authors - then it's bot
+    private boolean isWithoutConversation(List<Message> messages) {
+        if (messages.size() < 2) return true;
+        if (messages.size() <= 6) {
+            Set<Long> ids = new HashSet<>();
+            messages.forEach(msg -> ids.add(msg.getAuthor().getIdLong()));
+            return ids.size() <= 1;
+        }
+        return false;
+    }
+
     private InputStream findFile() {
         InputStream inputStream = getClass().getClassLoader().getResourceAsStream("template.html");
         if (inputStream == null) {
@@ -79,6 +158,32 @@ public class DiscordHtmlTranscripts {
         return inputStream;
     }
 
+    private synchronized void loadTemplate() throws IOException {
+        if (templateHead != null) return;
+        Document document;
+        try (InputStream htmlTemplate = findFile()) {
+            document = Jsoup.parse(htmlTemplate, "UTF-8", "template.html");
+        }
+        document.outputSettings().indentAmount(0).prettyPrint(true);
+        document.getElementsByClass("preamble__guild-icon").first().attr("src", GUILD_ICON); // set guild icon
+
+        document.getElementById("transcriptTitle").text(TITLE); // set title
+        document.getElementById("guildname").text(GUILD_NAME); // set guild name
+        document.getElementById("ticketname").text(CHANNEL_NAME); // set channel name
+        document.getElementById("messagecount").text(MESSAGE_COUNT); // set message count
+
+        Element chatLog = document.getElementById("chatlog"); // chat log
+        if (chatLog == null) {
+            throw new NullPointerException("Element 'chatlog' can not be null!");
+        }
+        chatLog.empty().appendChild(new Comment(CHATLOG_MARKER));
+
+        String html = document.outerHtml();
+        int index = html.indexOf("<!--" + CHATLOG_MARKER + "-->");
+        templateTail = html.substring(index + CHATLOG_MARKER.length() + 7);
+        templateHead = html.substring(0, index);
+    }
+
     /**
      * Generates a transcript from provided messages.<br><br>
      *
@@ -91,223 +196,252 @@ public class DiscordHtmlTranscripts {
      * </ul>
      *
      * @param messages A collection of messages to generate the transcript from.
-     * @return An InputStream containing the transcript. Can be used to e.g. create a {@link FileUpload#fromData FileUpload.fromData}.
-     * @throws IOException If the template file can not be found
+     * @param output Stream to write the transcript to, it is not closed.
+     * @throws IOException If the template file can not be found or output can not be written
      * @throws net.dv8tion.jda.api.exceptions.InsufficientPermissionException If the current logged in account
      *         does not have the permission {@link net.dv8tion.jda.api.Permission#MESSAGE_HISTORY MESSAGE_HISTORY}
      */
-    public InputStream generateFromMessages(Collection<Message> messages) throws IOException, InsufficientPermissionException {
-        InputStream htmlTemplate = findFile();
+    public void generateFromMessages(Collection<Message> messages, OutputStream output) throws IOException, InsufficientPermissionException {
         if (messages.isEmpty()) {
             throw new IllegalArgumentException("No messages to generate a transcript from");
         }
 
-        GuildChannel channel = messages.iterator().next().getChannel().asGuildMessageChannel();
+        TranscriptWriter writer = new TranscriptWriter(messages.iterator().next().getChannel().asGuildMessageChannel(), output);
+        for (Message message : messages.stream()
+                .sorted(Comparator.comparing(ISnowflake::getTimeCreated))
+                .toList()) {
+            writer.append(message);
+        }
+        writer.finish();
+    }
 
-        Document document = Jsoup.parse(htmlTemplate, "UTF-8", "template.html");
-        document.outputSettings().indentAmount(0).prettyPrint(true);
-        document.getElementsByClass("preamble__guild-icon").first().attr("src", channel.getGuild().getIconUrl()); // set guild icon
+    /**
+     * Writes template head on creation, then each appended message as separate fragment.
+     */
+    private class TranscriptWriter {
+        private final Writer writer;
+        // Used only to create elements, each message is removed after writing
+        private final Document document = Document.createShell("");
+        private final Element chatLog = document.body();
+        private int count = 0;
+
+        TranscriptWriter(GuildChannel channel, OutputStream output) throws IOException {
+            loadTemplate();
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            document.outputSettings().indentAmount(0).prettyPrint(true);
+
+            String iconUrl = channel.getGuild().getIconUrl();
+            writer.write(templateHead
+                    .replace(TITLE, Entities.escape("#" + channel.getName()))
+                    .replace(GUILD_ICON, Entities.escape(iconUrl == null ? "https://cdn.discordapp.com/embed/avatars/0.png" : iconUrl).replace("\"", "&quot;"))
+                    .replace(GUILD_NAME, Entities.escape(channel.getGuild().getName()))
+                    .replace(CHANNEL_NAME, Entities.escape("#" + channel.getName())));
+        }
 
-        document.getElementById("transcriptTitle").text("#" + channel.getName() + " | " + messages.size() + " messages"); // set title
-        document.getElementById("guildname").text(channel.getGuild().getName()); // set guild name
-        document.getElementById("ticketname").text("#" + channel.getName()); // set channel name
+        void append(Message message) throws IOException {
+            Element messageGroup = renderMessage(document, message);
+            chatLog.appendChild(messageGroup);
+            writer.write(messageGroup.outerHtml());
+            messageGroup.remove();
+            count++;
+        }
 
-        Element chatLog = document.getElementById("chatlog"); // chat log
-        if (chatLog == null) {
-            throw new NullPointerException("Element 'chatlog' can not be null!");
+        int getCount() {
+            return count;
         }
 
-        for (Message message : messages.stream()
-                .sorted(Comparator.comparing(ISnowflake::getTimeCreated))
-                .toList()) {
-            // create message group
-            Element messageGroup = document.createElement("div");
-            messageGroup.addClass("chatlog__message-group");
-            messageGroup.id("message-" + message.getId());
-
-            // Handle pins
-            if (message.getType() == MessageType.CHANNEL_PINNED_ADD) {
-                handlePinnedMessages(document, message, messageGroup);
-                chatLog.appendChild(messageGroup);
-                continue;
-            }
+        void finish() throws IOException {
+            writer.write(templateTail.replace(MESSAGE_COUNT, count + " messages"));
+            writer.flush();
+        }
+    }
 
-            // Handle and display slash commands
-            if (message.getType() == MessageType.SLASH_COMMAND) {
-                handleSlashCommands(document, message, messageGroup);
-            }
+    private Element renderMessage(Document document, Message message) {
+        // create message group
+        Element messageGroup = document.createElement("div");
+        messageGroup.addClass("chatlog__message-group");
+        messageGroup.id("message-" + message.getId());
 
-            // Handle inline replies
-            if (message.getReferencedMessage() != null) {
-                handleMessageReferences(document, message, messageGroup);
-            }
+        // Handle pins
+        if (message.getType() == MessageType.CHANNEL_PINNED_ADD) {
+            handlePinnedMessages(document, message, messageGroup);
+            return messageGroup;
+        }
 
-            var author = message.getAuthor();
+        // Handle and display slash commands
+        if (message.getType() == MessageType.SLASH_COMMAND) {
+            handleSlashCommands(document, message, messageGroup);
+        }
 
-            Element authorElement = document.createElement("div");
-            authorElement.addClass("chatlog__author-avatar-container");
+        // Handle inline replies
+        if (message.getReferencedMessage() != null) {
+            handleMessageReferences(document, message, messageGroup);
+        }
 
-            Element authorAvatar = document.createElement("img");
-            authorAvatar.addClass("chatlog__author-avatar");
-            authorAvatar.attr("src", author.getEffectiveAvatarUrl());
-            authorAvatar.attr("alt", "Avatar");
-            authorAvatar.attr("loading", "lazy");
+        var author = message.getAuthor();
 
-            authorElement.appendChild(authorAvatar);
-            messageGroup.appendChild(authorElement);
+        Element authorElement = document.createElement("div");
+        authorElement.addClass("chatlog__author-avatar-container");
 
-            // message content
-            Element content = document.createElement("div");
-            content.addClass("chatlog__messages");
+        Element authorAvatar = document.createElement("img");
+        authorAvatar.addClass("chatlog__author-avatar");
+        authorAvatar.attr("src", author.getEffectiveAvatarUrl());
+        authorAvatar.attr("alt", "Avatar");
+        authorAvatar.attr("loading", "lazy");
 
-            // message author name
-            Element authorName = document.createElement("span");
-            authorName.addClass("chatlog__author-name");
-            authorName.attr("title", author.getName());
-            authorName.text(author.getName());
-            authorName.attr("data-user-id", author.getId());
-            content.appendChild(authorName);
+        authorElement.appendChild(authorAvatar);
+        messageGroup.appendChild(authorElement);
 
-            if (author.isBot()) {
-                Element botTag = document.createElement("span");
-                botTag.addClass("chatlog__bot-tag").text("BOT");
-                content.appendChild(botTag);
-            }
+        // message content
+        Element content = document.createElement("div");
+        content.addClass("chatlog__messages");
 
-            // timestamp
-            Element timestamp = document.createElement("span");
-            timestamp.addClass("chatlog__timestamp");
-            timestamp.text(message.getTimeCreated()
-                    .format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+        // message author name
+        Element authorName = document.createElement("span");
+        authorName.addClass("chatlog__author-name");
+        authorName.attr("title", author.getName());
+        authorName.text(author.getName());
+        authorName.attr("data-user-id", author.getId());
+        content.appendChild(authorName);
 
-            content.appendChild(timestamp);
+        if (author.isBot()) {
+            Element botTag = document.createElement("span");
+            botTag.addClass("chatlog__bot-tag").text("BOT");
+            content.appendChild(botTag);
+        }
 
-            Element messageContent = document.createElement("div");
-            messageContent.addClass("chatlog__message");
-            messageContent.attr("data-message-id", message.getId());
-            messageContent.attr("title", "Message sent: " + message.getTimeCreated()
-                    .format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+        // timestamp
+        Element timestamp = document.createElement("span");
+        timestamp.addClass("chatlog__timestamp");
+        timestamp.text(message.getTimeCreated()
+                .format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
 
-            if (!message.getContentDisplay().isEmpty()) {
-                Element messageContentContent = document.createElement("div");
-                messageContentContent.addClass("chatlog__content");
+        content.appendChild(timestamp);
 
-                Element messageContentContentMarkdown = document.createElement("div");
-                messageContentContentMarkdown.addClass("markdown");
+        Element messageContent = document.createElement("div");
+        messageContent.addClass("chatlog__message");
+        messageContent.attr("data-message-id", message.getId());
+        messageContent.attr("title", "Message sent: " + message.getTimeCreated()
+                .format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
 
-                Element messageContentContentMarkdownSpan = document.createElement("span");
-                messageContentContentMarkdownSpan.addClass("preserve-whitespace");
-                messageContentContentMarkdownSpan.html(Formatter.format(message.getContentDisplay()));
+        if (!message.getContentDisplay().isEmpty()) {
+            Element messageContentContent = document.createElement("div");
+            messageContentContent.addClass("chatlog__content");
 
-                messageContentContentMarkdown.appendChild(messageContentContentMarkdownSpan);
-                messageContentContent.appendChild(messageContentContentMarkdown);
-                messageContent.appendChild(messageContentContent);
-            }
+            Element messageContentContentMarkdown = document.createElement("div");
+            messageContentContentMarkdown.addClass("markdown");
 
-            // messsage attachments
-            if (!message.getAttachments().isEmpty()) {
-                for (Message.Attachment attach : message.getAttachments()) {
-                    Element attachmentsDiv = document.createElement("div");
-                    attachmentsDiv.addClass("chatlog__attachment");
-
-                    var attachmentType = attach.getFileExtension();
-                    if (imageFormats.contains(attachmentType)) {
-                        handleImages(document, attach, attachmentsDiv);
-                    } else if (videoFormats.contains(attachmentType)) {
-                        handleVideos(document, attach, attachmentsDiv);
-                    } else if (audioFormats.contains(attachmentType)) {
-                        handleAudios(document, attach, attachmentsDiv);
-                    } else {
-                        handleUnknownAttachmentTypes(document, attach, attachmentsDiv);
-                    }
+            Element messageContentContentMarkdownSpan = document.createElement("span");
+            messageContentContentMarkdownSpan.addClass("preserve-whitespace");
+            messageContentContentMarkdownSpan.html(Formatter.format(message.getContentDisplay()));
 
-                    messageContent.appendChild(attachmentsDiv);
+            messageContentContentMarkdown.appendChild(messageContentContentMarkdownSpan);
+            messageContentContent.appendChild(messageContentContentMarkdown);
+            messageContent.appendChild(messageContentContent);
+        }
+
+        // messsage attachments
+        if (!message.getAttachments().isEmpty()) {
+            for (Message.Attachment attach : message.getAttachments()) {
+                Element attachmentsDiv = document.createElement("div");
+                attachmentsDiv.addClass("chatlog__attachment");
+
+                var attachmentType = attach.getFileExtension();
+                if (imageFormats.contains(attachmentType)) {
+                    handleImages(document, attach, attachmentsDiv);
+                } else if (videoFormats.contains(attachmentType)) {
+                    handleVideos(document, attach, attachmentsDiv);
+                } else if (audioFormats.contains(attachmentType)) {
+                    handleAudios(document, attach, attachmentsDiv);
+                } else {
+                    handleUnknownAttachmentTypes(document, attach, attachmentsDiv);
                 }
+
+                messageContent.appendChild(attachmentsDiv);
             }
+        }
 
-            content.appendChild(messageContent);
+        content.appendChild(messageContent);
 
-            if (!message.getEmbeds().isEmpty()) {
-                for (MessageEmbed embed : message.getEmbeds()) {
-                    if (embed == null) {
-                        continue;
-                    }
-                    Element embedDiv = document.createElement("div");
-                    embedDiv.addClass("chatlog__embed");
-
-                    // embed color
-                    Element embedColorPill = document.createElement("div");
-
-                    if (embed.getColor() == null) {
-                        embedColorPill.addClass("chatlog__embed-color-pill chatlog__embed-color-pill--default");
-                    } else {
-                        embedColorPill.addClass("chatlog__embed-color-pill");
-                        embedColorPill.attr("style",
-                                "background-color: #" + Formatter.toHex(embed.getColor()));
-                    }
-                    embedDiv.appendChild(embedColorPill);
-
-                    Element embedContentContainer = document.createElement("div");
-                    embedContentContainer.addClass("chatlog__embed-content-container");
+        if (!message.getEmbeds().isEmpty()) {
+            for (MessageEmbed embed : message.getEmbeds()) {
+                if (embed == null) {
+                    continue;
+                }
+                Element embedDiv = document.createElement("div");
+                embedDiv.addClass("chatlog__embed");
+
+                // embed color
+                Element embedColorPill = document.createElement("div");
+
+                if (embed.getColor() == null) {
+                    embedColorPill.addClass("chatlog__embed-color-pill chatlog__embed-color-pill--default");
+                } else {
+                    embedColorPill.addClass("chatlog__embed-color-pill");
+                    embedColorPill.attr("style",
+                            "background-color: #" + Formatter.toHex(embed.getColor()));
+                }
+                embedDiv.appendChild(embedColorPill);
 
-                    Element embedContent = document.createElement("div");
-                    embedContent.addClass("chatlog__embed-content");
+                Element embedContentContainer = document.createElement("div");
+                embedContentContainer.addClass("chatlog__embed-content-container");
 
-                    Element embedText = document.createElement("div");
-                    embedText.addClass("chatlog__embed-text");
+                Element embedContent = document.createElement("div");
+                embedContent.addClass("chatlog__embed-content");
 
-                    // embed author
-                    if (embed.getAuthor() != null && embed.getAuthor().getName() != null) {
-                        handleEmbedAuthor(document, embed, embedText);
-                    }
+                Element embedText = document.createElement("div");
+                embedText.addClass("chatlog__embed-text");
 
-                    // embed title
-                    if (embed.getTitle() != null) {
-                        handleEmbedTitle(document, embed, embedText);
-                    }
+                // embed author
+                if (embed.getAuthor() != null && embed.getAuthor().getName() != null) {
+                    handleEmbedAuthor(document, embed, embedText);
+                }
 
-                    // embed description
-                    if (embed.getDescription() != null) {
-                        handleEmbedDescription(document, embed, embedText);
-                    }
+                // embed title
+                if (embed.getTitle() != null) {
+                    handleEmbedTitle(document, embed, embedText);
+                }
 
-                    // embed fields
-                    if (!embed.getFields().isEmpty()) {
-                        handleEmbedFields(document, embed, embedText);
-                    }
+                // embed description
+                if (embed.getDescription() != null) {
+                    handleEmbedDescription(document, embed, embedText);
+                }
 
-                    embedContent.appendChild(embedText);
+                // embed fields
+                if (!embed.getFields().isEmpty()) {
+                    handleEmbedFields(document, embed, embedText);
+                }
 
-                    // embed thumbnail
-                    if (embed.getThumbnail() != null) {
-                        handleEmbedThumbnail(document, embed, embedContent);
-                    }
+                embedContent.appendChild(embedText);
 
-                    embedContentContainer.appendChild(embedContent);
+                // embed thumbnail
+                if (embed.getThumbnail() != null) {
+                    handleEmbedThumbnail(document, embed, embedContent);
+                }
 
-                    // embed image
-                    if (embed.getImage() != null) {
-                        handleEmbedImage(document, embed, embedContentContainer);
-                    }
+                embedContentContainer.appendChild(embedContent);
 
-                    // embed footer
-                    if (embed.getFooter() != null) {
-                        handleFooter(document, embed, embedContentContainer);
-                    }
+                // embed image
+                if (embed.getImage() != null) {
+                    handleEmbedImage(document, embed, embedContentContainer);
+                }
 
-                    embedDiv.appendChild(embedContentContainer);
-                    content.appendChild(embedDiv);
+                // embed footer
+                if (embed.getFooter() != null) {
+                    handleFooter(document, embed, embedContentContainer);
                 }
-            }
 
-            if (!message.getComponents().isEmpty()) {
-                handleInteractionComponents(document, message, content);
+                embedDiv.appendChild(embedContentContainer);
+                content.appendChild(embedDiv);
             }
+        }
 
-            messageGroup.appendChild(content);
-            chatLog.appendChild(messageGroup);
+        if (!message.getComponents().isEmpty()) {
+            handleInteractionComponents(document, message, content);
         }
-        return new ByteArrayInputStream(document.outerHtml().getBytes(StandardCharsets.UTF_8));
+
+        messageGroup.appendChild(content);
+        return messageGroup;
     }
 
     private static void handleFooter(Document document, MessageEmbed embed, Element embedContentContainer) {
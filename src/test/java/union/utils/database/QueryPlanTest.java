@@ -0,0 +1,233 @@
+package union.utils.database;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import union.objects.CaseType;
+import union.services.ExpirationScheduler;
+import union.utils.database.managers.BlacklistManager;
+import union.utils.database.managers.CaseManager;
+import union.utils.database.managers.ModStatsManager;
+import union.utils.database.managers.StrikeManager;
+import union.utils.database.managers.TempRoleManager;
+import union.utils.database.managers.TicketManager;
+import union.utils.database.managers.VerifyCacheManager;
+
+/**
+ * Hot lookups of the managers must be answered by an index of the bundled schema.
+ * <p>Lookups are run against a copy of resources database, filled with generated rows and analyzed,
+ * so the planner sees table sizes of a large bot. Statements are taken from the debug log
+ * of {@link LiteDBBase} and fail the test, if their query plan contains a full table scan.
+ * <p>Only lookups by indexed keys are checked, full reads (preload, search without group)
+ * and the unindexed ticket tag and temp role key lookups are expected to scan.
+ */
+class QueryPlanTest {
+
+	private static final long GUILD_ID = 1L, USER_ID = 2L, CHANNEL_ID = 3L, STEAM64 = 4L;
+	private static final int GROUP_ID = 5;
+	private static final int CASE_ROWS = 1_000_000, ROWS = 200_000;
+
+	@TempDir
+	static Path dir;
+
+	private static Path dbFile;
+	private static ConnectionUtil cu;
+	private static final ListAppender<ILoggingEvent> statements = new ListAppender<>();
+
+	@BeforeAll
+	static void setUp() throws IOException {
+		dbFile = dir.resolve("server.db");
+		try (InputStream in = QueryPlanTest.class.getResourceAsStream("/server.db")) {
+			if (in == null) throw new IOException("Resources database not found.");
+			Files.copy(in, dbFile);
+		}
+		seed();
+
+		Logger logger = (Logger) LoggerFactory.getLogger("QueryPlanTest");
+		logger.setLevel(Level.DEBUG);
+		logger.setAdditive(false);
+		statements.start();
+		logger.addAppender(statements);
+
+		cu = new ConnectionUtil("jdbc:sqlite:"+dbFile, logger, 1);
+	}
+
+	// Rows are spread over 100 guilds, generated by SQLite itself to keep set up fast
+	private static void seed() throws IOException {
+		String numbers = "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i+1 FROM n WHERE i<%d) ";
+		try (Connection conn = DriverManager.getConnection("jdbc:sqlite:"+dbFile);
+			 Statement st = conn.createStatement()) {
+			conn.setAutoCommit(false);
+			st.executeUpdate(numbers.formatted(CASE_ROWS) + "INSERT INTO cases(localId, type, targetId, modId, guildId, timeStart, duration, active)"
+				+ " SELECT i/100, 1+i%5, i%50000, i%200, i%100, 1700000000+i, CASE WHEN i%10=0 THEN 3600 ELSE 0 END, i%3=0 FROM n");
+			st.executeUpdate(numbers.formatted(ROWS) + "INSERT INTO ticket(ticketId, userId, modId, guildId, channelId, closed, tagId)"
+				+ " SELECT i/100, i%50000, i%200, i%100, i, i%50<>0, i%5 FROM n");
+			st.executeUpdate(numbers.formatted(ROWS) + "INSERT INTO blacklist(guildId, groupId, userId, steam64, modId)"
+				+ " SELECT i%100, i%500, i, 76561197960265728+i, i%200 FROM n");
+			st.executeUpdate(numbers.formatted(ROWS) + "INSERT INTO tempRoles(guildId, roleId, userId, expireAfter)"
+				+ " SELECT i%100, i%1000, i, 1700000000+i FROM n");
+			st.executeUpdate(numbers.formatted(ROWS) + "INSERT INTO strikeExpire(guildId, userId, expireAfter, count)"
+				+ " SELECT i%100, i, 1700000000+i, 1 FROM n");
+			st.executeUpdate(numbers.formatted(ROWS) + "INSERT INTO verified(discordId, steam64)"
+				+ " SELECT i, 76561197960265728+i FROM n");
+			st.executeUpdate(numbers.formatted(ROWS) + "INSERT INTO modStats(guildId, modId, day, type, count)"
+				+ " SELECT i%100, (i/100)%200, i/20000, 0, 1 FROM n");
+			conn.commit();
+			conn.setAutoCommit(true);
+			st.execute("ANALYZE");
+		} catch (SQLException ex) {
+			throw new IOException("Failed to fill test database.", ex);
+		}
+	}
+
+	@AfterAll
+	static void tearDown() {
+		cu.close();
+	}
+
+	@BeforeEach
+	void clear() {
+		statements.list.clear();
+	}
+
+	@Test
+	void cases() throws SQLException {
+		CaseManager cases = new CaseManager(cu, new ExpirationScheduler());
+		cases.getInfo(1);
+		cases.getInfo(GUILD_ID, 1);
+		cases.getGuildUser(GUILD_ID, USER_ID, 1);
+		cases.getGuildUser(GUILD_ID, USER_ID, 1, true);
+		cases.getMemberActive(USER_ID, GUILD_ID, CaseType.MUTE);
+		cases.countCases(GUILD_ID, USER_ID);
+		cases.setInactiveStrikeCases(USER_ID, GUILD_ID);
+		cases.setInactiveByType(USER_ID, GUILD_ID, CaseType.MUTE);
+		cases.getPendingExpirations(Instant.now().getEpochSecond());
+		cases.updateReason(1, "reason");
+		cases.setInactive(1);
+		assertIndexed();
+	}
+
+	@Test
+	void tickets() {
+		TicketManager tickets = new TicketManager(cu);
+		tickets.getState(CHANNEL_ID);
+		tickets.setClaimed(CHANNEL_ID, USER_ID);
+		tickets.setUnclaimed(CHANNEL_ID);
+		tickets.setWaitTime(CHANNEL_ID, 0);
+		tickets.setRequestStatus(CHANNEL_ID, 0);
+		tickets.setRequestStatus(CHANNEL_ID, 0, "reason");
+		tickets.forceCloseTicket(CHANNEL_ID);
+		assertIndexed();
+	}
+
+	@Test
+	void blacklist() throws SQLException {
+		BlacklistManager blacklist = new BlacklistManager(cu);
+		blacklist.getByUserId(GROUP_ID, USER_ID);
+		blacklist.getBySteam64(GROUP_ID, STEAM64);
+		blacklist.getByPage(GROUP_ID, 1);
+		blacklist.countEntries(GROUP_ID);
+		blacklist.removeUser(GROUP_ID, USER_ID);
+		blacklist.removeSteam64(GROUP_ID, STEAM64);
+		assertIndexed();
+	}
+
+	@Test
+	void expirations() {
+		long until = Instant.now().getEpochSecond();
+		new TempRoleManager(cu, new ExpirationScheduler()).getPendingExpirations(until);
+		StrikeManager strikes = new StrikeManager(cu, new ExpirationScheduler());
+		strikes.getPendingExpirations(until);
+		strikes.getExpireData(GUILD_ID, USER_ID);
+		strikes.getStrikeCount(GUILD_ID, USER_ID);
+		strikes.getLastAddition(GUILD_ID, USER_ID);
+		assertIndexed();
+	}
+
+	@Test
+	void verified() throws SQLException {
+		VerifyCacheManager verified = new VerifyCacheManager(cu);
+		// Known user is required, others are answered by the bloom filter
+		verified.addUser(USER_ID, STEAM64);
+		statements.list.clear();
+		verified.getSteam64(USER_ID);
+		verified.getDiscordId(STEAM64+1);
+		verified.getForcedUsers();
+		verified.removeByDiscord(USER_ID);
+		assertIndexed();
+	}
+
+	@Test
+	void modStats() {
+		ModStatsManager modStats = new ModStatsManager(cu);
+		LocalDateTime now = LocalDateTime.now();
+		modStats.countCases(GUILD_ID, USER_ID);
+		modStats.countCases(GUILD_ID, USER_ID, Instant.now());
+		modStats.countCases(GUILD_ID, USER_ID, now.minusDays(7), now);
+		modStats.countTickets(GUILD_ID, USER_ID, true);
+		modStats.countTickets(GUILD_ID, USER_ID, Instant.now(), false);
+		modStats.countTickets(GUILD_ID, USER_ID, now.minusDays(7), now, true);
+		modStats.countByMods(GUILD_ID, now.minusDays(7), now);
+		assertIndexed();
+	}
+
+	private void assertIndexed() {
+		List<String> executed = statements.list.stream()
+			.map(ILoggingEvent::getFormattedMessage)
+			// Also common table expressions and INSERT ... SELECT
+			.filter(sql -> !LiteDBBase.statementType(sql).equals("OTHER"))
+			.distinct()
+			.toList();
+		assertFalse(executed.isEmpty(), "No statements were logged.");
+		for (String sql : executed) {
+			for (String step : explain(sql)) {
+				assertFalse(step.startsWith("SCAN"), () -> "Full table scan '%s' in query:\n%s".formatted(step, sql));
+			}
+		}
+	}
+
+	private static List<String> explain(String sql) {
+		List<String> steps = new ArrayList<>();
+		try (Connection conn = DriverManager.getConnection("jdbc:sqlite:"+dbFile);
+			 PreparedStatement st = conn.prepareStatement("EXPLAIN QUERY PLAN "+sql)) {
+			int count = st.getParameterMetaData().getParameterCount();
+			for (int i = 1; i <= count; i++) {
+				st.setNull(i, Types.NULL);
+			}
+			try (ResultSet rs = st.executeQuery()) {
+				while (rs.next()) {
+					steps.add(rs.getString("detail"));
+				}
+			}
+		} catch (SQLException ex) {
+			throw new AssertionError("Failed to explain query:\n"+sql, ex);
+		}
+		return steps;
+	}
+
+}